@@ -2,7 +2,14 @@ package com.example.cookbook;
 
 import android.app.Application;
 import android.util.Log;
+
+import com.example.cookbook.api.ApiClient;
+import com.example.cookbook.util.CatalogMirror;
+import com.example.cookbook.util.FilterOptionsCache;
+import com.example.cookbook.util.StartupOrchestrator;
+import com.example.cookbook.util.UploadQueue;
 import com.google.firebase.FirebaseApp;
+import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GoogleApiAvailability;
 
 public class CookBookApplication extends Application {
@@ -13,41 +20,31 @@ public class CookBookApplication extends Application {
     public void onCreate() {
         super.onCreate();
         instance = this;
-        
-        try {
-            // Initialize Firebase
-            FirebaseApp.initializeApp(this);
-            Log.d(TAG, "Firebase initialized successfully");
-            
-            // Check Google Play Services
+
+        StartupOrchestrator startup = StartupOrchestrator.getInstance();
+        startup.attach(this);
+
+        // Auth is read by the first activity to pick the login or main screen
+        startup.runCritical("firebase", () -> FirebaseApp.initializeApp(this));
+
+        // Everything else waits until the first frame is drawn
+        startup.defer("play-services", () -> {
             int resultCode = GoogleApiAvailability.getInstance().isGooglePlayServicesAvailable(this);
-            if (resultCode == com.google.android.gms.common.ConnectionResult.SUCCESS) {
+            if (resultCode == ConnectionResult.SUCCESS) {
                 Log.d(TAG, "Google Play Services is available");
             } else {
                 Log.e(TAG, "Google Play Services is not available. Error code: " + resultCode);
             }
-                
-            // One-time update: set importedFromApi=true for Pierogi (Polish Dumplings)
-            com.example.cookbook.util.FirebaseManager.getInstance().updateRecipeImportedFlagByTitle(
-                "Pierogi (Polish Dumplings)",
-                true,
-                new com.example.cookbook.util.FirebaseManager.OnRecipesLoadedListener() {
-                    @Override
-                    public void onRecipesLoaded(java.util.List<com.example.cookbook.model.Recipe> recipes) {
-                        android.util.Log.d("CookBookApp", "Updated importedFromApi for Pierogi: " + recipes.size());
-                    }
-                    @Override
-                    public void onError(String error) {
-                        android.util.Log.e("CookBookApp", "Error updating importedFromApi for Pierogi: " + error);
-                    }
-                }
-            );
-        } catch (Exception e) {
-            Log.e(TAG, "Error initializing app", e);
-        }
+        });
+        startup.defer("api-client", ApiClient::getRecipeService);
+        startup.defer("filter-options", () -> FilterOptionsCache.getInstance().warmUp());
+        // Pick up image uploads left pending by a previous run
+        startup.defer("upload-queue", () -> UploadQueue.getInstance(this).resume());
+        // Mirror TheMealDB locally, resuming or refreshing the previous run
+        startup.defer("catalog-mirror", () -> CatalogMirror.getInstance(this).start());
     }
 
     public static CookBookApplication getInstance() {
         return instance;
     }
-} 
\ No newline at end of file
+}
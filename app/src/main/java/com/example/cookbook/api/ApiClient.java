@@ -1,5 +1,16 @@
 package com.example.cookbook.api;
 
+import android.content.Context;
+
+import com.example.cookbook.CookBookApplication;
+import com.example.cookbook.core.api.ApiRecipe;
+import com.example.cookbook.core.api.ApiRecipeTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -7,27 +18,62 @@ import retrofit2.converter.gson.GsonConverterFactory;
 
 public class ApiClient {
     private static final String BASE_URL = "https://www.themealdb.com/api/json/v1/1/";
+    private static final String CACHE_DIRECTORY = "themealdb_http";
+    private static final long CACHE_SIZE_BYTES = 20L * 1024 * 1024;
+
+    private static final CacheStats cacheStats = new CacheStats();
     private static Retrofit retrofit = null;
+    private static RecipeApiService recipeService = null;
 
-    public static Retrofit getClient() {
+    public static synchronized Retrofit getClient() {
         if (retrofit == null) {
             HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
             interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
 
-            OkHttpClient client = new OkHttpClient.Builder()
+            StaleWhileRevalidateInterceptor cacheInterceptor = new StaleWhileRevalidateInterceptor(cacheStats);
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                    .addInterceptor(cacheInterceptor)
                     .addInterceptor(interceptor)
-                    .build();
+                    .addNetworkInterceptor(new CacheControlInterceptor());
+
+            Context context = CookBookApplication.getInstance();
+            if (context != null) {
+                builder.cache(new Cache(new File(context.getCacheDir(), CACHE_DIRECTORY), CACHE_SIZE_BYTES));
+            }
+
+            OkHttpClient client = builder.build();
+            cacheInterceptor.setClient(client);
 
             retrofit = new Retrofit.Builder()
                     .baseUrl(BASE_URL)
                     .client(client)
-                    .addConverterFactory(GsonConverterFactory.create())
+                    .addConverterFactory(GsonConverterFactory.create(createGson()))
                     .build();
         }
         return retrofit;
     }
 
-    public static RecipeApiService getRecipeService() {
-        return getClient().create(RecipeApiService.class);
+    /**
+     * Gson for TheMealDB responses. Meals are parsed by a streaming adapter
+     * rather than by reflection over their forty ingredient slot fields.
+     */
+    static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(ApiRecipe.class, new ApiRecipeTypeAdapter().nullSafe())
+                .create();
+    }
+
+    public static synchronized RecipeApiService getRecipeService() {
+        if (recipeService == null) {
+            recipeService = getClient().create(RecipeApiService.class);
+        }
+        return recipeService;
+    }
+
+    /**
+     * Hit/miss counters of the TheMealDB response cache since process start.
+     */
+    public static CacheStats getCacheStats() {
+        return cacheStats;
     }
-} 
\ No newline at end of file
+}
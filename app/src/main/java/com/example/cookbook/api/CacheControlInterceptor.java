@@ -0,0 +1,25 @@
+package com.example.cookbook.api;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that stamps TheMealDB responses with the max-age of
+ * their {@link CachePolicy}, since the API itself sends no caching headers.
+ */
+public class CacheControlInterceptor implements Interceptor {
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        CachePolicy policy = CachePolicy.forPath(chain.request().url().encodedPath());
+        if (policy == null || !response.isSuccessful()) {
+            return response;
+        }
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "public, max-age=" + policy.getMaxAgeSeconds())
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.cookbook.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Freshness rules for TheMealDB endpoints.
+ *
+ * maxAge is how long a cached response is served without touching the
+ * network. Past that, and up to maxStale, the cached response is still
+ * served immediately while a background request refreshes it.
+ */
+public enum CachePolicy {
+    // categories.php / list.php change a few times a year
+    CATALOG(TimeUnit.DAYS.toSeconds(3), TimeUnit.DAYS.toSeconds(30)),
+    // lookup.php returns a single meal by id
+    LOOKUP(TimeUnit.HOURS.toSeconds(6), TimeUnit.DAYS.toSeconds(7)),
+    // search.php / filter.php
+    SEARCH(TimeUnit.MINUTES.toSeconds(10), TimeUnit.DAYS.toSeconds(1));
+
+    private final long maxAgeSeconds;
+    private final long maxStaleSeconds;
+
+    CachePolicy(long maxAgeSeconds, long maxStaleSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.maxStaleSeconds = maxStaleSeconds;
+    }
+
+    public long getMaxAgeSeconds() { return maxAgeSeconds; }
+    public long getMaxStaleSeconds() { return maxStaleSeconds; }
+
+    /**
+     * Returns the policy for a request path, or null if the endpoint must not be cached
+     * (e.g. random.php).
+     */
+    public static CachePolicy forPath(String encodedPath) {
+        if (encodedPath.endsWith("/categories.php") || encodedPath.endsWith("/list.php")) {
+            return CATALOG;
+        } else if (encodedPath.endsWith("/lookup.php")) {
+            return LOOKUP;
+        } else if (encodedPath.endsWith("/search.php") || encodedPath.endsWith("/filter.php")) {
+            return SEARCH;
+        }
+        return null;
+    }
+}
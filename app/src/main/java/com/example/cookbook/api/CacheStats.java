@@ -0,0 +1,50 @@
+package com.example.cookbook.api;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for the TheMealDB response cache.
+ */
+public class CacheStats {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    void recordHit() { hits.incrementAndGet(); }
+    void recordStaleHit() { staleHits.incrementAndGet(); }
+    void recordMiss() { misses.incrementAndGet(); }
+    void recordRevalidation() { revalidations.incrementAndGet(); }
+
+    /** Responses served from cache while still fresh. */
+    public long getHitCount() { return hits.get(); }
+
+    /** Responses served from cache after maxAge, each followed by a background refresh. */
+    public long getStaleHitCount() { return staleHits.get(); }
+
+    /** Requests that had to wait for the network. */
+    public long getMissCount() { return misses.get(); }
+
+    /** Background refreshes issued for stale entries. */
+    public long getRevalidationCount() { return revalidations.get(); }
+
+    /**
+     * Fraction of requests answered without waiting for the network.
+     */
+    public double getHitRatio() {
+        long served = hits.get() + staleHits.get();
+        long total = served + misses.get();
+        return total == 0 ? 0 : (double) served / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hits.get()
+                + ", staleHits=" + staleHits.get()
+                + ", misses=" + misses.get()
+                + ", revalidations=" + revalidations.get()
+                + ", hitRatio=" + String.format(Locale.US, "%.2f", getHitRatio())
+                + "}";
+    }
+}
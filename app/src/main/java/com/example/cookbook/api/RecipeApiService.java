@@ -1,7 +1,7 @@
 package com.example.cookbook.api;
 
-import com.example.cookbook.api.model.ApiRecipe;
-import com.example.cookbook.api.model.ApiRecipeResponse;
+import com.example.cookbook.core.api.ApiRecipe;
+import com.example.cookbook.core.api.ApiRecipeResponse;
 import com.example.cookbook.api.model.CategoryResponse;
 import com.example.cookbook.api.model.AreaResponse;
 import com.example.cookbook.api.model.IngredientResponse;
@@ -16,6 +16,11 @@ public interface RecipeApiService {
         @Query("s") String query
     );
 
+    @GET("search.php")
+    Call<ApiRecipeResponse> searchByFirstLetter(
+        @Query("f") String letter
+    );
+
     @GET("lookup.php")
     Call<ApiRecipeResponse> getRecipeInformation(
         @Query("i") String id
@@ -0,0 +1,125 @@
+package com.example.cookbook.api;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Okio;
+
+/**
+ * Application interceptor that answers cacheable GETs from the disk cache
+ * whenever an entry within the stale window exists. Stale entries are
+ * returned immediately and refreshed by a background request; only cache
+ * misses wait for the network. If the network fails, any cached entry is
+ * returned regardless of age so the app keeps working offline.
+ */
+public class StaleWhileRevalidateInterceptor implements Interceptor {
+    private static final String TAG = "StaleWhileRevalidate";
+    private static final String HEADER_REVALIDATE = "X-Cache-Revalidate";
+    // OkHttp answers an unsatisfiable only-if-cached request with 504
+    private static final int UNSATISFIABLE_REQUEST = 504;
+
+    private final CacheStats stats;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private volatile OkHttpClient client;
+
+    public StaleWhileRevalidateInterceptor(CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Sets the client used for background refreshes. Must be the client this
+     * interceptor is installed in so refreshed responses land in its cache.
+     */
+    public void setClient(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header(HEADER_REVALIDATE) != null) {
+            return chain.proceed(request.newBuilder()
+                    .removeHeader(HEADER_REVALIDATE)
+                    .cacheControl(CacheControl.FORCE_NETWORK)
+                    .build());
+        }
+
+        CachePolicy policy = CachePolicy.forPath(request.url().encodedPath());
+        if (policy == null || !"GET".equals(request.method()) || client == null || client.cache() == null) {
+            return chain.proceed(request);
+        }
+
+        Response cached = chain.proceed(request.newBuilder()
+                .cacheControl(new CacheControl.Builder()
+                        .onlyIfCached()
+                        .maxStale((int) policy.getMaxStaleSeconds(), TimeUnit.SECONDS)
+                        .build())
+                .build());
+        if (cached.code() != UNSATISFIABLE_REQUEST) {
+            long ageMillis = System.currentTimeMillis() - cached.receivedResponseAtMillis();
+            if (ageMillis > TimeUnit.SECONDS.toMillis(policy.getMaxAgeSeconds())) {
+                stats.recordStaleHit();
+                revalidate(request);
+            } else {
+                stats.recordHit();
+            }
+            return cached;
+        }
+        cached.close();
+
+        stats.recordMiss();
+        try {
+            return chain.proceed(request);
+        } catch (IOException e) {
+            Response fallback = chain.proceed(request.newBuilder()
+                    .cacheControl(CacheControl.FORCE_CACHE)
+                    .build());
+            if (fallback.code() != UNSATISFIABLE_REQUEST) {
+                Log.w(TAG, "Network failed, serving expired cache entry for " + request.url());
+                return fallback;
+            }
+            fallback.close();
+            throw e;
+        }
+    }
+
+    private void revalidate(Request request) {
+        String key = Cache.key(request.url());
+        if (!revalidating.add(key)) {
+            return;
+        }
+        stats.recordRevalidation();
+        client.newCall(request.newBuilder().header(HEADER_REVALIDATE, "1").build())
+                .enqueue(new Callback() {
+                    @Override
+                    public void onResponse(Call call, Response response) {
+                        // Reading the body to the end is what commits the entry to the cache
+                        try (Response r = response) {
+                            r.body().source().readAll(Okio.blackhole());
+                        } catch (IOException e) {
+                            Log.w(TAG, "Error draining revalidation response", e);
+                        } finally {
+                            revalidating.remove(key);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        revalidating.remove(key);
+                        Log.w(TAG, "Revalidation failed for " + request.url(), e);
+                    }
+                });
+    }
+}
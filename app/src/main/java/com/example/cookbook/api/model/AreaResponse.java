@@ -1,5 +1,8 @@
 package com.example.cookbook.api.model;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import com.google.gson.annotations.SerializedName;
 import java.util.List;
 
@@ -11,10 +14,39 @@ public class AreaResponse {
         return areas;
     }
 
-    public static class Area implements java.io.Serializable {
+    public static class Area implements Parcelable {
         @SerializedName("strArea")
         private String name;
 
+        public Area() {
+        }
+
+        protected Area(Parcel in) {
+            name = in.readString();
+        }
+
+        public static final Creator<Area> CREATOR = new Creator<Area>() {
+            @Override
+            public Area createFromParcel(Parcel in) {
+                return new Area(in);
+            }
+
+            @Override
+            public Area[] newArray(int size) {
+                return new Area[size];
+            }
+        };
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            dest.writeString(name);
+        }
+
         public String getName() { return name; }
     }
 } 
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.example.cookbook.api.model;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import com.google.gson.annotations.SerializedName;
 import java.util.List;
 
@@ -11,7 +14,7 @@ public class CategoryResponse {
         return categories;
     }
 
-    public static class Category implements java.io.Serializable {
+    public static class Category implements Parcelable {
         @SerializedName("idCategory")
         private String id;
 
@@ -24,6 +27,41 @@ public class CategoryResponse {
         @SerializedName("strCategoryDescription")
         private String description;
 
+        public Category() {
+        }
+
+        protected Category(Parcel in) {
+            id = in.readString();
+            name = in.readString();
+            thumbnail = in.readString();
+            description = in.readString();
+        }
+
+        public static final Creator<Category> CREATOR = new Creator<Category>() {
+            @Override
+            public Category createFromParcel(Parcel in) {
+                return new Category(in);
+            }
+
+            @Override
+            public Category[] newArray(int size) {
+                return new Category[size];
+            }
+        };
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            dest.writeString(id);
+            dest.writeString(name);
+            dest.writeString(thumbnail);
+            dest.writeString(description);
+        }
+
         // Getters
         public String getId() { return id; }
         public String getName() { return name; }
@@ -1,5 +1,8 @@
 package com.example.cookbook.api.model;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import com.google.gson.annotations.SerializedName;
 import java.util.List;
 
@@ -11,7 +14,7 @@ public class IngredientResponse {
         return ingredients;
     }
 
-    public static class Ingredient implements java.io.Serializable {
+    public static class Ingredient implements Parcelable {
         @SerializedName("idIngredient")
         private String id;
 
@@ -24,6 +27,41 @@ public class IngredientResponse {
         @SerializedName("strType")
         private String type;
 
+        public Ingredient() {
+        }
+
+        protected Ingredient(Parcel in) {
+            id = in.readString();
+            name = in.readString();
+            description = in.readString();
+            type = in.readString();
+        }
+
+        public static final Creator<Ingredient> CREATOR = new Creator<Ingredient>() {
+            @Override
+            public Ingredient createFromParcel(Parcel in) {
+                return new Ingredient(in);
+            }
+
+            @Override
+            public Ingredient[] newArray(int size) {
+                return new Ingredient[size];
+            }
+        };
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            dest.writeString(id);
+            dest.writeString(name);
+            dest.writeString(description);
+            dest.writeString(type);
+        }
+
         public String getId() { return id; }
         public String getName() { return name; }
         public String getDescription() { return description; }
@@ -0,0 +1,31 @@
+package com.example.cookbook.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public interface CatalogDao {
+    @Query("SELECT * FROM catalog_progress")
+    List<CatalogProgressEntity> getProgress();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertProgress(CatalogProgressEntity progress);
+
+    /**
+     * Returns the ID of every cached recipe, mirrored or not.
+     */
+    @Query("SELECT id FROM recipes")
+    List<String> getRecipeIds();
+
+    /**
+     * Returns the mirrored TheMealDB recipes, which have no user ID.
+     */
+    @Transaction
+    @Query("SELECT * FROM recipes WHERE userId IS NULL AND importedFromApi = 1 ORDER BY title")
+    List<RecipeWithIngredients> getCatalogRecipes();
+}
@@ -0,0 +1,21 @@
+package com.example.cookbook.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room row for a finished step of the TheMealDB catalog mirror, e.g. the
+ * first-letter page "letter:a" or the category sweep "category:Beef". It
+ * lives next to the mirrored recipes, so a destructive migration that drops
+ * them also restarts the mirror.
+ */
+@Entity(tableName = "catalog_progress")
+public class CatalogProgressEntity {
+    @PrimaryKey
+    @NonNull
+    public String step = "";
+    public long completedAt;
+    /** Meals the step added to the mirror. */
+    public int added;
+}
@@ -0,0 +1,26 @@
+package com.example.cookbook.db;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room row for a single ingredient of a cached recipe, kept in recipe order.
+ */
+@Entity(tableName = "ingredients",
+        foreignKeys = @ForeignKey(entity = RecipeEntity.class,
+                parentColumns = "id",
+                childColumns = "recipeId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index("recipeId")})
+public class IngredientEntity {
+    @PrimaryKey(autoGenerate = true)
+    public long rowId;
+    public String recipeId;
+    public int position;
+    public String name;
+    public String amount;
+    public String unit;
+    public boolean custom;
+}
@@ -0,0 +1,346 @@
+package com.example.cookbook.db;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.cookbook.model.Ingredient;
+import com.example.cookbook.model.Recipe;
+import com.example.cookbook.util.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline-first store for recipes, backed by {@link RecipeDatabase}.
+ *
+ * Reads run on the disk executor and are delivered on the main thread.
+ * Writes are fire-and-forget; they are applied in issue order because the
+ * disk executor is single-threaded.
+ */
+public class LocalRecipeStore {
+    private static final String TAG = "LocalRecipeStore";
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static LocalRecipeStore instance;
+
+    private final RecipeDao dao;
+    private final CatalogDao catalogDao;
+    private final AppExecutors executors;
+    // Bumped whenever a write that changes recipes or ingredients is issued
+    private final AtomicLong version = new AtomicLong();
+
+    public interface OnCachedRecipesListener {
+        void onCachedRecipes(List<Recipe> recipes);
+    }
+
+    private LocalRecipeStore(Context context) {
+        RecipeDatabase database = RecipeDatabase.getInstance(context);
+        dao = database.recipeDao();
+        catalogDao = database.catalogDao();
+        executors = AppExecutors.getInstance();
+    }
+
+    public static synchronized LocalRecipeStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocalRecipeStore(context);
+        }
+        return instance;
+    }
+
+    public void loadUserRecipes(String userId, OnCachedRecipesListener listener) {
+        executors.diskIO().execute(() -> deliver(toRecipes(dao.getUserRecipes(userId)), listener));
+    }
+
+    public void loadFavoriteRecipes(String userId, OnCachedRecipesListener listener) {
+        executors.diskIO().execute(() -> deliver(toRecipes(dao.getFavoriteRecipes(userId)), listener));
+    }
+
+    /**
+     * Loads the user's recipes together with every cached API recipe, e.g.
+     * to rank them against the user's pantry.
+     */
+    public void loadPantryCandidates(String userId, OnCachedRecipesListener listener) {
+        executors.diskIO().execute(() -> {
+            List<Recipe> result = new ArrayList<>();
+            try {
+                result = toRecipes(dao.getUserAndCachedRecipes(userId));
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading pantry candidates", e);
+            }
+            deliver(result, listener);
+        });
+    }
+
+    /**
+     * Loads every mirrored TheMealDB recipe, ordered by title.
+     */
+    public void loadCatalogRecipes(OnCachedRecipesListener listener) {
+        executors.diskIO().execute(() -> {
+            List<Recipe> result = new ArrayList<>();
+            try {
+                result = toRecipes(catalogDao.getCatalogRecipes());
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading catalog recipes", e);
+            }
+            deliver(result, listener);
+        });
+    }
+
+    /**
+     * Returns a number that changes whenever recipes or ingredients are
+     * written. A load issued after reading it sees every write issued
+     * before, since the disk executor runs in order.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void loadRecipe(String recipeId, OnCachedRecipesListener listener) {
+        executors.diskIO().execute(() -> {
+            RecipeWithIngredients row = dao.getRecipe(recipeId);
+            List<Recipe> result = row != null
+                    ? Collections.singletonList(toRecipe(row))
+                    : new ArrayList<>();
+            deliver(result, listener);
+        });
+    }
+
+    /**
+     * Loads the cached recipes with the given IDs in one query. IDs that are
+     * not cached are left out.
+     */
+    public void loadRecipes(List<String> recipeIds, OnCachedRecipesListener listener) {
+        List<String> ids = new ArrayList<>(recipeIds);
+        executors.diskIO().execute(() -> {
+            List<Recipe> result = new ArrayList<>();
+            try {
+                result = toRecipes(dao.getRecipes(ids));
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading cached recipes", e);
+            }
+            deliver(result, listener);
+        });
+    }
+
+    /**
+     * Searches the full-text index for recipes whose title, ingredients or
+     * instructions contain every word of the query, best matches first.
+     * Each word also matches as a prefix, so partially typed words hit.
+     *
+     * @param userId The current user; their recipes and cached API recipes are searched
+     * @param query Free text as typed by the user
+     * @param listener Receives the ranked recipes on the main thread
+     */
+    public void searchRecipes(String userId, String query, OnCachedRecipesListener listener) {
+        String match = toMatchQuery(query);
+        if (match.isEmpty()) {
+            deliver(new ArrayList<>(), listener);
+            return;
+        }
+        executors.diskIO().execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            List<Recipe> results = new ArrayList<>();
+            try {
+                List<SearchHit> hits = dao.search(match, userId);
+                Map<String, Double> scores = new HashMap<>();
+                for (SearchHit hit : hits) {
+                    scores.put(hit.recipeId, hit.score());
+                }
+                List<String> ids = new ArrayList<>(scores.keySet());
+                Collections.sort(ids, (a, b) -> Double.compare(scores.get(b), scores.get(a)));
+                if (ids.size() > MAX_SEARCH_RESULTS) {
+                    ids = ids.subList(0, MAX_SEARCH_RESULTS);
+                }
+                Map<String, Recipe> byId = new HashMap<>();
+                for (RecipeWithIngredients row : dao.getRecipes(ids)) {
+                    byId.put(row.recipe.id, toRecipe(row));
+                }
+                for (String id : ids) {
+                    Recipe recipe = byId.get(id);
+                    if (recipe != null) {
+                        results.add(recipe);
+                    }
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error searching recipes for: " + query, e);
+            }
+            Log.d(TAG, "searchRecipes '" + query + "': " + results.size() + " results in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+            deliver(results, listener);
+        });
+    }
+
+    /**
+     * Turns free text into an FTS4 MATCH expression: each word becomes a
+     * prefix term and the terms are ANDed. Punctuation is dropped so user
+     * input can never produce a malformed query, and words are lowercased so
+     * they are never read as the OR / NOT / NEAR operators.
+     */
+    static String toMatchQuery(String query) {
+        StringBuilder match = new StringBuilder();
+        if (query == null) {
+            return "";
+        }
+        Matcher matcher = WORD.matcher(query.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append(matcher.group()).append('*');
+        }
+        return match.toString();
+    }
+
+    public void saveRecipe(Recipe recipe) {
+        saveRecipes(Collections.singletonList(recipe));
+    }
+
+    public void saveRecipes(List<Recipe> recipes) {
+        List<Recipe> snapshot = new ArrayList<>(recipes);
+        version.incrementAndGet();
+        executors.diskIO().execute(() -> {
+            try {
+                Rows rows = toRows(snapshot);
+                dao.upsert(rows.recipes, rows.ingredients);
+            } catch (Exception e) {
+                Log.e(TAG, "Error caching recipes", e);
+            }
+        });
+    }
+
+    /**
+     * Replaces the cached recipe set of a user with the result of a full fetch.
+     */
+    public void replaceUserRecipes(String userId, List<Recipe> recipes) {
+        List<Recipe> snapshot = new ArrayList<>(recipes);
+        version.incrementAndGet();
+        executors.diskIO().execute(() -> {
+            try {
+                Rows rows = toRows(snapshot);
+                dao.replaceUserRecipes(userId, rows.recipes, rows.ingredients);
+            } catch (Exception e) {
+                Log.e(TAG, "Error replacing cached user recipes", e);
+            }
+        });
+    }
+
+    /**
+     * Replaces the cached favorites of a user with the result of a full fetch.
+     */
+    public void replaceFavoriteRecipes(String userId, List<Recipe> recipes) {
+        List<Recipe> snapshot = new ArrayList<>(recipes);
+        version.incrementAndGet();
+        executors.diskIO().execute(() -> {
+            try {
+                Rows rows = toRows(snapshot);
+                dao.replaceFavorites(userId, rows.recipes, rows.ingredients);
+            } catch (Exception e) {
+                Log.e(TAG, "Error replacing cached favorites", e);
+            }
+        });
+    }
+
+    public void setFavorite(String recipeId, boolean favorite) {
+        executors.diskIO().execute(() -> dao.setFavorite(recipeId, favorite));
+    }
+
+    public void setImageUrl(String recipeId, String imageUrl) {
+        executors.diskIO().execute(() -> dao.setImageUrl(recipeId, imageUrl));
+    }
+
+    public void deleteRecipe(String recipeId) {
+        version.incrementAndGet();
+        executors.diskIO().execute(() -> dao.deleteRecipe(recipeId));
+    }
+
+    private void deliver(List<Recipe> recipes, OnCachedRecipesListener listener) {
+        executors.mainThread().execute(() -> listener.onCachedRecipes(recipes));
+    }
+
+    private static List<Recipe> toRecipes(List<RecipeWithIngredients> rows) {
+        List<Recipe> recipes = new ArrayList<>(rows.size());
+        for (RecipeWithIngredients row : rows) {
+            recipes.add(toRecipe(row));
+        }
+        return recipes;
+    }
+
+    private static Recipe toRecipe(RecipeWithIngredients row) {
+        RecipeEntity entity = row.recipe;
+        Recipe recipe = new Recipe();
+        recipe.setId(entity.id);
+        recipe.setTitle(entity.title);
+        recipe.setCategory(entity.category);
+        recipe.setArea(entity.area);
+        recipe.setInstructions(entity.instructions);
+        recipe.setImageUrl(entity.imageUrl);
+        recipe.setUserId(entity.userId);
+        recipe.setFavorite(entity.favorite);
+        recipe.setCreatedAt(entity.createdAt);
+        recipe.setImportedFromApi(entity.importedFromApi);
+
+        List<IngredientEntity> ingredientRows = row.ingredients != null
+                ? new ArrayList<>(row.ingredients)
+                : new ArrayList<>();
+        Collections.sort(ingredientRows, (a, b) -> Integer.compare(a.position, b.position));
+        List<Ingredient> ingredients = new ArrayList<>(ingredientRows.size());
+        for (IngredientEntity ingredientRow : ingredientRows) {
+            ingredients.add(new Ingredient(ingredientRow.name, ingredientRow.amount,
+                    ingredientRow.unit, ingredientRow.custom));
+        }
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+
+    private static Rows toRows(List<Recipe> recipes) {
+        Rows rows = new Rows();
+        long now = System.currentTimeMillis();
+        for (Recipe recipe : recipes) {
+            if (recipe == null || recipe.getId() == null) {
+                continue;
+            }
+            RecipeEntity entity = new RecipeEntity();
+            entity.id = recipe.getId();
+            entity.title = recipe.getTitle();
+            entity.category = recipe.getCategory();
+            entity.area = recipe.getArea();
+            entity.instructions = recipe.getInstructions();
+            entity.imageUrl = recipe.getImageUrl();
+            entity.userId = recipe.getUserId();
+            entity.favorite = recipe.isFavorite();
+            entity.createdAt = recipe.getCreatedAt();
+            entity.importedFromApi = recipe.isImportedFromApi();
+            entity.cachedAt = now;
+            rows.recipes.add(entity);
+
+            if (recipe.getIngredients() == null) {
+                continue;
+            }
+            int position = 0;
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                IngredientEntity ingredientRow = new IngredientEntity();
+                ingredientRow.recipeId = entity.id;
+                ingredientRow.position = position++;
+                ingredientRow.name = ingredient.getName();
+                ingredientRow.amount = ingredient.getAmount();
+                ingredientRow.unit = ingredient.getUnit();
+                ingredientRow.custom = ingredient.isCustom();
+                rows.ingredients.add(ingredientRow);
+            }
+        }
+        return rows;
+    }
+
+    private static class Rows {
+        final List<RecipeEntity> recipes = new ArrayList<>();
+        final List<IngredientEntity> ingredients = new ArrayList<>();
+    }
+}
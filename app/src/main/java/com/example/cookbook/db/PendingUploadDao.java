@@ -0,0 +1,30 @@
+package com.example.cookbook.db;
+
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import java.util.List;
+
+@Dao
+public interface PendingUploadDao {
+    @Query("SELECT * FROM pending_uploads ORDER BY createdAt")
+    List<PendingUploadEntity> getAll();
+
+    @Query("SELECT * FROM pending_uploads WHERE id = :id")
+    PendingUploadEntity get(long id);
+
+    @Query("SELECT * FROM pending_uploads WHERE recipeId = :recipeId")
+    List<PendingUploadEntity> getForRecipe(String recipeId);
+
+    @Insert
+    long insert(PendingUploadEntity upload);
+
+    @Update
+    void update(PendingUploadEntity upload);
+
+    @Delete
+    void delete(PendingUploadEntity upload);
+}
@@ -0,0 +1,23 @@
+package com.example.cookbook.db;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room row for a recipe image waiting to be uploaded. The image has already
+ * been processed into {@link #filePath}, so the row stays valid after the
+ * picker's URI permission is gone.
+ */
+@Entity(tableName = "pending_uploads", indices = {@Index("recipeId")})
+public class PendingUploadEntity {
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+    public String recipeId;
+    public String filePath;
+    /** Set once ImgBB accepted the image, so a retry only patches the recipe. */
+    public String imageUrl;
+    public int attempts;
+    public long nextAttemptAt;
+    public long createdAt;
+}
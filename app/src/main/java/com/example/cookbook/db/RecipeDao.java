@@ -0,0 +1,153 @@
+package com.example.cookbook.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Dao
+public abstract class RecipeDao {
+
+    @Transaction
+    @Query("SELECT * FROM recipes WHERE userId = :userId ORDER BY createdAt DESC")
+    public abstract List<RecipeWithIngredients> getUserRecipes(String userId);
+
+    @Transaction
+    @Query("SELECT * FROM recipes WHERE userId = :userId AND favorite = 1 ORDER BY createdAt DESC")
+    public abstract List<RecipeWithIngredients> getFavoriteRecipes(String userId);
+
+    /**
+     * Returns the user's recipes and every cached API recipe, which have no user ID.
+     */
+    @Transaction
+    @Query("SELECT * FROM recipes WHERE userId = :userId OR userId IS NULL")
+    public abstract List<RecipeWithIngredients> getUserAndCachedRecipes(String userId);
+
+    @Transaction
+    @Query("SELECT * FROM recipes WHERE id = :id")
+    public abstract RecipeWithIngredients getRecipe(String id);
+
+    @Query("UPDATE recipes SET favorite = :favorite WHERE id = :id")
+    public abstract void setFavorite(String id, boolean favorite);
+
+    @Query("UPDATE recipes SET imageUrl = :imageUrl WHERE id = :id")
+    public abstract void setImageUrl(String id, String imageUrl);
+
+    @Transaction
+    @Query("SELECT * FROM recipes WHERE id IN (:ids)")
+    public abstract List<RecipeWithIngredients> getRecipes(List<String> ids);
+
+    /**
+     * Matches the full-text index against an FTS4 query. Returns the current
+     * user's recipes and cached API recipes, which have no user ID.
+     */
+    @Query("SELECT recipeId, matchinfo(recipe_search, 'pcx') AS matchInfo FROM recipe_search "
+            + "WHERE recipe_search MATCH :match AND (userId = :userId OR userId IS NULL)")
+    public abstract List<SearchHit> search(String match, String userId);
+
+    @Query("DELETE FROM recipes WHERE id = :id")
+    abstract void deleteRecipeRow(String id);
+
+    @Query("DELETE FROM recipe_search WHERE recipeId IN (:recipeIds)")
+    abstract void deleteSearchRowsFor(List<String> recipeIds);
+
+    @Query("DELETE FROM recipe_search WHERE userId = :userId")
+    abstract void deleteUserSearchRows(String userId);
+
+    @Insert
+    abstract void insertSearchRows(List<RecipeSearchEntity> rows);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertRecipes(List<RecipeEntity> recipes);
+
+    @Insert
+    abstract void insertIngredients(List<IngredientEntity> ingredients);
+
+    @Query("DELETE FROM ingredients WHERE recipeId IN (:recipeIds)")
+    abstract void deleteIngredientsFor(List<String> recipeIds);
+
+    @Query("DELETE FROM recipes WHERE userId = :userId")
+    abstract void deleteUserRecipeRows(String userId);
+
+    @Query("UPDATE recipes SET favorite = 0 WHERE userId = :userId")
+    abstract void clearFavorites(String userId);
+
+    @Transaction
+    public void deleteRecipe(String id) {
+        deleteSearchRowsFor(Collections.singletonList(id));
+        deleteRecipeRow(id);
+    }
+
+    /**
+     * Inserts or replaces the given recipes, rewriting their ingredient rows
+     * and full-text index rows.
+     */
+    @Transaction
+    public void upsert(List<RecipeEntity> recipes, List<IngredientEntity> ingredients) {
+        List<String> ids = new ArrayList<>();
+        for (RecipeEntity recipe : recipes) {
+            ids.add(recipe.id);
+        }
+        deleteIngredientsFor(ids);
+        deleteSearchRowsFor(ids);
+        insertRecipes(recipes);
+        insertIngredients(ingredients);
+        insertSearchRows(toSearchRows(recipes, ingredients));
+    }
+
+    /**
+     * Replaces every cached recipe of a user with a fresh full result set.
+     */
+    @Transaction
+    public void replaceUserRecipes(String userId, List<RecipeEntity> recipes, List<IngredientEntity> ingredients) {
+        deleteUserSearchRows(userId);
+        deleteUserRecipeRows(userId);
+        upsert(recipes, ingredients);
+    }
+
+    /**
+     * Replaces the favorite flags of a user with a fresh favorites result set.
+     */
+    @Transaction
+    public void replaceFavorites(String userId, List<RecipeEntity> recipes, List<IngredientEntity> ingredients) {
+        clearFavorites(userId);
+        upsert(recipes, ingredients);
+    }
+
+    private static List<RecipeSearchEntity> toSearchRows(List<RecipeEntity> recipes,
+                                                         List<IngredientEntity> ingredients) {
+        Map<String, StringBuilder> ingredientText = new HashMap<>();
+        for (IngredientEntity ingredient : ingredients) {
+            if (ingredient.name == null) {
+                continue;
+            }
+            StringBuilder text = ingredientText.get(ingredient.recipeId);
+            if (text == null) {
+                text = new StringBuilder();
+                ingredientText.put(ingredient.recipeId, text);
+            } else {
+                text.append(' ');
+            }
+            text.append(ingredient.name);
+        }
+        List<RecipeSearchEntity> rows = new ArrayList<>(recipes.size());
+        for (RecipeEntity recipe : recipes) {
+            RecipeSearchEntity row = new RecipeSearchEntity();
+            row.recipeId = recipe.id;
+            row.userId = recipe.userId;
+            row.title = recipe.title;
+            StringBuilder text = ingredientText.get(recipe.id);
+            row.ingredients = text != null ? text.toString() : null;
+            row.instructions = recipe.instructions;
+            rows.add(row);
+        }
+        return rows;
+    }
+}
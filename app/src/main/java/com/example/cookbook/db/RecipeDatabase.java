@@ -0,0 +1,38 @@
+package com.example.cookbook.db;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+/**
+ * On-device copy of the recipes the app has seen. Firestore stays the
+ * system of record; this database is a cache that can always be rebuilt,
+ * so schema changes fall back to a destructive migration.
+ */
+@Database(entities = {RecipeEntity.class, IngredientEntity.class, RecipeSearchEntity.class,
+        CatalogProgressEntity.class},
+        version = 3, exportSchema = false)
+public abstract class RecipeDatabase extends RoomDatabase {
+    private static final String DATABASE_NAME = "cookbook.db";
+    private static volatile RecipeDatabase instance;
+
+    public abstract RecipeDao recipeDao();
+
+    public abstract CatalogDao catalogDao();
+
+    public static RecipeDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (RecipeDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(),
+                                    RecipeDatabase.class, DATABASE_NAME)
+                            .fallbackToDestructiveMigration()
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
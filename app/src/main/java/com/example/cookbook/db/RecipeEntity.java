@@ -0,0 +1,26 @@
+package com.example.cookbook.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room row for a cached recipe. Ingredients live in {@link IngredientEntity}.
+ */
+@Entity(tableName = "recipes", indices = {@Index("userId")})
+public class RecipeEntity {
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+    public String title;
+    public String category;
+    public String area;
+    public String instructions;
+    public String imageUrl;
+    public String userId;
+    public boolean favorite;
+    public long createdAt;
+    public boolean importedFromApi;
+    public long cachedAt;
+}
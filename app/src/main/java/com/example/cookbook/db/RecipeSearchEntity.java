@@ -0,0 +1,24 @@
+package com.example.cookbook.db;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full-text index row for a cached recipe. Text is tokenized with
+ * unicode61, which folds case and strips diacritics, so "creme" matches
+ * "Crème". The row is rewritten whenever the recipe is written to the cache.
+ *
+ * Column order matters: {@link SearchHit#COLUMN_WEIGHTS} is indexed by it.
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+        tokenizerArgs = {"remove_diacritics=1"},
+        notIndexed = {"recipeId", "userId"})
+@Entity(tableName = "recipe_search")
+public class RecipeSearchEntity {
+    public String recipeId;
+    public String userId;
+    public String title;
+    public String ingredients;
+    public String instructions;
+}
@@ -0,0 +1,17 @@
+package com.example.cookbook.db;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import java.util.List;
+
+/**
+ * A cached recipe together with its ingredient rows.
+ */
+public class RecipeWithIngredients {
+    @Embedded
+    public RecipeEntity recipe;
+
+    @Relation(parentColumn = "id", entityColumn = "recipeId")
+    public List<IngredientEntity> ingredients;
+}
@@ -0,0 +1,45 @@
+package com.example.cookbook.db;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A full-text match and the raw {@code matchinfo(recipe_search, 'pcx')} blob used to rank it.
+ */
+public class SearchHit {
+    /** Weight per {@link RecipeSearchEntity} column; a title hit outranks an instructions hit. */
+    static final double[] COLUMN_WEIGHTS = {0, 0, 3.0, 2.0, 1.0};
+
+    public String recipeId;
+    public byte[] matchInfo;
+
+    /**
+     * Scores the hit as the weighted sum, over every query term and column,
+     * of this row's hits divided by the hits across all rows, so rare terms
+     * count for more than common ones.
+     */
+    double score() {
+        if (matchInfo == null || matchInfo.length < 8) {
+            return 0;
+        }
+        // matchinfo is an array of 32-bit integers in machine byte order
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phraseCount = buffer.getInt(0);
+        int columnCount = buffer.getInt(4);
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount && column < COLUMN_WEIGHTS.length; column++) {
+                int offset = 4 * (2 + 3 * (phrase * columnCount + column));
+                if (offset + 8 > matchInfo.length) {
+                    return score;
+                }
+                int hitsInRow = buffer.getInt(offset);
+                int hitsInAllRows = buffer.getInt(offset + 4);
+                if (hitsInRow > 0 && hitsInAllRows > 0) {
+                    score += COLUMN_WEIGHTS[column] * hitsInRow / hitsInAllRows;
+                }
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.cookbook.db;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+/**
+ * Durable queue of image uploads. Unlike {@link RecipeDatabase} this holds
+ * data that exists nowhere else, so it lives in its own file and schema
+ * changes need real migrations.
+ */
+@Database(entities = {PendingUploadEntity.class}, version = 1, exportSchema = false)
+public abstract class UploadDatabase extends RoomDatabase {
+    private static final String DATABASE_NAME = "uploads.db";
+    private static volatile UploadDatabase instance;
+
+    public abstract PendingUploadDao pendingUploadDao();
+
+    public static UploadDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (UploadDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(),
+                                    UploadDatabase.class, DATABASE_NAME)
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
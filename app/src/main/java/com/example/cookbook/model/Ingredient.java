@@ -1,10 +1,11 @@
 package com.example.cookbook.model;
 
-import java.io.Serializable;
+import android.os.Parcel;
+import android.os.Parcelable;
 
-public class Ingredient implements Serializable {
-    private static final long serialVersionUID = 1L;
-    
+import com.example.cookbook.core.model.IngredientData;
+
+public class Ingredient implements Parcelable, IngredientData {
     private String name;
     private String amount;
     private String unit;
@@ -28,6 +29,38 @@ public class Ingredient implements Serializable {
         this.isCustom = isCustom;
     }
 
+    protected Ingredient(Parcel in) {
+        name = in.readString();
+        amount = in.readString();
+        unit = in.readString();
+        isCustom = in.readInt() != 0;
+    }
+
+    public static final Creator<Ingredient> CREATOR = new Creator<Ingredient>() {
+        @Override
+        public Ingredient createFromParcel(Parcel in) {
+            return new Ingredient(in);
+        }
+
+        @Override
+        public Ingredient[] newArray(int size) {
+            return new Ingredient[size];
+        }
+    };
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(name);
+        dest.writeString(amount);
+        dest.writeString(unit);
+        dest.writeInt(isCustom ? 1 : 0);
+    }
+
     // Getters and Setters
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
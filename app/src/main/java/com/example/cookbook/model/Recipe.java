@@ -1,21 +1,26 @@
 package com.example.cookbook.model;
 
-import java.io.Serializable;
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import java.util.List;
 import java.util.ArrayList;
+import com.example.cookbook.core.model.RecipeData;
+import com.google.firebase.firestore.Exclude;
 import com.google.firebase.firestore.PropertyName;
 
 /**
  * Recipe model class representing a recipe in the CookBook application.
  * This class is used for both user-created recipes and recipes imported from external APIs.
- * Implements Serializable for data transfer between activities.
+ * Implements Parcelable for the rare hand-off of a recipe that has no ID yet;
+ * screens normally pass the ID and resolve it from {@code RecipeMemoryStore}.
+ * Implements {@link RecipeData} so the core module's filtering can read it.
  */
-public class Recipe implements Serializable {
-    private static final long serialVersionUID = 1L;
-    
+public class Recipe implements Parcelable, RecipeData {
     private String id;
     private String title;
     private String category;
+    private String area;
     private List<Ingredient> ingredients;
     private String instructions;
     private String imageUrl;
@@ -23,6 +28,8 @@ public class Recipe implements Serializable {
     private boolean favorite;
     private long createdAt;
     private boolean importedFromApi;
+    // Cached result of DietaryClassifier, never stored or parcelled
+    private int dietaryFlags = DIETARY_FLAGS_UNKNOWN;
 
     /**
      * Default constructor required for Firestore serialization.
@@ -49,6 +56,72 @@ public class Recipe implements Serializable {
         this.createdAt = System.currentTimeMillis();
     }
 
+    /**
+     * Copy constructor. The ingredient list is copied; the ingredients are shared.
+     *
+     * @param other The recipe to copy
+     */
+    public Recipe(Recipe other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.category = other.category;
+        this.area = other.area;
+        this.ingredients = other.ingredients != null ? new ArrayList<>(other.ingredients) : null;
+        this.instructions = other.instructions;
+        this.imageUrl = other.imageUrl;
+        this.userId = other.userId;
+        this.favorite = other.favorite;
+        this.createdAt = other.createdAt;
+        this.importedFromApi = other.importedFromApi;
+        this.dietaryFlags = other.dietaryFlags;
+    }
+
+    protected Recipe(Parcel in) {
+        id = in.readString();
+        title = in.readString();
+        category = in.readString();
+        area = in.readString();
+        ingredients = in.createTypedArrayList(Ingredient.CREATOR);
+        instructions = in.readString();
+        imageUrl = in.readString();
+        userId = in.readString();
+        favorite = in.readInt() != 0;
+        createdAt = in.readLong();
+        importedFromApi = in.readInt() != 0;
+    }
+
+    public static final Creator<Recipe> CREATOR = new Creator<Recipe>() {
+        @Override
+        public Recipe createFromParcel(Parcel in) {
+            return new Recipe(in);
+        }
+
+        @Override
+        public Recipe[] newArray(int size) {
+            return new Recipe[size];
+        }
+    };
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(id);
+        dest.writeString(title);
+        dest.writeString(category);
+        dest.writeString(area);
+        dest.writeTypedList(ingredients);
+        dest.writeString(instructions);
+        dest.writeString(imageUrl);
+        dest.writeString(userId);
+        dest.writeInt(favorite ? 1 : 0);
+        dest.writeLong(createdAt);
+        dest.writeInt(importedFromApi ? 1 : 0);
+    }
+
     // Getters and Setters
     /**
      * Gets the unique identifier for this recipe.
@@ -86,6 +159,18 @@ public class Recipe implements Serializable {
      */
     public void setCategory(String category) { this.category = category; }
 
+    /**
+     * Gets the cuisine of the recipe, e.g. "Italian". Only TheMealDB recipes have one.
+     * @return The recipe area, or null
+     */
+    public String getArea() { return area; }
+
+    /**
+     * Sets the cuisine of the recipe.
+     * @param area The recipe area to set
+     */
+    public void setArea(String area) { this.area = area; }
+
     /**
      * Gets the list of ingredients for this recipe.
      * @return List of ingredients
@@ -96,7 +181,25 @@ public class Recipe implements Serializable {
      * Sets the list of ingredients for this recipe.
      * @param ingredients The list of ingredients to set
      */
-    public void setIngredients(List<Ingredient> ingredients) { this.ingredients = ingredients; }
+    public void setIngredients(List<Ingredient> ingredients) {
+        this.ingredients = ingredients;
+        this.dietaryFlags = DIETARY_FLAGS_UNKNOWN;
+    }
+
+    /**
+     * Gets the diets this recipe suits as computed by
+     * {@code DietaryClassifier}, or {@link #DIETARY_FLAGS_UNKNOWN}.
+     * @return Bitmask of dietary flags
+     */
+    @Exclude
+    public int getDietaryFlags() { return dietaryFlags; }
+
+    /**
+     * Caches the diets this recipe suits. Cleared when the ingredients are replaced.
+     * @param dietaryFlags Bitmask of dietary flags
+     */
+    @Exclude
+    public void setDietaryFlags(int dietaryFlags) { this.dietaryFlags = dietaryFlags; }
 
     /**
      * Gets the cooking instructions for this recipe.
@@ -21,7 +21,7 @@ import com.example.cookbook.databinding.ActivityAddRecipeBinding;
 import com.example.cookbook.model.Ingredient;
 import com.example.cookbook.model.Recipe;
 import com.example.cookbook.util.FirebaseManager;
-import com.example.cookbook.util.ImgBBUploadManager;
+import com.example.cookbook.util.UploadQueue;
 import com.example.cookbook.ui.adapters.IngredientAdapter;
 
 import java.io.File;
@@ -62,10 +62,28 @@ public class AddRecipeActivity extends AppCompatActivity implements IngredientAd
         // Handle edit mode
         Intent intent = getIntent();
         isEditMode = intent.getBooleanExtra("edit_recipe", false);
-        if (isEditMode && intent.hasExtra("recipe")) {
-            editingRecipe = (Recipe) intent.getSerializableExtra("recipe");
-            prefillFieldsForEdit(editingRecipe);
+        if (isEditMode) {
             getSupportActionBar().setTitle(R.string.title_edit_recipe);
+            RecipeDetailActivity.resolveRecipe(intent, firebaseManager, new FirebaseManager.OnRecipesLoadedListener() {
+                @Override
+                public void onRecipesLoaded(List<Recipe> recipes) {
+                    if (isFinishing() || isDestroyed()) {
+                        return;
+                    }
+                    // Edit a copy so the instance shared through RecipeMemoryStore stays untouched until saved
+                    editingRecipe = new Recipe(recipes.get(0));
+                    prefillFieldsForEdit(editingRecipe);
+                }
+
+                @Override
+                public void onError(String error) {
+                    if (isFinishing() || isDestroyed()) {
+                        return;
+                    }
+                    Toast.makeText(AddRecipeActivity.this, "Error: Recipe not found", Toast.LENGTH_SHORT).show();
+                    finish();
+                }
+            });
         }
     }
 
@@ -184,31 +202,28 @@ public class AddRecipeActivity extends AppCompatActivity implements IngredientAd
             Toast.makeText(this, "Please fill in all required fields", Toast.LENGTH_SHORT).show();
             return;
         }
+        if (isEditMode && editingRecipe == null) {
+            // Still loading the recipe after a process restart; saving now would create a copy
+            return;
+        }
 
         binding.progressBar.setVisibility(View.VISIBLE);
 
-        if (isEditMode && editingRecipe != null) {
+        if (isEditMode) {
             // Update existing recipe
             editingRecipe.setTitle(title);
             editingRecipe.setCategory(category);
             editingRecipe.setInstructions(instructions);
             editingRecipe.setIngredients(ingredients);
             if (selectedImageUri != null) {
-                firebaseManager.uploadRecipeImage(selectedImageUri)
-                    .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<String>() {
-                        @Override
-                        public void onSuccess(String imageUrl) {
-                            editingRecipe.setImageUrl(imageUrl);
-                            updateRecipeInFirestore(editingRecipe);
-                        }
-                    })
-                    .addOnFailureListener(new com.google.android.gms.tasks.OnFailureListener() {
-                        @Override
-                        public void onFailure(Exception e) {
-                            binding.progressBar.setVisibility(View.GONE);
-                            Toast.makeText(AddRecipeActivity.this, "Failed to upload image: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                        }
-                    });
+                // Queue the image; the upload queue patches imageUrl in when it is done,
+                // and updateRecipe() never writes imageUrl, so the order of the writes does not matter
+                queueImageUpload(editingRecipe.getId(), new Runnable() {
+                    @Override
+                    public void run() {
+                        updateRecipeInFirestore(editingRecipe);
+                    }
+                });
             } else {
                 updateRecipeInFirestore(editingRecipe);
             }
@@ -225,28 +240,41 @@ public class AddRecipeActivity extends AppCompatActivity implements IngredientAd
                 ", ingredients count=" + (recipe.getIngredients() != null ? recipe.getIngredients().size() : 0) + 
                 ", instructions length=" + (recipe.getInstructions() != null ? recipe.getInstructions().length() : 0));
             if (selectedImageUri != null) {
-                // Upload image first
-                firebaseManager.uploadRecipeImage(selectedImageUri)
-                    .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<String>() {
-                        @Override
-                        public void onSuccess(String imageUrl) {
-                            recipe.setImageUrl(imageUrl);
-                            saveRecipeToFirestore(recipe);
-                        }
-                    })
-                    .addOnFailureListener(new com.google.android.gms.tasks.OnFailureListener() {
-                        @Override
-                        public void onFailure(Exception e) {
-                            binding.progressBar.setVisibility(View.GONE);
-                            Toast.makeText(AddRecipeActivity.this, "Failed to upload image: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                        }
-                    });
+                // Reserve the ID so the queued upload can patch the saved recipe later
+                String recipeId = firebaseManager.newRecipeId();
+                queueImageUpload(recipeId, new Runnable() {
+                    @Override
+                    public void run() {
+                        saveRecipeToFirestore(recipe, recipeId);
+                    }
+                });
             } else {
-                saveRecipeToFirestore(recipe);
+                saveRecipeToFirestore(recipe, firebaseManager.newRecipeId());
             }
         }
     }
 
+    /**
+     * Processes the selected image into the upload queue, then saves the recipe
+     * without waiting for the upload itself.
+     */
+    private void queueImageUpload(String recipeId, Runnable onQueued) {
+        UploadQueue.getInstance(this).enqueue(recipeId, selectedImageUri)
+            .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<Long>() {
+                @Override
+                public void onSuccess(Long uploadId) {
+                    onQueued.run();
+                }
+            })
+            .addOnFailureListener(new com.google.android.gms.tasks.OnFailureListener() {
+                @Override
+                public void onFailure(Exception e) {
+                    binding.progressBar.setVisibility(View.GONE);
+                    Toast.makeText(AddRecipeActivity.this, "Failed to prepare image: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                }
+            });
+    }
+
     private void updateRecipeInFirestore(Recipe recipe) {
         firebaseManager.updateRecipe(recipe)
             .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<Void>() {
@@ -265,11 +293,11 @@ public class AddRecipeActivity extends AppCompatActivity implements IngredientAd
             });
     }
 
-    private void saveRecipeToFirestore(Recipe recipe) {
+    private void saveRecipeToFirestore(Recipe recipe, String recipeId) {
         Log.d("AddRecipeActivity", "Saving recipe to Firestore: " + recipe.toString());
         // Ensure the recipe is marked as user-created (not imported from API)
         recipe.setImportedFromApi(false);
-        firebaseManager.addRecipe(recipe)
+        firebaseManager.addRecipe(recipe, recipeId)
                 .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<com.google.firebase.firestore.DocumentReference>() {
                     @Override
                     public void onSuccess(com.google.firebase.firestore.DocumentReference documentReference) {
@@ -15,6 +15,9 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 
 import com.example.cookbook.util.FirebaseManager;
+import com.example.cookbook.util.MigrationRunner;
+import com.example.cookbook.util.StartupOrchestrator;
+import com.example.cookbook.util.UploadQueue;
 import com.example.cookbook.ui.fragments.FavoritesFragment;
 import com.example.cookbook.ui.fragments.HomeFragment;
 import com.example.cookbook.ui.fragments.ProfileFragment;
@@ -30,6 +33,27 @@ public class MainActivity extends AppCompatActivity implements NavigationBarView
     private ActivityMainBinding binding;
     private FirebaseManager firebaseManager;
 
+    /**
+     * Reports image uploads that finish while the recipe lists are shown.
+     * The lists pick up the new image URL from Firestore on their own.
+     */
+    private final UploadQueue.UploadListener uploadListener = new UploadQueue.UploadListener() {
+        @Override
+        public void onProgress(long uploadId, String recipeId, int percent) {
+            // Only the recipe screen shows progress
+        }
+
+        @Override
+        public void onUploaded(long uploadId, String recipeId, String imageUrl) {
+            Toast.makeText(MainActivity.this, R.string.msg_image_upload_success, Toast.LENGTH_SHORT).show();
+        }
+
+        @Override
+        public void onFailed(long uploadId, String recipeId, String error) {
+            Toast.makeText(MainActivity.this, getString(R.string.msg_image_upload_failed_reason, error), Toast.LENGTH_LONG).show();
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -42,6 +66,18 @@ public class MainActivity extends AppCompatActivity implements NavigationBarView
         }
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        UploadQueue.getInstance(this).addListener(uploadListener);
+    }
+
+    @Override
+    protected void onStop() {
+        UploadQueue.getInstance(this).removeListener(uploadListener);
+        super.onStop();
+    }
+
     private void setupLoginScreen() {
         // Get references to UI elements
         TextInputEditText etEmail = findViewById(R.id.etEmail);
@@ -160,6 +196,9 @@ public class MainActivity extends AppCompatActivity implements NavigationBarView
     }
 
     private void showMainAppUI(Bundle savedInstanceState) {
+        // Request the first page of recipes while the main UI is inflated;
+        // HomeFragment observes the same stream and picks up the result
+        firebaseManager.getUserRecipesStream().start();
         setContentView(R.layout.main_app);
         ActivityMainBinding binding = ActivityMainBinding.inflate(getLayoutInflater());
         // Set up bottom navigation and fragments
@@ -168,6 +207,8 @@ public class MainActivity extends AppCompatActivity implements NavigationBarView
         if (savedInstanceState == null) {
             loadFragment(new HomeFragment());
         }
+        // Data maintenance waits until the first frame is drawn
+        StartupOrchestrator.getInstance().defer("migrations", () -> MigrationRunner.getInstance().runPending());
     }
 
     private boolean validateInput(TextInputLayout tilEmail, TextInputLayout tilPassword, String email, String password) {
@@ -1,29 +1,125 @@
 package com.example.cookbook.ui.activities;
 
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.IntentCompat;
 
 import com.bumptech.glide.Glide;
 import com.example.cookbook.R;
 import com.example.cookbook.model.Ingredient;
 import com.example.cookbook.model.Recipe;
 import com.example.cookbook.util.FirebaseManager;
+import com.example.cookbook.util.RecipeMemoryStore;
+import com.example.cookbook.util.UploadQueue;
 import com.google.android.material.button.MaterialButton;
 
+import java.util.Collections;
+import java.util.List;
+
 public class RecipeDetailActivity extends AppCompatActivity {
     private static final String TAG = "RecipeDetailActivity";
+    static final String EXTRA_RECIPE_ID = "recipe_id";
+    static final String EXTRA_RECIPE = "recipe";
     private Recipe recipe;
     private FirebaseManager firebaseManager;
 
+    /**
+     * Shows the progress of an image upload queued for the shown recipe and
+     * swaps the image in once it is done.
+     */
+    private final UploadQueue.UploadListener uploadListener = new UploadQueue.UploadListener() {
+        @Override
+        public void onProgress(long uploadId, String recipeId, int percent) {
+            if (!isShown(recipeId)) {
+                return;
+            }
+            ProgressBar progressImageUpload = findViewById(R.id.progressImageUpload);
+            progressImageUpload.setVisibility(View.VISIBLE);
+            progressImageUpload.setProgress(percent);
+        }
+
+        @Override
+        public void onUploaded(long uploadId, String recipeId, String imageUrl) {
+            if (!isShown(recipeId)) {
+                return;
+            }
+            findViewById(R.id.progressImageUpload).setVisibility(View.GONE);
+            Glide.with(RecipeDetailActivity.this)
+                .load(imageUrl)
+                .placeholder(R.drawable.placeholder_recipe)
+                .error(R.drawable.placeholder_recipe)
+                .into((ImageView) findViewById(R.id.ivRecipe));
+            Toast.makeText(RecipeDetailActivity.this, R.string.msg_image_upload_success, Toast.LENGTH_SHORT).show();
+        }
+
+        @Override
+        public void onFailed(long uploadId, String recipeId, String error) {
+            if (!isShown(recipeId)) {
+                return;
+            }
+            findViewById(R.id.progressImageUpload).setVisibility(View.GONE);
+            Toast.makeText(RecipeDetailActivity.this,
+                getString(R.string.msg_image_upload_failed_reason, error), Toast.LENGTH_LONG).show();
+        }
+
+        private boolean isShown(String recipeId) {
+            return recipe != null && recipeId.equals(recipe.getId());
+        }
+    };
+
+    /**
+     * Creates an intent that opens a recipe. The recipe is handed over through
+     * {@link RecipeMemoryStore} and only its ID goes into the intent.
+     *
+     * @param context Context to start the activity from
+     * @param recipe The recipe to show
+     */
+    public static Intent newIntent(Context context, Recipe recipe) {
+        Intent intent = new Intent(context, RecipeDetailActivity.class);
+        putRecipe(intent, recipe);
+        return intent;
+    }
+
+    /**
+     * Puts a recipe into an intent by ID, or parcelled if it has no ID yet.
+     */
+    static void putRecipe(Intent intent, Recipe recipe) {
+        if (recipe.getId() != null) {
+            RecipeMemoryStore.getInstance().put(recipe);
+            intent.putExtra(EXTRA_RECIPE_ID, recipe.getId());
+        } else {
+            intent.putExtra(EXTRA_RECIPE, recipe);
+        }
+    }
+
+    /**
+     * Reads the recipe put into an intent by {@link #putRecipe(Intent, Recipe)}.
+     * The listener is called right away unless the recipe has to be loaded,
+     * which only happens after the process was restarted.
+     */
+    static void resolveRecipe(Intent intent, FirebaseManager firebaseManager, FirebaseManager.OnRecipesLoadedListener listener) {
+        Recipe parcelled = IntentCompat.getParcelableExtra(intent, EXTRA_RECIPE, Recipe.class);
+        String recipeId = intent.getStringExtra(EXTRA_RECIPE_ID);
+        if (parcelled != null) {
+            listener.onRecipesLoaded(Collections.singletonList(parcelled));
+        } else if (recipeId != null) {
+            firebaseManager.loadRecipeById(recipeId, listener);
+        } else {
+            listener.onError("No recipe in intent");
+        }
+    }
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -31,15 +127,42 @@ public class RecipeDetailActivity extends AppCompatActivity {
 
         firebaseManager = FirebaseManager.getInstance();
 
-        try {
-            recipe = (Recipe) getIntent().getSerializableExtra("recipe");
-            if (recipe == null) {
-                Log.e(TAG, "Recipe object is null");
-                Toast.makeText(this, "Error: Recipe not found", Toast.LENGTH_SHORT).show();
+        resolveRecipe(getIntent(), firebaseManager, new FirebaseManager.OnRecipesLoadedListener() {
+            @Override
+            public void onRecipesLoaded(List<Recipe> recipes) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                showRecipe(recipes.get(0));
+            }
+
+            @Override
+            public void onError(String error) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                Log.e(TAG, "Recipe not found: " + error);
+                Toast.makeText(RecipeDetailActivity.this, "Error: Recipe not found", Toast.LENGTH_SHORT).show();
                 finish();
-                return;
             }
+        });
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        UploadQueue.getInstance(this).addListener(uploadListener);
+    }
 
+    @Override
+    protected void onStop() {
+        UploadQueue.getInstance(this).removeListener(uploadListener);
+        super.onStop();
+    }
+
+    private void showRecipe(Recipe recipe) {
+        this.recipe = recipe;
+        try {
             TextView tvTitle = findViewById(R.id.tvTitle);
             TextView tvCategory = findViewById(R.id.tvCategory);
             TextView tvIngredients = findViewById(R.id.tvIngredients);
@@ -88,7 +211,7 @@ public class RecipeDetailActivity extends AppCompatActivity {
                 btnEditRecipe.setOnClickListener(v -> {
                     Intent intent = new Intent(this, AddRecipeActivity.class);
                     intent.putExtra("edit_recipe", true);
-                    intent.putExtra("recipe", recipe);
+                    putRecipe(intent, recipe);
                     startActivity(intent);
                 });
             } else {
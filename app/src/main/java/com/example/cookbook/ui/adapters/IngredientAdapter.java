@@ -7,16 +7,22 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.cookbook.R;
 import com.example.cookbook.databinding.ItemIngredientBinding;
 import com.example.cookbook.model.Ingredient;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+
+public class IngredientAdapter extends ListAdapter<Ingredient, IngredientAdapter.IngredientViewHolder> {
+    // Payload for a change that only touched amount or unit
+    private static final Object PAYLOAD_AMOUNT = new Object();
 
-public class IngredientAdapter extends RecyclerView.Adapter<IngredientAdapter.IngredientViewHolder> {
-    private List<Ingredient> ingredients;
     private final OnIngredientActionListener listener;
 
     public interface OnIngredientActionListener {
@@ -25,10 +31,30 @@ public class IngredientAdapter extends RecyclerView.Adapter<IngredientAdapter.In
     }
 
     public IngredientAdapter(List<Ingredient> ingredients, OnIngredientActionListener listener) {
-        this.ingredients = ingredients;
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        submitList(new ArrayList<>(ingredients));
     }
 
+    private static final DiffUtil.ItemCallback<Ingredient> DIFF_CALLBACK = new DiffUtil.ItemCallback<Ingredient>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Ingredient oldItem, @NonNull Ingredient newItem) {
+            return oldItem.getName() != null && oldItem.getName().equalsIgnoreCase(newItem.getName());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Ingredient oldItem, @NonNull Ingredient newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getAmount(), newItem.getAmount())
+                    && Objects.equals(oldItem.getUnit(), newItem.getUnit());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Ingredient oldItem, @NonNull Ingredient newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName()) ? PAYLOAD_AMOUNT : null;
+        }
+    };
+
     @NonNull
     @Override
     public IngredientViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -39,17 +65,24 @@ public class IngredientAdapter extends RecyclerView.Adapter<IngredientAdapter.In
 
     @Override
     public void onBindViewHolder(@NonNull IngredientViewHolder holder, int position) {
-        holder.bind(ingredients.get(position), position);
+        holder.bind(getItem(position));
     }
 
     @Override
-    public int getItemCount() {
-        return ingredients.size();
+    public void onBindViewHolder(@NonNull IngredientViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_AMOUNT)) {
+            holder.bindAmount(getItem(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
     }
 
+    /**
+     * Diffs against the current list on a background thread. The list is
+     * copied, so callers may keep mutating their own instance.
+     */
     public void updateIngredients(List<Ingredient> newIngredients) {
-        this.ingredients = newIngredients;
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(newIngredients));
     }
 
     class IngredientViewHolder extends RecyclerView.ViewHolder {
@@ -60,16 +93,17 @@ public class IngredientAdapter extends RecyclerView.Adapter<IngredientAdapter.In
             this.binding = binding;
         }
 
-        void bind(final Ingredient ingredient, final int position) {
+        void bind(final Ingredient ingredient) {
             binding.tvIngredientName.setText(ingredient.getName());
-            binding.tvIngredientAmount.setText(ingredient.getAmount() + " " + ingredient.getUnit());
+            bindAmount(ingredient);
 
             // Set up the edit button click listener
             binding.btnEditIngredient.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    if (listener != null) {
-                        listener.onEditIngredient(ingredient, position);
+                    int position = getBindingAdapterPosition();
+                    if (listener != null && position != RecyclerView.NO_POSITION) {
+                        listener.onEditIngredient(getItem(position), position);
                     }
                 }
             });
@@ -78,11 +112,16 @@ public class IngredientAdapter extends RecyclerView.Adapter<IngredientAdapter.In
             binding.btnDeleteIngredient.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    if (listener != null) {
+                    int position = getBindingAdapterPosition();
+                    if (listener != null && position != RecyclerView.NO_POSITION) {
                         listener.onDeleteIngredient(position);
                     }
                 }
             });
         }
+
+        void bindAmount(Ingredient ingredient) {
+            binding.tvIngredientAmount.setText(ingredient.getAmount() + " " + ingredient.getUnit());
+        }
     }
 } 
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.example.cookbook.ui.adapters;
 
+import android.content.Context;
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -8,22 +10,68 @@ import android.view.ViewGroup;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
 import com.example.cookbook.R;
 import com.example.cookbook.databinding.ItemRecipeBinding;
 import com.example.cookbook.model.Recipe;
+import com.example.cookbook.util.AppExecutors;
 import com.example.cookbook.util.FirebaseManager;
+import com.example.cookbook.util.RecipeHydrator;
 import com.example.cookbook.ui.activities.AddRecipeActivity;
 import com.example.cookbook.ui.activities.RecipeDetailActivity;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class RecipeAdapter extends ListAdapter<Recipe, RecipeAdapter.RecipeViewHolder> {
+    // Payload for a change that only flipped the favorite flag
+    private static final Object PAYLOAD_FAVORITE = new Object();
+    // Rows past a bound one whose stubs are hydrated along with it
+    private static final int HYDRATE_AHEAD = 4;
+    // Rows ahead of the scroll direction whose thumbnails are loaded in advance
+    private static final int MAX_PRELOAD = 8;
 
-public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeViewHolder> {
-    private List<Recipe> recipes;
     private final OnRecipeClickListener listener;
     private final FirebaseManager firebaseManager;
+    private final RecipeHydrator hydrator;
+    private RequestManager glide;
+    private RecyclerViewPreloader<Recipe> preloader;
+    private int thumbnailSize;
+    // Full records that arrived since the last list update, by recipe ID
+    private final Map<String, Recipe> hydratedRecipes = new HashMap<>();
+    // Hydrated records are held back while a submitted list is still being diffed
+    private int submittedGeneration = 0;
+    private int committedGeneration = 0;
+    private final RecipeHydrator.OnRecipeHydratedListener hydratedListener = new RecipeHydrator.OnRecipeHydratedListener() {
+        @Override
+        public void onRecipeHydrated(Recipe recipe) {
+            if (hydratedRecipes.isEmpty()) {
+                // Coalesce the records arriving together into one list update
+                AppExecutors.getInstance().mainThread().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyHydratedRecipes();
+                    }
+                });
+            }
+            hydratedRecipes.put(recipe.getId(), recipe);
+        }
+    };
     // Add a callback interface for reload
     public interface OnFavoriteChangedListener {
         void onFavoriteChanged();
@@ -35,12 +83,50 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
     }
 
     public RecipeAdapter(List<Recipe> recipes, OnRecipeClickListener listener, OnFavoriteChangedListener favoriteChangedListener) {
-        this.recipes = recipes;
+        super(DIFF_CALLBACK);
         this.listener = listener;
         this.firebaseManager = FirebaseManager.getInstance();
+        this.hydrator = RecipeHydrator.getInstance();
         this.favoriteChangedListener = favoriteChangedListener;
+        submit(new ArrayList<>(recipes), null);
     }
 
+    private static final DiffUtil.ItemCallback<Recipe> DIFF_CALLBACK = new DiffUtil.ItemCallback<Recipe>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Recipe oldItem, @NonNull Recipe newItem) {
+            if (oldItem.getId() != null || newItem.getId() != null) {
+                return Objects.equals(oldItem.getId(), newItem.getId());
+            }
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Recipe oldItem, @NonNull Recipe newItem) {
+            return oldItem.isFavorite() == newItem.isFavorite() && sameDisplayedContent(oldItem, newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Recipe oldItem, @NonNull Recipe newItem) {
+            if (oldItem.isFavorite() != newItem.isFavorite() && sameDisplayedContent(oldItem, newItem)) {
+                return PAYLOAD_FAVORITE;
+            }
+            return null;
+        }
+
+        private boolean sameDisplayedContent(Recipe oldItem, Recipe newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getCategory(), newItem.getCategory())
+                    && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl())
+                    && Objects.equals(oldItem.getInstructions(), newItem.getInstructions())
+                    && oldItem.isImportedFromApi() == newItem.isImportedFromApi()
+                    && ingredientCount(oldItem) == ingredientCount(newItem);
+        }
+
+        private int ingredientCount(Recipe recipe) {
+            return recipe.getIngredients() != null ? recipe.getIngredients().size() : 0;
+        }
+    };
+
     @NonNull
     @Override
     public RecipeViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -51,17 +137,193 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
 
     @Override
     public void onBindViewHolder(@NonNull RecipeViewHolder holder, int position) {
-        holder.bind(recipes.get(position));
+        holder.bind(getItem(position));
+        requestHydration(position);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecipeViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Return the thumbnail's bitmap to the pool as soon as the row is off screen
+        if (glide != null) {
+            glide.clear(holder.binding.ivRecipe);
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        hydrator.addListener(hydratedListener);
+        glide = Glide.with(recyclerView);
+        thumbnailSize = recyclerView.getResources().getDimensionPixelSize(R.dimen.recipe_thumbnail_size);
+        preloader = new RecyclerViewPreloader<>(glide, preloadModelProvider,
+                new FixedPreloadSizeProvider<Recipe>(thumbnailSize, thumbnailSize), MAX_PRELOAD);
+        recyclerView.addOnScrollListener(preloader);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        hydrator.removeListener(hydratedListener);
+        hydratedRecipes.clear();
+        recyclerView.removeOnScrollListener(preloader);
+        preloader = null;
+    }
+
+    private final ListPreloader.PreloadModelProvider<Recipe> preloadModelProvider = new ListPreloader.PreloadModelProvider<Recipe>() {
+        @NonNull
+        @Override
+        public List<Recipe> getPreloadItems(int position) {
+            List<Recipe> current = getCurrentList();
+            if (position < 0 || position >= current.size()) {
+                return Collections.emptyList();
+            }
+            Recipe recipe = current.get(position);
+            if (recipe.getImageUrl() == null || recipe.getImageUrl().isEmpty()) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(recipe);
+        }
+
+        @Override
+        public RequestBuilder<?> getPreloadRequestBuilder(@NonNull Recipe recipe) {
+            return loadThumbnail(recipe.getImageUrl());
+        }
+    };
+
+    /**
+     * Thumbnail request shared by binding and preloading; both must use the
+     * same options for a preloaded image to be found in the memory cache.
+     * Images are decoded at cell size, in RGB_565 since they are opaque
+     * photos, and the resized result is cached on disk too.
+     */
+    private RequestBuilder<Drawable> loadThumbnail(String url) {
+        return glide.load(url)
+                .override(thumbnailSize)
+                .centerCrop()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .diskCacheStrategy(DiskCacheStrategy.ALL)
+                .placeholder(R.drawable.placeholder_recipe)
+                .error(R.drawable.placeholder_recipe);
+    }
+
+    /**
+     * Asks for the stubs at and just below a bound row to be hydrated, so
+     * details are usually in by the time the row is tapped.
+     */
+    private void requestHydration(int position) {
+        List<Recipe> current = getCurrentList();
+        int end = Math.min(current.size(), position + 1 + HYDRATE_AHEAD);
+        List<String> ids = new ArrayList<>();
+        for (int i = position; i < end; i++) {
+            Recipe recipe = current.get(i);
+            if (recipe.getId() != null && RecipeHydrator.isStub(recipe)) {
+                ids.add(recipe.getId());
+            }
+        }
+        if (!ids.isEmpty()) {
+            hydrator.request(ids);
+        }
+    }
+
+    /**
+     * Swaps hydrated records in for their stubs; the diff rebinds only those rows.
+     */
+    private void applyHydratedRecipes() {
+        if (hydratedRecipes.isEmpty() || committedGeneration != submittedGeneration) {
+            return;
+        }
+        List<Recipe> updated = new ArrayList<>(getCurrentList());
+        boolean changed = false;
+        for (int i = 0; i < updated.size(); i++) {
+            Recipe recipe = updated.get(i);
+            Recipe hydrated = recipe.getId() != null ? hydratedRecipes.get(recipe.getId()) : null;
+            if (hydrated != null && RecipeHydrator.isStub(recipe)) {
+                // The hydrator's copy is shared with its cache
+                Recipe merged = new Recipe(hydrated);
+                merged.setFavorite(recipe.isFavorite());
+                updated.set(i, merged);
+                changed = true;
+            }
+        }
+        hydratedRecipes.clear();
+        if (changed) {
+            submit(updated, null);
+        }
+    }
+
+    /**
+     * Puts a copy of a row's recipe with the new favorite flag in its place.
+     * Bound recipes are shared with the memory, hydrator and catalog caches,
+     * so they are never changed in place; the diff then sees the flag change
+     * and rebinds only the heart.
+     *
+     * @return The copy, which is also what the row shows from now on
+     */
+    private Recipe replaceFavorite(Recipe recipe, boolean favorite) {
+        Recipe copy = new Recipe(recipe);
+        copy.setFavorite(favorite);
+        replaceRow(recipe, copy);
+        return copy;
+    }
+
+    /**
+     * Puts replacement in the place of the row showing recipe. Rows are
+     * matched by ID, since a list submitted in the meantime holds other
+     * instances of the same recipes.
+     */
+    private void replaceRow(Recipe recipe, Recipe replacement) {
+        List<Recipe> updated = new ArrayList<>(getCurrentList());
+        for (int i = 0; i < updated.size(); i++) {
+            Recipe row = updated.get(i);
+            boolean same = recipe.getId() != null ? recipe.getId().equals(row.getId()) : row == recipe;
+            if (same) {
+                updated.set(i, replacement);
+                submit(updated, null);
+                break;
+            }
+        }
     }
 
     @Override
-    public int getItemCount() {
-        return recipes.size();
+    public void onBindViewHolder(@NonNull RecipeViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_FAVORITE)) {
+            // Only the heart changed: skip the text and image rebind
+            holder.bindActions(getItem(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
     }
 
+    /**
+     * Diffs the new list against the current one on a background thread and
+     * dispatches only the rows that changed.
+     */
     public void updateRecipes(List<Recipe> newRecipes) {
-        this.recipes = newRecipes;
-        notifyDataSetChanged();
+        submit(new ArrayList<>(newRecipes), null);
+    }
+
+    /**
+     * Same as {@link #updateRecipes(List)}, running commitCallback once the
+     * new list has been applied.
+     */
+    public void updateRecipes(List<Recipe> newRecipes, Runnable commitCallback) {
+        submit(new ArrayList<>(newRecipes), commitCallback);
+    }
+
+    private void submit(List<Recipe> recipes, Runnable commitCallback) {
+        final int generation = ++submittedGeneration;
+        submitList(recipes, new Runnable() {
+            @Override
+            public void run() {
+                // Superseded submissions never commit, so only the latest one gets here
+                committedGeneration = generation;
+                if (commitCallback != null) {
+                    commitCallback.run();
+                }
+                applyHydratedRecipes();
+            }
+        });
     }
 
     class RecipeViewHolder extends RecyclerView.ViewHolder {
@@ -77,19 +339,26 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
             binding.tvCategory.setText(recipe.getCategory());
             binding.tvIngredients.setText(recipe.getIngredients().size() + " ingredients");
             if (recipe.getImageUrl() != null && !recipe.getImageUrl().isEmpty()) {
-                Glide.with(binding.getRoot())
-                    .load(recipe.getImageUrl())
-                    .placeholder(R.drawable.placeholder_recipe)
-                    .error(R.drawable.placeholder_recipe)
-                    .into(binding.ivRecipe);
+                loadThumbnail(recipe.getImageUrl()).into(binding.ivRecipe);
+            } else {
+                glide.clear(binding.ivRecipe);
+                binding.ivRecipe.setImageResource(R.drawable.placeholder_recipe);
             }
+            bindActions(recipe);
+        }
+
+        void bindActions(final Recipe recipe) {
             binding.ivFavorite.setImageResource(
                 recipe.isFavorite() ? R.drawable.ic_favorite_alt_filled : R.drawable.ic_favorite_border
             );
             binding.getRoot().setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    if (recipe.isImportedFromApi() && (recipe.getInstructions() == null || recipe.getInstructions().length() < 10 || recipe.getIngredients() == null || recipe.getIngredients().size() <= 1)) {
+                    Recipe hydrated = RecipeHydrator.isStub(recipe) ? hydrator.getCached(recipe.getId()) : null;
+                    if (hydrated != null) {
+                        Context context = binding.getRoot().getContext();
+                        context.startActivity(RecipeDetailActivity.newIntent(context, hydrated));
+                    } else if (RecipeHydrator.isStub(recipe)) {
                         if (recipe.getId() == null || recipe.getId().isEmpty()) {
                             Toast.makeText(binding.getRoot().getContext(), "Recipe ID missing, cannot load details", Toast.LENGTH_SHORT).show();
                             return;
@@ -99,9 +368,8 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                             @Override
                             public void onRecipesLoaded(List<Recipe> recipes) {
                                 if (recipes != null && !recipes.isEmpty()) {
-                                    Intent intent = new Intent(binding.getRoot().getContext(), RecipeDetailActivity.class);
-                                    intent.putExtra("recipe", recipes.get(0));
-                                    binding.getRoot().getContext().startActivity(intent);
+                                    Context context = binding.getRoot().getContext();
+                                    context.startActivity(RecipeDetailActivity.newIntent(context, recipes.get(0)));
                                 } else {
                                     Toast.makeText(binding.getRoot().getContext(), "Recipe details not found", Toast.LENGTH_SHORT).show();
                                 }
@@ -112,9 +380,8 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                             }
                         });
                     } else {
-                        Intent intent = new Intent(binding.getRoot().getContext(), RecipeDetailActivity.class);
-                        intent.putExtra("recipe", recipe);
-                        binding.getRoot().getContext().startActivity(intent);
+                        Context context = binding.getRoot().getContext();
+                        context.startActivity(RecipeDetailActivity.newIntent(context, recipe));
                     }
                 }
             });
@@ -122,15 +389,20 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                 @Override
                 public void onClick(View v) {
                     boolean newFavoriteState = !recipe.isFavorite();
-                    recipe.setFavorite(newFavoriteState);
+                    Recipe toggled = replaceFavorite(recipe, newFavoriteState);
                     binding.ivFavorite.setImageResource(
                         newFavoriteState ? R.drawable.ic_favorite_alt_filled : R.drawable.ic_favorite_border
                     );
-                    if (recipe.isImportedFromApi() && newFavoriteState) {
-                        firebaseManager.favoriteApiRecipe(recipe)
+                    if (toggled.isImportedFromApi() && newFavoriteState) {
+                        // Saving sets the new document's ID and owner, so it gets its own copy
+                        // rather than the one the differ may still be reading
+                        Recipe saved = new Recipe(toggled);
+                        firebaseManager.favoriteApiRecipe(saved)
                             .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<Void>() {
                                 @Override
                                 public void onSuccess(Void aVoid) {
+                                    // Later toggles of the row then act on the saved document
+                                    replaceRow(toggled, saved);
                                     Toast.makeText(binding.getRoot().getContext(), 
                                         "Recipe added to favorites", Toast.LENGTH_SHORT).show();
                                     if (favoriteChangedListener != null) favoriteChangedListener.onFavoriteChanged();
@@ -139,7 +411,7 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                             .addOnFailureListener(new com.google.android.gms.tasks.OnFailureListener() {
                                 @Override
                                 public void onFailure(Exception e) {
-                                    recipe.setFavorite(!newFavoriteState);
+                                    replaceFavorite(toggled, !newFavoriteState);
                                     binding.ivFavorite.setImageResource(
                                         !newFavoriteState ? R.drawable.ic_favorite_alt_filled : R.drawable.ic_favorite_border
                                     );
@@ -148,7 +420,7 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                                 }
                             });
                     } else {
-                        firebaseManager.toggleFavoriteRecipe(recipe.getId(), newFavoriteState)
+                        firebaseManager.toggleFavoriteRecipe(toggled.getId(), newFavoriteState)
                             .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<Void>() {
                                 @Override
                                 public void onSuccess(Void aVoid) {
@@ -156,8 +428,8 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                                         "Recipe added to favorites" : "Recipe removed from favorites";
                                     Toast.makeText(binding.getRoot().getContext(), 
                                         message, Toast.LENGTH_SHORT).show();
-                                    if (!newFavoriteState && recipe.isImportedFromApi()) {
-                                        firebaseManager.deleteRecipe(recipe.getId());
+                                    if (!newFavoriteState && toggled.isImportedFromApi()) {
+                                        firebaseManager.deleteRecipe(toggled.getId());
                                     }
                                     if (favoriteChangedListener != null) favoriteChangedListener.onFavoriteChanged();
                                 }
@@ -165,7 +437,7 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                             .addOnFailureListener(new com.google.android.gms.tasks.OnFailureListener() {
                                 @Override
                                 public void onFailure(Exception e) {
-                                    recipe.setFavorite(!newFavoriteState);
+                                    replaceFavorite(toggled, !newFavoriteState);
                                     binding.ivFavorite.setImageResource(
                                         !newFavoriteState ? R.drawable.ic_favorite_alt_filled : R.drawable.ic_favorite_border
                                     );
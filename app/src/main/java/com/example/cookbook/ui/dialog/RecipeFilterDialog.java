@@ -10,6 +10,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
+import androidx.core.os.BundleCompat;
 import androidx.fragment.app.DialogFragment;
 
 import com.example.cookbook.R;
@@ -17,7 +18,8 @@ import com.example.cookbook.api.model.AreaResponse;
 import com.example.cookbook.api.model.CategoryResponse;
 import com.example.cookbook.api.model.IngredientResponse;
 import com.example.cookbook.databinding.DialogRecipeFilterBinding;
-import com.example.cookbook.model.RecipeFilter;
+import com.example.cookbook.core.model.RecipeFilter;
+import com.example.cookbook.util.FilterOptionsCache;
 import com.example.cookbook.util.FirebaseManager;
 
 import java.util.ArrayList;
@@ -37,21 +39,26 @@ public class RecipeFilterDialog extends DialogFragment {
     // Loading states
     private boolean categoriesLoaded = false;
     private boolean areasLoaded = false;
-    private boolean ingredientsLoaded = false;
+)    private boolean ingredientsLoaded = false;
+
+    // Conditions added with "Add Condition", combined with the current selection on apply
+    private RecipeFilter pendingFilter;
     
     public interface OnFilterAppliedListener {
         void onFilterApplied(RecipeFilter filter);
     }
     
-    public static RecipeFilterDialog newInstance(
-            ArrayList<CategoryResponse.Category> categories,
-            ArrayList<AreaResponse.Area> areas,
-            ArrayList<IngredientResponse.Ingredient> ingredients) {
+    /**
+     * Creates the dialog. Only the short category list travels in the
+     * arguments; areas and the several hundred ingredients are read from
+     * {@link FilterOptionsCache} rather than parcelled into saved state.
+     *
+     * @param categories Categories to offer
+     */
+    public static RecipeFilterDialog newInstance(ArrayList<CategoryResponse.Category> categories) {
         RecipeFilterDialog dialog = new RecipeFilterDialog();
         Bundle args = new Bundle();
-        args.putSerializable("categories", categories);
-        args.putSerializable("areas", areas);
-        args.putSerializable("ingredients", ingredients);
+        args.putParcelableArrayList("categories", categories);
         dialog.setArguments(args);
         return dialog;
     }
@@ -76,22 +83,24 @@ public class RecipeFilterDialog extends DialogFragment {
         LayoutInflater inflater = requireActivity().getLayoutInflater();
         binding = DialogRecipeFilterBinding.inflate(inflater);
 
-        // Try to get filter options from arguments
+        // Categories come from the arguments, the rest from the options cache
         Bundle args = getArguments();
         if (args != null) {
-            ArrayList<CategoryResponse.Category> argCategories = (ArrayList<CategoryResponse.Category>) args.getSerializable("categories");
-            ArrayList<AreaResponse.Area> argAreas = (ArrayList<AreaResponse.Area>) args.getSerializable("areas");
-            ArrayList<IngredientResponse.Ingredient> argIngredients = (ArrayList<IngredientResponse.Ingredient>) args.getSerializable("ingredients");
+            ArrayList<CategoryResponse.Category> argCategories =
+                    BundleCompat.getParcelableArrayList(args, "categories", CategoryResponse.Category.class);
             if (argCategories != null && !argCategories.isEmpty()) {
                 categories = argCategories;
                 categoriesLoaded = true;
             }
-            if (argAreas != null && !argAreas.isEmpty()) {
-                areas = argAreas;
+        }
+        FilterOptionsCache.FilterOptions cachedOptions = FilterOptionsCache.getInstance().getCachedOptions();
+        if (cachedOptions != null) {
+            if (cachedOptions.getAreas() != null && !cachedOptions.getAreas().isEmpty()) {
+                areas = cachedOptions.getAreas();
                 areasLoaded = true;
             }
-            if (argIngredients != null && !argIngredients.isEmpty()) {
-                ingredients = argIngredients;
+            if (cachedOptions.getIngredients() != null && !cachedOptions.getIngredients().isEmpty()) {
+                ingredients = cachedOptions.getIngredients();
                 ingredientsLoaded = true;
             }
         }
@@ -153,6 +162,14 @@ public class RecipeFilterDialog extends DialogFragment {
             }
         });
 
+        // Listener for Add Condition button
+        binding.btnAddCondition.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                addCondition();
+            }
+        });
+
         // Listener for Cancel button
         binding.btnCancel.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -163,6 +180,7 @@ public class RecipeFilterDialog extends DialogFragment {
 
         // Initially disable apply button until data is loaded
         binding.btnApply.setEnabled(false);
+        binding.btnAddCondition.setEnabled(false);
     }
     
     private void loadFilterOptions() {
@@ -170,6 +188,9 @@ public class RecipeFilterDialog extends DialogFragment {
         new android.os.Handler().postDelayed(new Runnable() {
             @Override
             public void run() {
+                if (binding == null) {
+                    return;
+                }
                 if (!categoriesLoaded) {
                     android.util.Log.w("RecipeFilterDialog", "Categories loading timeout, using fallback");
                     RecipeFilterDialog.this.categories = getDefaultCategories();
@@ -194,67 +215,43 @@ public class RecipeFilterDialog extends DialogFragment {
             }
         }, 5000); // 5 second timeout
         
-        // Load categories
-        firebaseManager.getCategories(new FirebaseManager.OnCategoriesLoadedListener() {
+        // Load all three catalogs from the shared cache
+        FilterOptionsCache.getInstance().getFilterOptions(new FilterOptionsCache.OnFilterOptionsLoadedListener() {
             @Override
-            public void onCategoriesLoaded(List<CategoryResponse.Category> categories) {
-                android.util.Log.d("RecipeFilterDialog", "Categories loaded: " + categories.size());
-                RecipeFilterDialog.this.categories = categories;
-                categoriesLoaded = true;
-                setupCategorySpinner();
-                checkCanEnableApplyButton();
-            }
-            
-            @Override
-            public void onError(String error) {
-                android.util.Log.e("RecipeFilterDialog", "Failed to load categories: " + error);
-                // Provide fallback categories
-                RecipeFilterDialog.this.categories = getDefaultCategories();
+            public void onFilterOptionsLoaded(FilterOptionsCache.FilterOptions options) {
+                if (binding == null) {
+                    return;
+                }
+                android.util.Log.d("RecipeFilterDialog", "Filter options loaded: " + options.getCategories().size()
+                        + " categories, " + options.getAreas().size() + " areas, "
+                        + options.getIngredients().size() + " ingredients");
+                RecipeFilterDialog.this.categories = options.getCategories();
+                RecipeFilterDialog.this.areas = options.getAreas();
+                RecipeFilterDialog.this.ingredients = options.getIngredients();
                 categoriesLoaded = true;
-                setupCategorySpinner();
-                checkCanEnableApplyButton();
-            }
-        });
-        
-        // Load areas
-        firebaseManager.getAreas(new FirebaseManager.OnAreasLoadedListener() {
-            @Override
-            public void onAreasLoaded(List<AreaResponse.Area> areas) {
-                android.util.Log.d("RecipeFilterDialog", "Areas loaded: " + areas.size());
-                RecipeFilterDialog.this.areas = areas;
                 areasLoaded = true;
-                setupAreaSpinner();
-                checkCanEnableApplyButton();
-            }
-            
-            @Override
-            public void onError(String error) {
-                android.util.Log.e("RecipeFilterDialog", "Failed to load areas: " + error);
-                // Provide fallback areas
-                RecipeFilterDialog.this.areas = getDefaultAreas();
-                areasLoaded = true;
-                setupAreaSpinner();
-                checkCanEnableApplyButton();
-            }
-        });
-        
-        // Load ingredients
-        firebaseManager.getIngredients(new FirebaseManager.OnIngredientsLoadedListener() {
-            @Override
-            public void onIngredientsLoaded(List<IngredientResponse.Ingredient> ingredients) {
-                android.util.Log.d("RecipeFilterDialog", "Ingredients loaded: " + ingredients.size());
-                RecipeFilterDialog.this.ingredients = ingredients;
                 ingredientsLoaded = true;
+                setupCategorySpinner();
+                setupAreaSpinner();
                 setupIngredientSpinner();
                 checkCanEnableApplyButton();
             }
-            
+
             @Override
             public void onError(String error) {
-                android.util.Log.e("RecipeFilterDialog", "Failed to load ingredients: " + error);
-                // Provide fallback ingredients
+                if (binding == null) {
+                    return;
+                }
+                android.util.Log.e("RecipeFilterDialog", "Failed to load filter options: " + error);
+                // Provide fallback options
+                RecipeFilterDialog.this.categories = getDefaultCategories();
+                RecipeFilterDialog.this.areas = getDefaultAreas();
                 RecipeFilterDialog.this.ingredients = getDefaultIngredients();
+                categoriesLoaded = true;
+                areasLoaded = true;
                 ingredientsLoaded = true;
+                setupCategorySpinner();
+                setupAreaSpinner();
                 setupIngredientSpinner();
                 checkCanEnableApplyButton();
             }
@@ -264,6 +261,7 @@ public class RecipeFilterDialog extends DialogFragment {
     private void checkCanEnableApplyButton() {
         if (!categoriesLoaded || !areasLoaded || !ingredientsLoaded) {
             binding.btnApply.setEnabled(false);
+            binding.btnAddCondition.setEnabled(false);
             return;
         }
 
@@ -278,7 +276,8 @@ public class RecipeFilterDialog extends DialogFragment {
         } else if (checkedId == R.id.radioDietary) {
             enable = binding.radioGroupDietary.getCheckedRadioButtonId() != -1;
         }
-        binding.btnApply.setEnabled(enable);
+        binding.btnAddCondition.setEnabled(enable);
+        binding.btnApply.setEnabled(enable || pendingFilter != null);
     }
     
     private void setupCategorySpinner() {
@@ -377,50 +376,90 @@ public class RecipeFilterDialog extends DialogFragment {
         });
     }
     
-    private void applyFilter() {
+    /**
+     * Builds a filter from the current selection.
+     *
+     * @return The selected filter, or null if nothing is selected
+     */
+    private RecipeFilter buildSelectedFilter() {
         RecipeFilter filter = null;
         int checkedId = binding.radioGroupFilterType.getCheckedRadioButtonId();
-        String logSelection = "";
 
         if (checkedId == R.id.radioCategory) {
             if (binding.spinnerCategory.getCount() > 0 && binding.spinnerCategory.getSelectedItem() != null) {
-                String category = binding.spinnerCategory.getSelectedItem().toString();
-                filter = RecipeFilter.byCategory(category);
-                logSelection = "Category: " + category;
+                filter = RecipeFilter.byCategory(binding.spinnerCategory.getSelectedItem().toString());
             }
         } else if (checkedId == R.id.radioArea) {
             if (binding.spinnerArea.getCount() > 0 && binding.spinnerArea.getSelectedItem() != null) {
-                String area = binding.spinnerArea.getSelectedItem().toString();
-                filter = RecipeFilter.byArea(area);
-                logSelection = "Area: " + area;
+                filter = RecipeFilter.byArea(binding.spinnerArea.getSelectedItem().toString());
             }
         } else if (checkedId == R.id.radioIngredient) {
             if (binding.spinnerIngredient.getCount() > 0 && binding.spinnerIngredient.getSelectedItem() != null) {
-                String ingredient = binding.spinnerIngredient.getSelectedItem().toString();
-                filter = RecipeFilter.byIngredient(ingredient);
-                logSelection = "Ingredient: " + ingredient;
+                filter = RecipeFilter.byIngredient(binding.spinnerIngredient.getSelectedItem().toString());
             }
         } else if (checkedId == R.id.radioDietary) {
             int dietaryCheckedId = binding.radioGroupDietary.getCheckedRadioButtonId();
             if (dietaryCheckedId == R.id.radioVegan) {
                 filter = RecipeFilter.veganOnly();
-                logSelection = "Dietary: Vegan";
             } else if (dietaryCheckedId == R.id.radioVegetarian) {
                 filter = RecipeFilter.vegetarianOnly();
-                logSelection = "Dietary: Vegetarian";
             } else if (dietaryCheckedId == R.id.radioGlutenFree) {
                 filter = RecipeFilter.glutenFreeOnly();
-                logSelection = "Dietary: Gluten Free";
             }
         }
+        return filter;
+    }
+
+    /**
+     * Adds the current selection to the conditions recipes must all match,
+     * e.g. a cuisine plus several ingredients.
+     */
+    private void addCondition() {
+        RecipeFilter filter = buildSelectedFilter();
+        if (filter == null) {
+            Toast.makeText(requireContext(), "Please select a filter option", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        pendingFilter = pendingFilter == null ? filter : pendingFilter.and(filter);
+        android.util.Log.d("RecipeFilterDialog", "Added condition, now: " + pendingFilter);
+        binding.textConditions.setText("Matching all of:\n" + describeConditions(pendingFilter));
+        binding.textConditions.setVisibility(View.VISIBLE);
+        checkCanEnableApplyButton();
+    }
 
-        android.util.Log.d("RecipeFilterDialog", "User selection: " + logSelection);
-        System.out.println("User selection: " + logSelection);
-        // Log filter and listener values
+    private String describeConditions(RecipeFilter filter) {
+        StringBuilder builder = new StringBuilder();
+        for (RecipeFilter condition : filter.getConditions()) {
+            if (builder.length() > 0) {
+                builder.append('\n');
+            }
+            RecipeFilter.FilterType conditionType = condition.getType();
+            String separator = conditionType == RecipeFilter.FilterType.INGREDIENT
+                    || conditionType == RecipeFilter.FilterType.DIETARY ? " and " : " or ";
+            builder.append("\u2022 ").append(getConditionLabel(condition.getType())).append(": ")
+                    .append(android.text.TextUtils.join(separator, condition.getValues()));
+        }
+        return builder.toString();
+    }
+
+    private String getConditionLabel(RecipeFilter.FilterType type) {
+        switch (type) {
+            case CATEGORY: return "Category";
+            case AREA: return "Cuisine";
+            case INGREDIENT: return "Ingredient";
+            case DIETARY: return "Diet";
+            default: return "Filter";
+        }
+    }
+
+    private void applyFilter() {
+        RecipeFilter filter = buildSelectedFilter();
+        if (pendingFilter != null) {
+            // The current selection counts as one more condition
+            filter = filter != null ? pendingFilter.and(filter) : pendingFilter;
+        }
         android.util.Log.d("RecipeFilterDialog", "filter=" + filter);
         android.util.Log.d("RecipeFilterDialog", "listener=" + listener);
-        System.out.println("filter=" + filter);
-        System.out.println("listener=" + listener);
 
         if (filter != null && listener != null) {
             listener.onFilterApplied(filter);
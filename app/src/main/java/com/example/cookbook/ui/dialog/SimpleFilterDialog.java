@@ -19,7 +19,7 @@ import com.example.cookbook.R;
 import com.example.cookbook.api.model.AreaResponse;
 import com.example.cookbook.api.model.CategoryResponse;
 import com.example.cookbook.api.model.IngredientResponse;
-import com.example.cookbook.util.FirebaseManager;
+import com.example.cookbook.util.FilterOptionsCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,7 +32,6 @@ public class SimpleFilterDialog extends DialogFragment {
         DIETARY
     }
     
-    private FirebaseManager firebaseManager;
     private OnFilterSelectedListener listener;
     private FilterType filterType;
     private Spinner spinner;
@@ -61,8 +60,6 @@ public class SimpleFilterDialog extends DialogFragment {
     @NonNull
     @Override
     public Dialog onCreateDialog(Bundle savedInstanceState) {
-        firebaseManager = FirebaseManager.getInstance();
-        
         AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
         LayoutInflater inflater = requireActivity().getLayoutInflater();
         View view = inflater.inflate(R.layout.dialog_simple_filter, null);
@@ -129,15 +126,13 @@ public class SimpleFilterDialog extends DialogFragment {
     }
     
     private void loadCuisines() {
-        firebaseManager.getAreas(new FirebaseManager.OnAreasLoadedListener() {
+        FilterOptionsCache.getInstance().getFilterOptions(new FilterOptionsCache.OnFilterOptionsLoadedListener() {
             @Override
-            public void onAreasLoaded(List<AreaResponse.Area> areas) {
-                android.util.Log.d("SimpleFilterDialog", "Loaded " + areas.size() + " areas from API");
+            public void onFilterOptionsLoaded(FilterOptionsCache.FilterOptions options) {
+                android.util.Log.d("SimpleFilterDialog", "Loaded " + options.getAreas().size() + " areas");
                 filterOptions.clear();
-                for (AreaResponse.Area area : areas) {
-                    String areaName = area.getName();
-                    android.util.Log.d("SimpleFilterDialog", "Area: " + areaName);
-                    filterOptions.add(areaName);
+                for (AreaResponse.Area area : options.getAreas()) {
+                    filterOptions.add(area.getName());
                 }
                 setupSpinner();
             }
@@ -159,11 +154,11 @@ public class SimpleFilterDialog extends DialogFragment {
     }
     
     private void loadIngredients() {
-        firebaseManager.getIngredients(new FirebaseManager.OnIngredientsLoadedListener() {
+        FilterOptionsCache.getInstance().getFilterOptions(new FilterOptionsCache.OnFilterOptionsLoadedListener() {
             @Override
-            public void onIngredientsLoaded(List<IngredientResponse.Ingredient> ingredients) {
+            public void onFilterOptionsLoaded(FilterOptionsCache.FilterOptions options) {
                 filterOptions.clear();
-                for (IngredientResponse.Ingredient ingredient : ingredients) {
+                for (IngredientResponse.Ingredient ingredient : options.getIngredients()) {
                     filterOptions.add(ingredient.getName());
                 }
                 setupSpinner();
@@ -15,15 +15,21 @@ import com.example.cookbook.databinding.FragmentFavoritesBinding;
 import com.example.cookbook.model.Recipe;
 import com.example.cookbook.ui.adapters.RecipeAdapter;
 import com.example.cookbook.util.FirebaseManager;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.example.cookbook.util.LoadMoreScrollListener;
+import com.example.cookbook.util.RecipeStream;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class FavoritesFragment extends Fragment {
+    // Rows left below the viewport when the next page is requested
+    private static final int LOAD_MORE_DISTANCE = 5;
+
     private FragmentFavoritesBinding binding;
     private FirebaseManager firebaseManager;
     private RecipeAdapter recipeAdapter;
+    private RecipeStream recipeStream;
+    private LoadMoreScrollListener loadMoreListener;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -36,14 +42,9 @@ public class FavoritesFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
         
         firebaseManager = FirebaseManager.getInstance();
+        recipeStream = firebaseManager.getFavoriteRecipesStream();
         setupRecyclerView();
-        loadFavoriteRecipes();
-    }
-
-    @Override
-    public void onResume() {
-        super.onResume();
-        loadFavoriteRecipes();
+        observeFavoriteRecipes();
     }
 
     private void setupRecyclerView() {
@@ -53,44 +54,63 @@ public class FavoritesFragment extends Fragment {
             public void onRecipeClick(Recipe recipe) {
                 Toast.makeText(requireContext(), "Recipe clicked: " + recipe.getTitle(), Toast.LENGTH_SHORT).show();
             }
-        }, new RecipeAdapter.OnFavoriteChangedListener() {
-            @Override
-            public void onFavoriteChanged() {
-                loadFavoriteRecipes();
-            }
-        });
+        }, null); // Favorite changes arrive through the stream
         
-        binding.recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        binding.recyclerView.setLayoutManager(layoutManager);
         binding.recyclerView.setAdapter(recipeAdapter);
+        loadMoreListener = new LoadMoreScrollListener(layoutManager, LOAD_MORE_DISTANCE, this::loadMore);
+        binding.recyclerView.addOnScrollListener(loadMoreListener);
     }
 
-    private void loadFavoriteRecipes() {
-        binding.progressBar.setVisibility(View.VISIBLE);
-        firebaseManager.getFavoriteRecipes()
-                .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<com.google.firebase.firestore.QuerySnapshot>() {
-                    @Override
-                    public void onSuccess(com.google.firebase.firestore.QuerySnapshot queryDocumentSnapshots) {
-                        List<Recipe> recipes = new ArrayList<>();
-                        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                            Recipe recipe = document.toObject(Recipe.class);
-                            recipe.setId(document.getId());
-                            recipes.add(recipe);
-                        }
-                        recipeAdapter.updateRecipes(recipes);
-                        updateEmptyState(recipes.isEmpty());
-                        binding.progressBar.setVisibility(View.GONE);
-                    }
-                })
-                .addOnFailureListener(new com.google.android.gms.tasks.OnFailureListener() {
-                    @Override
-                    public void onFailure(Exception e) {
-                        Toast.makeText(requireContext(), "Failed to load favorite recipes", Toast.LENGTH_SHORT).show();
-                        binding.progressBar.setVisibility(View.GONE);
-                        updateEmptyState(true);
-                    }
-                });
+    private void observeFavoriteRecipes() {
+        if (recipeStream.getRecipes().isEmpty()) {
+            binding.progressBar.setVisibility(View.VISIBLE);
+        }
+        // Delivers the current favorites right away, then again after every change
+        recipeStream.observe(recipesObserver);
     }
 
+    private void loadMore() {
+        if (recipeStream.isLoading() || !recipeStream.hasMore()) {
+            return;
+        }
+        recipeStream.loadMore();
+    }
+
+    private final FirebaseManager.OnRecipesLoadedListener recipesObserver = new FirebaseManager.OnRecipesLoadedListener() {
+        @Override
+        public void onRecipesLoaded(List<Recipe> recipes) {
+            if (binding == null) {
+                return;
+            }
+            recipeAdapter.updateRecipes(recipes, () -> {
+                if (binding != null) {
+                    // Keep paging if the list does not fill the screen yet
+                    binding.recyclerView.post(() -> {
+                        if (binding != null) {
+                            loadMoreListener.check(binding.recyclerView);
+                        }
+                    });
+                }
+            });
+            updateEmptyState(recipes.isEmpty());
+            binding.progressBar.setVisibility(View.GONE);
+        }
+
+        @Override
+        public void onError(String error) {
+            if (binding == null) {
+                return;
+            }
+            binding.progressBar.setVisibility(View.GONE);
+            if (recipeAdapter.getItemCount() == 0) {
+                Toast.makeText(requireContext(), "Failed to load favorite recipes", Toast.LENGTH_SHORT).show();
+                updateEmptyState(true);
+            }
+        }
+    };
+
     private void updateEmptyState(boolean isEmpty) {
         binding.emptyStateLayout.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
         binding.recyclerView.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
@@ -99,6 +119,7 @@ public class FavoritesFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        recipeStream.removeObserver(recipesObserver);
         binding = null;
     }
 } 
\ No newline at end of file
@@ -16,34 +16,42 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import com.example.cookbook.R;
 import com.example.cookbook.databinding.FragmentHomeBinding;
 import com.example.cookbook.model.Recipe;
-import com.example.cookbook.model.RecipeFilter;
+import com.example.cookbook.core.model.RecipeFilter;
+import com.example.cookbook.core.util.RecipeSearch;
 import com.example.cookbook.ui.dialog.RecipeFilterDialog;
 import com.example.cookbook.ui.activities.AddRecipeActivity;
+import com.example.cookbook.util.FilterOptionsCache;
 import com.example.cookbook.util.FirebaseManager;
+import com.example.cookbook.util.LoadMoreScrollListener;
+import com.example.cookbook.util.RecipeStream;
+import com.example.cookbook.util.RequestHandle;
+import com.example.cookbook.util.SearchDebouncer;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.example.cookbook.api.model.CategoryResponse;
-import com.example.cookbook.api.model.AreaResponse;
-import com.example.cookbook.api.model.IngredientResponse;
 import com.example.cookbook.ui.adapters.RecipeAdapter;
 
 public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilterAppliedListener {
+    // Delay after the last keystroke before a search is sent
+    private static final long SEARCH_DEBOUNCE_MS = 350;
+    // Rows left below the viewport when the next page is requested
+    private static final int LOAD_MORE_DISTANCE = 5;
+
     private FragmentHomeBinding binding;
     private FirebaseManager firebaseManager;
     private RecipeAdapter recipeAdapter;
     private List<Recipe> allRecipes = new ArrayList<>();
+    private RecipeStream recipeStream;
+    private LoadMoreScrollListener loadMoreListener;
     // Store current filter and search query
     private RecipeFilter currentFilter = null;
     private String currentSearchQuery = "";
-
-    // Add fields to store filter options
-    private ArrayList<CategoryResponse.Category> filterCategories = new ArrayList<>();
-    private ArrayList<AreaResponse.Area> filterAreas = new ArrayList<>();
-    private ArrayList<IngredientResponse.Ingredient> filterIngredients = new ArrayList<>();
-    private boolean filterOptionsLoaded = false;
+    private final SearchDebouncer searchDebouncer = new SearchDebouncer(SEARCH_DEBOUNCE_MS);
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -56,18 +64,12 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
         super.onViewCreated(view, savedInstanceState);
         
         firebaseManager = FirebaseManager.getInstance();
+        recipeStream = firebaseManager.getUserRecipesStream();
         setupRecyclerView();
         setupSearchView();
         setupClickListeners();
         // Load user recipes from Firebase
-        loadRecipes();
-    }
-
-    @Override
-    public void onResume() {
-        super.onResume();
-        // Reload recipes from Firebase to get any new additions
-        loadRecipes();
+        observeRecipes();
     }
 
     private void setupRecyclerView() {
@@ -77,15 +79,13 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
             public void onRecipeClick(Recipe recipe) {
                 // No-op: handled in RecipeAdapter now
             }
-        }, new RecipeAdapter.OnFavoriteChangedListener() {
-            @Override
-            public void onFavoriteChanged() {
-                loadRecipes(); // Reload user recipes from Firebase
-            }
-        });
+        }, null); // Favorite changes arrive through the stream
         
-        binding.recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        binding.recyclerView.setLayoutManager(layoutManager);
         binding.recyclerView.setAdapter(recipeAdapter);
+        loadMoreListener = new LoadMoreScrollListener(layoutManager, LOAD_MORE_DISTANCE, this::loadMore);
+        binding.recyclerView.addOnScrollListener(loadMoreListener);
     }
 
     private void setupSearchView() {
@@ -94,7 +94,7 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
             @Override
             public boolean onQueryTextSubmit(String query) {
                 currentSearchQuery = query;
-                searchWithFilterOrQuery();
+                searchDebouncer.submitNow(HomeFragment.this::searchWithFilterOrQuery);
                 return true;
             }
 
@@ -102,10 +102,20 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
             public boolean onQueryTextChange(String newText) {
                 currentSearchQuery = newText;
                 if (newText.length() > 2) {
-                    searchWithFilterOrQuery();
+                    searchDebouncer.submit(HomeFragment.this::searchWithFilterOrQuery);
                 } else if (newText.isEmpty()) {
                     currentSearchQuery = "";
-                    searchWithFilterOrQuery();
+                    searchDebouncer.submitNow(HomeFragment.this::searchWithFilterOrQuery);
+                } else {
+                    // Too short to search: drop the search for older text, whose results
+                    // no longer match the box, and show what an empty box would
+                    currentSearchQuery = "";
+                    if (currentFilter != null && currentFilter.getValue() != null && !currentFilter.getValue().isEmpty()) {
+                        searchDebouncer.submit(HomeFragment.this::searchWithFilterOrQuery);
+                    } else {
+                        searchDebouncer.cancel();
+                        showUserRecipes();
+                    }
                 }
                 return true;
             }
@@ -118,92 +128,40 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
                 currentSearchQuery = "";
                 currentFilter = null;
                 binding.btnClearFilter.setVisibility(View.GONE);
+                searchDebouncer.cancel();
                 android.util.Log.d("HomeFragment", "Search cleared, loading user recipes");
                 // Show only the user's own recipes
-                loadRecipes();
+                showUserRecipes();
                 return false; // Let the SearchView handle default behavior too
             }
         });
     }
 
-    private void searchRecipes(String query) {
-        binding.progressBar.setVisibility(View.VISIBLE);
-        
-        // First search local recipes
-        firebaseManager.searchRecipesByName(query)
-            .addOnSuccessListener(queryDocumentSnapshots -> {
-                List<Recipe> localRecipes = new ArrayList<>();
-                for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                    Recipe recipe = document.toObject(Recipe.class);
-                    recipe.setId(document.getId());
-                    localRecipes.add(recipe);
-                }
-                
-                // If no local recipes found, search online
-                if (localRecipes.isEmpty()) {
-                    searchOnlineRecipes(query);
-                } else {
-                    updateRecipeList(localRecipes);
-                }
-            })
-            .addOnFailureListener(e -> {
-                android.util.Log.e("HomeFragment", "Failed to search local recipes", e);
-                Toast.makeText(requireContext(), "Failed to search local recipes: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                binding.progressBar.setVisibility(View.GONE);
-            });
-    }
-
-    private void searchOnlineRecipes(String query) {
-        firebaseManager.searchOnlineRecipes(query, new FirebaseManager.OnRecipesLoadedListener() {
-            @Override
-            public void onRecipesLoaded(List<Recipe> recipes) {
-                updateRecipeList(recipes);
-            }
-
-            @Override
-            public void onError(String error) {
-                binding.progressBar.setVisibility(View.GONE);
-                Toast.makeText(requireContext(), error, Toast.LENGTH_SHORT).show();
-            }
-        });
+    private void updateRecipeList(List<Recipe> recipes) {
+        updateRecipeList(recipes, null);
     }
 
-    private void updateRecipeList(List<Recipe> recipes) {
+    private void updateRecipeList(List<Recipe> recipes, @Nullable Runnable onDisplayed) {
         android.util.Log.d("HomeFragment", "updateRecipeList called with " + recipes.size() + " recipes, currentSearchQuery: " + currentSearchQuery + ", currentFilter: " + (currentFilter != null ? currentFilter.getType() + "=" + currentFilter.getValue() : "null"));
         if (binding == null) {
             android.util.Log.w("HomeFragment", "Binding is null, returning");
             return;
         }
-        List<Recipe> validRecipes = new ArrayList<>();
+        List<Recipe> validRecipes;
         
         // If we have a filter or search query, show the API results
         if ((currentFilter != null && currentFilter.getValue() != null && !currentFilter.getValue().isEmpty()) || 
             (currentSearchQuery != null && !currentSearchQuery.isEmpty())) {
             android.util.Log.d("HomeFragment", "Processing as API/search results");
-            for (Recipe recipe : recipes) {
-                if (recipe != null && recipe.getTitle() != null && !recipe.getTitle().trim().isEmpty()
-                        && recipe.getIngredients() != null && !recipe.getIngredients().isEmpty()) {
-                    validRecipes.add(recipe);
-                }
-            }
+            validRecipes = RecipeSearch.listable(recipes);
         } else {
             // When no filter or search, show only user-created recipes (not imported from API, userId matches current user)
             android.util.Log.d("HomeFragment", "Processing as user recipes, allRecipes size: " + allRecipes.size());
-            String currentUserId = firebaseManager.getCurrentUserId();
-            for (Recipe userRecipe : allRecipes) {
-                if (userRecipe != null
-                        && userRecipe.getTitle() != null && !userRecipe.getTitle().trim().isEmpty()
-                        && userRecipe.getIngredients() != null && !userRecipe.getIngredients().isEmpty()
-                        && !userRecipe.isImportedFromApi()
-                        && userRecipe.getUserId() != null
-                        && userRecipe.getUserId().equals(currentUserId)) {
-                    validRecipes.add(userRecipe);
-                }
-            }
+            validRecipes = RecipeSearch.ownedBy(allRecipes, firebaseManager.getCurrentUserId());
         }
         android.util.Log.d("HomeFragment", "Valid recipes to display: " + validRecipes.size());
         if (recipeAdapter != null) {
-            recipeAdapter.updateRecipes(validRecipes);
+            recipeAdapter.updateRecipes(validRecipes, onDisplayed);
         }
         updateEmptyState(validRecipes.isEmpty());
     }
@@ -213,7 +171,7 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
         binding.fabAddRecipe.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                startActivityForResult(new Intent(requireContext(), AddRecipeActivity.class), 1001);
+                startActivity(new Intent(requireContext(), AddRecipeActivity.class));
             }
         });
         // Set up the filter button
@@ -233,83 +191,105 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
     }
 
     private void showFilterDialogWithOptions() {
-        binding.progressBar.setVisibility(View.VISIBLE);
-        filterOptionsLoaded = false;
-        filterCategories.clear();
-        filterAreas.clear();
-        filterIngredients.clear();
-        firebaseManager.getCategories(new FirebaseManager.OnCategoriesLoadedListener() {
+        // Only the first tap waits for the network; later taps are served from memory
+        if (FilterOptionsCache.getInstance().getCachedOptions() == null) {
+            binding.progressBar.setVisibility(View.VISIBLE);
+        }
+        FilterOptionsCache.getInstance().getFilterOptions(new FilterOptionsCache.OnFilterOptionsLoadedListener() {
             @Override
-            public void onCategoriesLoaded(List<CategoryResponse.Category> categories) {
+            public void onFilterOptionsLoaded(FilterOptionsCache.FilterOptions options) {
+                if (binding == null || !isAdded()) {
+                    return;
+                }
+                binding.progressBar.setVisibility(View.GONE);
+                if (getChildFragmentManager().findFragmentByTag("filter_dialog") != null) {
+                    return;
+                }
                 List<String> allowedCategories = java.util.Arrays.asList("Dessert", "Side", "Starter", "Breakfast", "Goat");
                 ArrayList<CategoryResponse.Category> filtered = new ArrayList<>();
-                for (CategoryResponse.Category cat : categories) {
+                for (CategoryResponse.Category cat : options.getCategories()) {
                     if (allowedCategories.contains(cat.getName())) {
                         filtered.add(cat);
                     }
                 }
-                filterCategories = filtered;
-                checkAndShowDialog();
-            }
-            @Override
-            public void onError(String error) {
-                Toast.makeText(requireContext(), "Failed to load categories", Toast.LENGTH_SHORT).show();
-                binding.progressBar.setVisibility(View.GONE);
-            }
-        });
-        firebaseManager.getAreas(new FirebaseManager.OnAreasLoadedListener() {
-            @Override
-            public void onAreasLoaded(List<AreaResponse.Area> areas) {
-                filterAreas = new ArrayList<>(areas);
-                checkAndShowDialog();
-            }
-            @Override
-            public void onError(String error) {
-                Toast.makeText(requireContext(), "Failed to load areas", Toast.LENGTH_SHORT).show();
-                binding.progressBar.setVisibility(View.GONE);
-            }
-        });
-        firebaseManager.getIngredients(new FirebaseManager.OnIngredientsLoadedListener() {
-            @Override
-            public void onIngredientsLoaded(List<IngredientResponse.Ingredient> ingredients) {
-                filterIngredients = new ArrayList<>(ingredients);
-                checkAndShowDialog();
+                RecipeFilterDialog dialog = RecipeFilterDialog.newInstance(filtered);
+                dialog.show(getChildFragmentManager(), "filter_dialog");
             }
+
             @Override
             public void onError(String error) {
-                Toast.makeText(requireContext(), "Failed to load ingredients", Toast.LENGTH_SHORT).show();
+                if (binding == null || !isAdded()) {
+                    return;
+                }
+                Toast.makeText(requireContext(), "Failed to load filter options", Toast.LENGTH_SHORT).show();
                 binding.progressBar.setVisibility(View.GONE);
             }
         });
     }
 
-    private void checkAndShowDialog() {
-        if (!filterCategories.isEmpty() && !filterAreas.isEmpty() && !filterIngredients.isEmpty() && !filterOptionsLoaded) {
-            filterOptionsLoaded = true;
-            binding.progressBar.setVisibility(View.GONE);
-            RecipeFilterDialog dialog = RecipeFilterDialog.newInstance(filterCategories, filterAreas, filterIngredients);
-            dialog.show(getChildFragmentManager(), "filter_dialog");
+    private void observeRecipes() {
+        if (recipeStream.getRecipes().isEmpty()) {
+            binding.progressBar.setVisibility(View.VISIBLE);
         }
+        // Delivers the current recipes right away, then again after every change,
+        // including recipes added or edited on this or another device
+        recipeStream.observe(recipesObserver);
     }
 
-    private void loadRecipes() {
-        binding.progressBar.setVisibility(View.VISIBLE);
-        firebaseManager.getUserRecipes()
-            .addOnSuccessListener(queryDocumentSnapshots -> {
-                allRecipes.clear();
-                for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                    Recipe recipe = document.toObject(Recipe.class);
-                    recipe.setId(document.getId());
-                    allRecipes.add(recipe);
+    private void showUserRecipes() {
+        updateRecipeList(allRecipes);
+        binding.progressBar.setVisibility(View.GONE);
+    }
+
+    private void loadMore() {
+        // Search results are not paged
+        if (isSearchActive() || recipeStream.isLoading() || !recipeStream.hasMore()) {
+            return;
+        }
+        recipeStream.loadMore();
+    }
+
+    private final FirebaseManager.OnRecipesLoadedListener recipesObserver = new FirebaseManager.OnRecipesLoadedListener() {
+        @Override
+        public void onRecipesLoaded(List<Recipe> recipes) {
+            if (binding == null) {
+                return;
+            }
+            allRecipes.clear();
+            allRecipes.addAll(recipes);
+            if (isSearchActive()) {
+                // The list is showing search results; keep them until the search is cleared
+                return;
+            }
+            updateRecipeList(allRecipes, () -> {
+                if (binding != null) {
+                    // Keep paging if the visible recipes do not fill the screen yet
+                    binding.recyclerView.post(() -> {
+                        if (binding != null) {
+                            loadMoreListener.check(binding.recyclerView);
+                        }
+                    });
                 }
-                updateRecipeList(allRecipes);
-                binding.progressBar.setVisibility(View.GONE);
-            })
-            .addOnFailureListener(e -> {
-                Toast.makeText(requireContext(), "Failed to load recipes: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                binding.progressBar.setVisibility(View.GONE);
-                updateEmptyState(true);
             });
+            binding.progressBar.setVisibility(View.GONE);
+        }
+
+        @Override
+        public void onError(String error) {
+            if (binding == null) {
+                return;
+            }
+            binding.progressBar.setVisibility(View.GONE);
+            if (allRecipes.isEmpty()) {
+                Toast.makeText(requireContext(), "Failed to load recipes: " + error, Toast.LENGTH_LONG).show();
+                updateEmptyState(true);
+            }
+        }
+    };
+
+    private boolean isSearchActive() {
+        return (currentFilter != null && currentFilter.getValue() != null && !currentFilter.getValue().isEmpty())
+                || (currentSearchQuery != null && !currentSearchQuery.isEmpty());
     }
 
     private void updateEmptyState(boolean isEmpty) {
@@ -322,94 +302,116 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
 
     @Override
     public void onFilterApplied(RecipeFilter filter) {
-        android.util.Log.d("HomeFragment", "Filter applied: " + filter.getType() + " = " + filter.getValue());
+        android.util.Log.d("HomeFragment", "Filter applied: " + filter);
         binding.progressBar.setVisibility(View.VISIBLE);
         currentFilter = filter;
         binding.btnClearFilter.setVisibility(View.VISIBLE);
-        searchWithFilterOrQuery();
+        searchDebouncer.submitNow(this::searchWithFilterOrQuery);
     }
     
     private void clearFilter() {
         android.util.Log.d("HomeFragment", "Clearing filter");
         currentFilter = null;
         binding.btnClearFilter.setVisibility(View.GONE);
-        loadRecipes();
+        searchDebouncer.cancel();
+        showUserRecipes();
     }
 
-    private void searchWithFilterOrQuery() {
+    /**
+     * Runs the local and API searches for the current filter and query.
+     *
+     * @param generation Search generation from {@link SearchDebouncer}; results are dropped
+     *                   once a newer search has been submitted
+     * @return Handle to cancel the API request with, or null if nothing was sent
+     */
+    private RequestHandle searchWithFilterOrQuery(long generation) {
         android.util.Log.d("HomeFragment", "searchWithFilterOrQuery called - filter: " + (currentFilter != null ? currentFilter.getType() + "=" + currentFilter.getValue() : "null") + ", query: " + currentSearchQuery);
         binding.progressBar.setVisibility(View.VISIBLE);
         // If both filter and query are empty, load all recipes
         if ((currentFilter == null || currentFilter.getValue() == null || currentFilter.getValue().isEmpty()) && (currentSearchQuery == null || currentSearchQuery.isEmpty())) {
             android.util.Log.d("HomeFragment", "Both filter and query are empty, loading all recipes");
-            loadRecipes();
-            return;
+            showUserRecipes();
+            return null;
         }
         
         // Search both local recipes and API recipes
         List<Recipe> combinedResults = new ArrayList<>();
         final int[] completedSearches = {0};
         final int totalSearches = 2; // Local + API
+        Runnable onSearchCompleted = new Runnable() {
+            @Override
+            public void run() {
+                completedSearches[0]++;
+                if (completedSearches[0] != totalSearches) {
+                    return;
+                }
+                if (!searchDebouncer.isCurrent(generation) || binding == null) {
+                    android.util.Log.d("HomeFragment", "Dropping results of superseded search " + generation);
+                    return;
+                }
+                // Cached API recipes can come back from both the index and the API
+                Map<String, Recipe> uniqueResults = new LinkedHashMap<>();
+                for (Recipe recipe : combinedResults) {
+                    String key = recipe.getId() != null ? recipe.getId() : recipe.getTitle();
+                    if (!uniqueResults.containsKey(key)) {
+                        uniqueResults.put(key, recipe);
+                    }
+                }
+                android.util.Log.d("HomeFragment", "All searches completed, total results: " + uniqueResults.size());
+                updateRecipeList(new ArrayList<>(uniqueResults.values()));
+                binding.progressBar.setVisibility(View.GONE);
+            }
+        };
         
         // Search local recipes first
         if (currentSearchQuery != null && !currentSearchQuery.isEmpty()) {
-            // Search by name
-            firebaseManager.searchRecipesByName(currentSearchQuery)
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    android.util.Log.d("HomeFragment", "Local search by name found " + queryDocumentSnapshots.size() + " recipes");
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        Recipe recipe = document.toObject(Recipe.class);
-                        recipe.setId(document.getId());
-                        // Only add user-created recipes (not imported from API)
-                        if (!recipe.isImportedFromApi()) {
+            // Search the on-device index by title, ingredients and instructions
+            firebaseManager.searchLocalRecipes(currentSearchQuery, new FirebaseManager.OnRecipesLoadedListener() {
+                @Override
+                public void onRecipesLoaded(List<Recipe> localRecipes) {
+                    android.util.Log.d("HomeFragment", "Local index search found " + localRecipes.size() + " recipes");
+                    for (Recipe recipe : localRecipes) {
+                        // Skip the user's copies of API recipes; the API search returns those
+                        if (!recipe.isImportedFromApi() || recipe.getUserId() == null) {
                             combinedResults.add(recipe);
                         }
                     }
-                    completedSearches[0]++;
-                    if (completedSearches[0] == totalSearches) {
-                        android.util.Log.d("HomeFragment", "All searches completed, total results: " + combinedResults.size());
-                        updateRecipeList(combinedResults);
-                        binding.progressBar.setVisibility(View.GONE);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    android.util.Log.e("HomeFragment", "Local search by name failed", e);
-                    completedSearches[0]++;
-                    if (completedSearches[0] == totalSearches) {
-                        android.util.Log.d("HomeFragment", "All searches completed, total results: " + combinedResults.size());
-                        updateRecipeList(combinedResults);
-                        binding.progressBar.setVisibility(View.GONE);
-                    }
-                });
+                    onSearchCompleted.run();
+                }
+
+                @Override
+                public void onError(String error) {
+                    android.util.Log.e("HomeFragment", "Local index search failed: " + error);
+                    onSearchCompleted.run();
+                }
+            });
         } else if (currentFilter != null && currentFilter.getValue() != null && !currentFilter.getValue().isEmpty()) {
-            // Search by filter (category or ingredient only, since Recipe model doesn't have area field)
-            if (currentFilter.getType() == RecipeFilter.FilterType.CATEGORY) {
+            // Search by filter; saved recipes can only be queried by category or ingredient, so area filters are left to TheMealDB
+            boolean hasArea = false;
+            for (RecipeFilter condition : currentFilter.getConditions()) {
+                hasArea |= condition.getType() == RecipeFilter.FilterType.AREA;
+            }
+            RecipeFilter filter = currentFilter;
+            if (hasArea) {
+                android.util.Log.d("HomeFragment", "Skipping local search for AREA filter (not supported)");
+                completedSearches[0]++;
+            } else if (currentFilter.getType() == RecipeFilter.FilterType.CATEGORY) {
                 firebaseManager.searchRecipesByCategory(currentFilter.getValue())
                     .addOnSuccessListener(queryDocumentSnapshots -> {
                         android.util.Log.d("HomeFragment", "Local search by category found " + queryDocumentSnapshots.size() + " recipes");
                         for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
                             Recipe recipe = document.toObject(Recipe.class);
                             recipe.setId(document.getId());
-                            // Only add user-created recipes (not imported from API)
-                            if (!recipe.isImportedFromApi()) {
+                            // Only add user-created recipes (not imported from API) matching every condition
+                            if (!recipe.isImportedFromApi() && (!filter.isCompound() || filter.matches(recipe))) {
                                 combinedResults.add(recipe);
                             }
                         }
-                        completedSearches[0]++;
-                        if (completedSearches[0] == totalSearches) {
-                            android.util.Log.d("HomeFragment", "All searches completed, total results: " + combinedResults.size());
-                            updateRecipeList(combinedResults);
-                            binding.progressBar.setVisibility(View.GONE);
-                        }
+                        onSearchCompleted.run();
                     })
                     .addOnFailureListener(e -> {
                         android.util.Log.e("HomeFragment", "Local search by category failed", e);
-                        completedSearches[0]++;
-                        if (completedSearches[0] == totalSearches) {
-                            android.util.Log.d("HomeFragment", "All searches completed, total results: " + combinedResults.size());
-                            updateRecipeList(combinedResults);
-                            binding.progressBar.setVisibility(View.GONE);
-                        }
+                        onSearchCompleted.run();
                     });
             } else if (currentFilter.getType() == RecipeFilter.FilterType.INGREDIENT) {
                 firebaseManager.searchRecipesByIngredient(currentFilter.getValue())
@@ -418,30 +420,27 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
                         for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
                             Recipe recipe = document.toObject(Recipe.class);
                             recipe.setId(document.getId());
-                            // Only add user-created recipes (not imported from API)
-                            if (!recipe.isImportedFromApi()) {
+                            // Only add user-created recipes (not imported from API) matching every condition
+                            if (!recipe.isImportedFromApi() && (!filter.isCompound() || filter.matches(recipe))) {
                                 combinedResults.add(recipe);
                             }
                         }
-                        completedSearches[0]++;
-                        if (completedSearches[0] == totalSearches) {
-                            android.util.Log.d("HomeFragment", "All searches completed, total results: " + combinedResults.size());
-                            updateRecipeList(combinedResults);
-                            binding.progressBar.setVisibility(View.GONE);
-                        }
+                        onSearchCompleted.run();
                     })
                     .addOnFailureListener(e -> {
                         android.util.Log.e("HomeFragment", "Local search by ingredient failed", e);
-                        completedSearches[0]++;
-                        if (completedSearches[0] == totalSearches) {
-                            android.util.Log.d("HomeFragment", "All searches completed, total results: " + combinedResults.size());
-                            updateRecipeList(combinedResults);
-                            binding.progressBar.setVisibility(View.GONE);
-                        }
+                        onSearchCompleted.run();
                     });
+            } else if (currentFilter.getType() == RecipeFilter.FilterType.DIETARY) {
+                // Dietary conditions are checked on the ingredients, so use the recipes already streamed in
+                for (Recipe recipe : recipeStream.getRecipes()) {
+                    if (!recipe.isImportedFromApi() && filter.matches(recipe)) {
+                        combinedResults.add(recipe);
+                    }
+                }
+                android.util.Log.d("HomeFragment", "Local dietary filter matched " + combinedResults.size() + " recipes");
+                completedSearches[0]++;
             } else {
-                // For AREA filter, we can't search local recipes since Recipe model doesn't have area field
-                android.util.Log.d("HomeFragment", "Skipping local search for AREA filter (not supported)");
                 completedSearches[0]++;
             }
         } else {
@@ -450,27 +449,17 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
         }
         
         // Search API recipes
-        firebaseManager.searchOnlineRecipesByFilterOrQuery(currentFilter, currentSearchQuery, new FirebaseManager.OnRecipesLoadedListener() {
+        return firebaseManager.searchOnlineRecipesByFilterOrQuery(currentFilter, currentSearchQuery, new FirebaseManager.OnRecipesLoadedListener() {
             @Override
             public void onRecipesLoaded(List<Recipe> apiRecipes) {
                 android.util.Log.d("HomeFragment", "API search found " + apiRecipes.size() + " recipes");
                 combinedResults.addAll(apiRecipes);
-                completedSearches[0]++;
-                if (completedSearches[0] == totalSearches) {
-                    android.util.Log.d("HomeFragment", "All searches completed, total results: " + combinedResults.size());
-                    updateRecipeList(combinedResults);
-                    binding.progressBar.setVisibility(View.GONE);
-                }
+                onSearchCompleted.run();
             }
             @Override
             public void onError(String error) {
                 android.util.Log.e("HomeFragment", "API search failed: " + error);
-                completedSearches[0]++;
-                if (completedSearches[0] == totalSearches) {
-                    android.util.Log.d("HomeFragment", "All searches completed, total results: " + combinedResults.size());
-                    updateRecipeList(combinedResults);
-                    binding.progressBar.setVisibility(View.GONE);
-                }
+                onSearchCompleted.run();
             }
         });
     }
@@ -481,23 +470,16 @@ public class HomeFragment extends Fragment implements RecipeFilterDialog.OnFilte
             case AREA: return "Cuisine";
             case INGREDIENT: return "Ingredient";
             case SEARCH: return "Search";
+            case DIETARY: return "Diet";
             default: return "Filter";
         }
     }
 
-    @Override
-    public void onActivityResult(int requestCode, int resultCode, Intent data) {
-        super.onActivityResult(requestCode, resultCode, data);
-        if (requestCode == 1001 && resultCode == android.app.Activity.RESULT_OK) {
-            // Recipe was added successfully, reload recipes
-            android.util.Log.d("HomeFragment", "Recipe added, reloading recipes");
-            loadRecipes();
-        }
-    }
-
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        searchDebouncer.cancel();
+        recipeStream.removeObserver(recipesObserver);
         binding = null;
     }
 } 
\ No newline at end of file
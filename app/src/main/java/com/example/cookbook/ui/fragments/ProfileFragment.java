@@ -15,12 +15,21 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.example.cookbook.databinding.FragmentProfileBinding;
+import com.example.cookbook.ui.activities.RecipeDetailActivity;
 import com.example.cookbook.util.FirebaseManager;
+import com.example.cookbook.util.PantryMatcher;
+import com.google.android.material.chip.Chip;
 import com.google.firebase.auth.FirebaseUser;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ProfileFragment extends Fragment {
+    private static final int MAX_COOKABLE_RESULTS = 20;
+
     private FragmentProfileBinding binding;
     private FirebaseManager firebaseManager;
+    private final List<String> pantry = new ArrayList<>();
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -35,6 +44,7 @@ public class ProfileFragment extends Fragment {
         firebaseManager = FirebaseManager.getInstance();
         setupUserProfile();
         setupClickListeners();
+        loadPantry();
     }
 
     private void setupUserProfile() {
@@ -59,6 +69,91 @@ public class ProfileFragment extends Fragment {
                 showChangePasswordDialog();
             }
         });
+        binding.btnAddPantryItem.setOnClickListener(v -> addPantryItem());
+        binding.etPantryItem.setOnEditorActionListener((v, actionId, event) -> {
+            addPantryItem();
+            return true;
+        });
+        binding.btnWhatCanICook.setOnClickListener(v -> showCookableRecipes());
+    }
+
+    private void loadPantry() {
+        firebaseManager.getPantry()
+            .addOnSuccessListener(items -> {
+                if (binding == null) {
+                    return;
+                }
+                pantry.clear();
+                pantry.addAll(items);
+                renderPantry();
+            })
+            .addOnFailureListener(e -> android.util.Log.e("ProfileFragment", "Failed to load pantry", e));
+    }
+
+    private void renderPantry() {
+        binding.chipGroupPantry.removeAllViews();
+        for (String item : pantry) {
+            Chip chip = new Chip(requireContext());
+            chip.setText(item);
+            chip.setCloseIconVisible(true);
+            chip.setOnCloseIconClickListener(v -> removePantryItem(item));
+            binding.chipGroupPantry.addView(chip);
+        }
+    }
+
+    private void addPantryItem() {
+        String item = binding.etPantryItem.getText() != null
+                ? binding.etPantryItem.getText().toString().trim() : "";
+        if (item.isEmpty() || pantry.contains(item)) {
+            return;
+        }
+        binding.etPantryItem.setText("");
+        pantry.add(item);
+        renderPantry();
+        firebaseManager.addPantryItem(item)
+            .addOnFailureListener(e -> Toast.makeText(getContext(), "Failed to save pantry", Toast.LENGTH_SHORT).show());
+    }
+
+    private void removePantryItem(String item) {
+        pantry.remove(item);
+        renderPantry();
+        firebaseManager.removePantryItem(item)
+            .addOnFailureListener(e -> Toast.makeText(getContext(), "Failed to save pantry", Toast.LENGTH_SHORT).show());
+    }
+
+    private void showCookableRecipes() {
+        if (pantry.isEmpty()) {
+            Toast.makeText(requireContext(), "Add some ingredients to your pantry first", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        binding.btnWhatCanICook.setEnabled(false);
+        firebaseManager.findCookableRecipes(new ArrayList<>(pantry), MAX_COOKABLE_RESULTS, matches -> {
+            if (binding == null || !isAdded()) {
+                return;
+            }
+            binding.btnWhatCanICook.setEnabled(true);
+            if (matches.isEmpty()) {
+                Toast.makeText(requireContext(), "No saved recipes use your pantry yet", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            String[] rows = new String[matches.size()];
+            for (int i = 0; i < matches.size(); i++) {
+                PantryMatcher.Match match = matches.get(i);
+                StringBuilder row = new StringBuilder(match.getRecipe().getTitle())
+                        .append("\n").append(match.getMatchedCount()).append('/').append(match.getTotalCount())
+                        .append(" ingredients");
+                if (!match.getMissing().isEmpty()) {
+                    row.append(", missing: ").append(android.text.TextUtils.join(", ", match.getMissing()));
+                }
+                rows[i] = row.toString();
+            }
+            new AlertDialog.Builder(requireContext())
+                .setTitle("What can I cook?")
+                .setItems(rows, (dialog, which) ->
+                    startActivity(RecipeDetailActivity.newIntent(requireContext(), matches.get(which).getRecipe())))
+                .setNegativeButton("Close", null)
+                .show();
+        });
     }
 
     private void handleLogout() {
@@ -0,0 +1,61 @@
+package com.example.cookbook.util;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared thread pools for work that must stay off the main thread.
+ *
+ * disk IO runs on a single thread so Room writes are applied in the order
+ * they were issued; network-bound helpers get a small fixed pool. CPU-bound
+ * work such as building an index gets its own thread so it never holds up
+ * either; it also runs Firestore snapshot listeners, which rely on it
+ * delivering in order. Decoding and re-encoding photos takes about a second
+ * each, so it gets a thread of its own and never delays list updates.
+ */
+public class AppExecutors {
+    private static final int NETWORK_THREADS = 3;
+
+    private static AppExecutors instance;
+
+    private final ExecutorService diskIO;
+    private final ExecutorService networkIO;
+    private final ExecutorService computation;
+    private final ExecutorService imageProcessing;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        diskIO = Executors.newSingleThreadExecutor();
+        networkIO = Executors.newFixedThreadPool(NETWORK_THREADS);
+        computation = Executors.newSingleThreadExecutor();
+        // One photo at a time keeps the decoded bitmaps' memory bounded
+        imageProcessing = Executors.newSingleThreadExecutor();
+        mainThread = new MainThreadExecutor();
+    }
+
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            instance = new AppExecutors();
+        }
+        return instance;
+    }
+
+    public ExecutorService diskIO() { return diskIO; }
+    public ExecutorService networkIO() { return networkIO; }
+    public ExecutorService computation() { return computation; }
+    public ExecutorService imageProcessing() { return imageProcessing; }
+    public Executor mainThread() { return mainThread; }
+
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            mainThreadHandler.post(command);
+        }
+    }
+}
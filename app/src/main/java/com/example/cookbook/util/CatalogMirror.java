@@ -0,0 +1,296 @@
+package com.example.cookbook.util;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.cookbook.api.ApiClient;
+import com.example.cookbook.api.RecipeApiService;
+import com.example.cookbook.core.api.ApiRecipe;
+import com.example.cookbook.api.model.CategoryResponse;
+import com.example.cookbook.db.CatalogDao;
+import com.example.cookbook.db.CatalogProgressEntity;
+import com.example.cookbook.db.LocalRecipeStore;
+import com.example.cookbook.db.RecipeDatabase;
+import com.example.cookbook.model.Recipe;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Mirrors the whole TheMealDB catalog into {@link LocalRecipeStore}, so
+ * searches and filters can be answered without the network.
+ *
+ * The first run pages through search.php by first letter, which returns
+ * full meals, then sweeps filter.php per category and fetches any meal the
+ * letter pages missed with lookup.php. Every finished step is recorded in
+ * {@link RecipeDatabase}, so an interrupted mirror resumes where it
+ * stopped. Later runs only repeat the category sweep once it is older than
+ * {@link #REFRESH_INTERVAL_MS} and look up the IDs they have not seen.
+ *
+ * Requests run one at a time on a background thread, at most one per
+ * {@link #REQUEST_INTERVAL_MS}; failed steps are retried with exponential
+ * backoff until the next start.
+ */
+public class CatalogMirror {
+    private static final String TAG = "CatalogMirror";
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    private static final String STEP_LETTER = "letter:";
+    private static final String STEP_CATEGORIES = "categories";
+    private static final String STEP_CATEGORY = "category:";
+    // Recorded once every category of a sweep is done
+    private static final String STEP_SWEEP = "sweep";
+    // Network work waits until the app has settled after startup
+    private static final long START_DELAY_MS = 15_000;
+    private static final long REQUEST_INTERVAL_MS = 1_000;
+    private static final long REFRESH_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+    private static final int MAX_FAILURES = 6;
+    private static final long BASE_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 10 * 60_000;
+    private static CatalogMirror instance;
+
+    private final CatalogDao dao;
+    private final LocalRecipeStore localStore;
+    private final AppExecutors executors;
+    private final ScheduledExecutorService worker;
+    private boolean started = false;
+    private volatile boolean complete = false;
+
+    // Only touched on the worker thread
+    private final Set<String> seenIds = new HashSet<>();
+    private final Map<String, Long> finishedSteps = new HashMap<>();
+    private final ArrayDeque<String> pendingSteps = new ArrayDeque<>();
+    private long lastRequestAt;
+    private int failures;
+
+    // Only touched on the main thread
+    private List<Recipe> snapshot;
+    private long snapshotVersion;
+
+    private CatalogMirror(Context context) {
+        dao = RecipeDatabase.getInstance(context).catalogDao();
+        localStore = LocalRecipeStore.getInstance(context);
+        executors = AppExecutors.getInstance();
+        worker = new ScheduledThreadPoolExecutor(1);
+    }
+
+    public static synchronized CatalogMirror getInstance(Context context) {
+        if (instance == null) {
+            instance = new CatalogMirror(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Reads the mirror's progress and schedules whatever is left to fetch.
+     * Call once at startup.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        worker.execute(this::plan);
+    }
+
+    /**
+     * Returns true once every letter page and a full category sweep have
+     * been mirrored, i.e. the local store holds the whole catalog.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Loads the mirrored recipes, ordered by title. The list is kept in
+     * memory until the local store changes. Must be called on the main
+     * thread; the listener also runs there.
+     */
+    public void loadCatalog(LocalRecipeStore.OnCachedRecipesListener listener) {
+        long version = localStore.getVersion();
+        if (snapshot != null && snapshotVersion == version) {
+            listener.onCachedRecipes(snapshot);
+            return;
+        }
+        localStore.loadCatalogRecipes(recipes -> {
+            snapshot = Collections.unmodifiableList(recipes);
+            snapshotVersion = version;
+            listener.onCachedRecipes(snapshot);
+        });
+    }
+
+    /** Runs on the worker thread. */
+    private void plan() {
+        try {
+            for (CatalogProgressEntity progress : dao.getProgress()) {
+                finishedSteps.put(progress.step, progress.completedAt);
+            }
+            seenIds.addAll(dao.getRecipeIds());
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading catalog progress", e);
+            return;
+        }
+        for (int i = 0; i < LETTERS.length(); i++) {
+            String step = STEP_LETTER + LETTERS.charAt(i);
+            if (!finishedSteps.containsKey(step)) {
+                pendingSteps.add(step);
+            }
+        }
+        complete = pendingSteps.isEmpty() && finishedSteps.containsKey(STEP_SWEEP);
+        if (isStale(STEP_SWEEP)) {
+            pendingSteps.add(STEP_CATEGORIES);
+        }
+        Log.d(TAG, "Mirror has " + seenIds.size() + " recipes, complete: " + complete
+                + ", " + pendingSteps.size() + " steps pending");
+        if (!pendingSteps.isEmpty()) {
+            worker.schedule(this::runNext, START_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Runs on the worker thread. */
+    private void runNext() {
+        String step = pendingSteps.peek();
+        if (step == null) {
+            complete = finishedSteps.containsKey(STEP_SWEEP);
+            Log.d(TAG, "Mirror up to date with " + seenIds.size() + " recipes");
+            return;
+        }
+        try {
+            runStep(step);
+            pendingSteps.poll();
+            failures = 0;
+            worker.execute(this::runNext);
+        } catch (IOException e) {
+            failures++;
+            if (failures >= MAX_FAILURES) {
+                Log.w(TAG, "Pausing mirror until next start after " + failures + " failures: " + e.getMessage());
+                return;
+            }
+            long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (failures - 1));
+            Log.w(TAG, "Step " + step + " failed (" + e.getMessage() + "), retrying in " + delay + " ms");
+            worker.schedule(this::runNext, delay, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // A response the mirror cannot use will not get better by retrying
+            Log.e(TAG, "Skipping step " + step, e);
+            pendingSteps.poll();
+            worker.execute(this::runNext);
+        }
+    }
+
+    private void runStep(String step) throws IOException {
+        RecipeApiService api = ApiClient.getRecipeService();
+        if (step.startsWith(STEP_LETTER)) {
+            String letter = step.substring(STEP_LETTER.length());
+            finish(step, addMeals(fetch(api.searchByFirstLetter(letter)).getResults()));
+        } else if (step.equals(STEP_CATEGORIES)) {
+            List<String> sweep = new ArrayList<>();
+            CategoryResponse categories = fetch(api.getCategories());
+            if (categories.getCategories() != null) {
+                for (CategoryResponse.Category category : categories.getCategories()) {
+                    String categoryStep = STEP_CATEGORY + category.getName();
+                    if (isStale(categoryStep)) {
+                        sweep.add(categoryStep);
+                    }
+                }
+            }
+            sweep.add(STEP_SWEEP);
+            // The category list is always the last step planned
+            pendingSteps.addAll(sweep);
+        } else if (step.startsWith(STEP_CATEGORY)) {
+            String category = step.substring(STEP_CATEGORY.length());
+            List<ApiRecipe> stubs = fetch(api.filterByCategory(category)).getResults();
+            int added = 0;
+            if (stubs != null) {
+                for (ApiRecipe stub : stubs) {
+                    if (stub.getId() != null && !seenIds.contains(stub.getId())) {
+                        // filter.php only has names and thumbnails
+                        added += addMeals(fetch(api.getRecipeInformation(stub.getId())).getResults());
+                    }
+                }
+            }
+            finish(step, added);
+        } else if (step.equals(STEP_SWEEP)) {
+            finish(step, 0);
+        }
+    }
+
+    private boolean isStale(String step) {
+        Long completedAt = finishedSteps.get(step);
+        return completedAt == null || System.currentTimeMillis() - completedAt > REFRESH_INTERVAL_MS;
+    }
+
+    /**
+     * Saves the meals the mirror has not seen yet. Meals already cached are
+     * left alone, so a user's own copy of a meal is never overwritten.
+     *
+     * @return Number of meals saved
+     */
+    private int addMeals(List<ApiRecipe> meals) {
+        if (meals == null || meals.isEmpty()) {
+            return 0;
+        }
+        List<ApiRecipe> unseen = new ArrayList<>();
+        for (ApiRecipe meal : meals) {
+            if (meal.getId() != null && seenIds.add(meal.getId())) {
+                unseen.add(meal);
+            }
+        }
+        if (!unseen.isEmpty()) {
+            localStore.saveRecipes(FirebaseManager.convertApiRecipesToLocalRecipes(unseen));
+        }
+        return unseen.size();
+    }
+
+    private void finish(String step, int added) {
+        CatalogProgressEntity progress = new CatalogProgressEntity();
+        progress.step = step;
+        progress.completedAt = System.currentTimeMillis();
+        progress.added = added;
+        finishedSteps.put(step, progress.completedAt);
+        // Queued behind the recipe writes of the step, which run on the same executor
+        executors.diskIO().execute(() -> {
+            try {
+                dao.insertProgress(progress);
+            } catch (Exception e) {
+                Log.e(TAG, "Error recording step " + step, e);
+            }
+        });
+        Log.d(TAG, "Finished " + step + ", " + added + " new recipes");
+    }
+
+    /**
+     * Executes a call once at least {@link #REQUEST_INTERVAL_MS} has passed
+     * since the previous one.
+     */
+    private <T> T fetch(Call<T> call) throws IOException {
+        long wait = lastRequestAt + REQUEST_INTERVAL_MS - SystemClock.elapsedRealtime();
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling");
+            }
+        }
+        lastRequestAt = SystemClock.elapsedRealtime();
+        Response<T> response = call.execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new IOException("HTTP " + response.code() + " for " + call.request().url());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.cookbook.util;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.cookbook.api.RecipeApiService;
+import com.example.cookbook.core.api.ApiRecipe;
+import com.example.cookbook.core.api.ApiRecipeResponse;
+import com.example.cookbook.core.model.RecipeFilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Serves compound filters such as "Italian + chicken + garlic" from
+ * TheMealDB, whose filter.php takes a single value per request.
+ *
+ * Every value gets its own filter.php request and all of them are sent at
+ * once. Each group of alternatives (the values of a category or area
+ * condition) is unioned as its responses arrive, and each complete group is
+ * intersected into the result, walking the smaller of the two id sets. As
+ * soon as a group or the running intersection comes up empty the remaining
+ * requests are cancelled, since nothing can match any more.
+ *
+ * Callbacks arrive on the main thread, where Retrofit delivers responses,
+ * so the per-request state needs no locking.
+ */
+public class FilterEngine {
+    private static final String TAG = "FilterEngine";
+
+    private final RecipeApiService service;
+
+    public interface OnMealsFilteredListener {
+        /**
+         * @param meals Meals matching every condition, ordered by title. filter.php
+         *              only returns ids, titles and thumbnails.
+         */
+        void onMealsFiltered(List<ApiRecipe> meals);
+
+        void onError(String error);
+    }
+
+    public FilterEngine(RecipeApiService service) {
+        this.service = service;
+    }
+
+    /**
+     * Fans out the filter.php requests for a filter and intersects the results.
+     *
+     * @param filter The filter; SEARCH and DIETARY conditions are ignored
+     * @param handle Handle the requests are attached to; nothing is delivered once it is cancelled
+     * @param listener Callback for the matching meals
+     */
+    public void filter(RecipeFilter filter, RequestHandle handle, OnMealsFilteredListener listener) {
+        new Run(handle, listener).start(toGroups(filter));
+    }
+
+    /**
+     * Splits a filter into groups whose results are intersected. The values
+     * of a group are alternatives and their results are unioned.
+     */
+    static List<List<Request>> toGroups(RecipeFilter filter) {
+        List<List<Request>> groups = new ArrayList<>();
+        for (RecipeFilter condition : filter.getConditions()) {
+            switch (condition.getType()) {
+                case CATEGORY:
+                case AREA: {
+                    List<Request> group = new ArrayList<>();
+                    for (String value : condition.getValues()) {
+                        group.add(new Request(condition.getType(), value));
+                    }
+                    if (!group.isEmpty()) {
+                        groups.add(group);
+                    }
+                    break;
+                }
+                case INGREDIENT:
+                    for (String value : condition.getValues()) {
+                        groups.add(Collections.singletonList(new Request(condition.getType(), value)));
+                    }
+                    break;
+                case SEARCH:
+                case DIETARY:
+                default:
+                    break;
+            }
+        }
+        return groups;
+    }
+
+    static final class Request {
+        final RecipeFilter.FilterType type;
+        final String value;
+
+        Request(RecipeFilter.FilterType type, String value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return type + "=" + value;
+        }
+    }
+
+    private Call<ApiRecipeResponse> newCall(Request request) {
+        switch (request.type) {
+            case CATEGORY:
+                return service.filterByCategory(request.value);
+            case AREA:
+                return service.filterByArea(request.value);
+            case INGREDIENT:
+            default:
+                return service.filterByIngredient(request.value);
+        }
+    }
+
+    /**
+     * Intersects two id sets by walking the smaller one. The result keeps
+     * entries of the set that was walked.
+     */
+    static Map<String, ApiRecipe> intersect(Map<String, ApiRecipe> a, Map<String, ApiRecipe> b) {
+        Map<String, ApiRecipe> smaller = a.size() <= b.size() ? a : b;
+        Map<String, ApiRecipe> larger = smaller == a ? b : a;
+        Iterator<String> ids = smaller.keySet().iterator();
+        while (ids.hasNext()) {
+            if (!larger.containsKey(ids.next())) {
+                ids.remove();
+            }
+        }
+        return smaller;
+    }
+
+    /**
+     * State of one {@link #filter} invocation.
+     */
+    private class Run {
+        private final RequestHandle handle;
+        private final OnMealsFilteredListener listener;
+        private final List<Call<ApiRecipeResponse>> calls = new ArrayList<>();
+        private final long startedAt = SystemClock.elapsedRealtime();
+        private Map<String, ApiRecipe> intersection;
+        private int pendingGroups;
+        private boolean finished = false;
+
+        Run(RequestHandle handle, OnMealsFilteredListener listener) {
+            this.handle = handle;
+            this.listener = listener;
+        }
+
+        void start(List<List<Request>> groups) {
+            if (groups.isEmpty()) {
+                finish(Collections.emptyMap());
+                return;
+            }
+            pendingGroups = groups.size();
+            for (List<Request> group : groups) {
+                Map<String, ApiRecipe> union = new LinkedHashMap<>();
+                int[] pendingRequests = {group.size()};
+                for (Request request : group) {
+                    Call<ApiRecipeResponse> call = newCall(request);
+                    calls.add(call);
+                    handle.attach(call);
+                    call.enqueue(new Callback<ApiRecipeResponse>() {
+                        @Override
+                        public void onResponse(Call<ApiRecipeResponse> call, Response<ApiRecipeResponse> response) {
+                            if (finished || handle.isCancelled()) {
+                                return;
+                            }
+                            if (!response.isSuccessful()) {
+                                fail("filter.php " + request + " failed: " + response.code());
+                                return;
+                            }
+                            List<ApiRecipe> meals = response.body() != null ? response.body().getResults() : null;
+                            if (meals != null) {
+                                for (ApiRecipe meal : meals) {
+                                    if (meal.getId() != null) {
+                                        union.put(meal.getId(), meal);
+                                    }
+                                }
+                            }
+                            Log.d(TAG, "filter.php " + request + " returned " + (meals != null ? meals.size() : 0) + " meals");
+                            if (--pendingRequests[0] == 0) {
+                                onGroupComplete(union);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Call<ApiRecipeResponse> call, Throwable t) {
+                            if (finished || handle.isCancelled()) {
+                                return;
+                            }
+                            fail(t.getMessage());
+                        }
+                    });
+                }
+            }
+        }
+
+        private void onGroupComplete(Map<String, ApiRecipe> union) {
+            intersection = intersection == null ? union : intersect(intersection, union);
+            pendingGroups--;
+            if (intersection.isEmpty()) {
+                Log.d(TAG, "Intersection is empty, cancelling remaining requests");
+                finish(intersection);
+            } else if (pendingGroups == 0) {
+                finish(intersection);
+            }
+        }
+
+        private void finish(Map<String, ApiRecipe> result) {
+            finished = true;
+            cancelRemaining();
+            List<ApiRecipe> meals = new ArrayList<>(result.values());
+            Collections.sort(meals, new Comparator<ApiRecipe>() {
+                @Override
+                public int compare(ApiRecipe a, ApiRecipe b) {
+                    String titleA = a.getTitle() != null ? a.getTitle() : "";
+                    String titleB = b.getTitle() != null ? b.getTitle() : "";
+                    return titleA.compareToIgnoreCase(titleB);
+                }
+            });
+            Log.d(TAG, "Filtered to " + meals.size() + " meals with " + calls.size() + " requests in "
+                    + (SystemClock.elapsedRealtime() - startedAt) + " ms");
+            listener.onMealsFiltered(meals);
+        }
+
+        private void fail(String error) {
+            finished = true;
+            cancelRemaining();
+            listener.onError(error);
+        }
+
+        private void cancelRemaining() {
+            // Cancelling a call that already completed is a no-op
+            for (Call<ApiRecipeResponse> call : calls) {
+                call.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.cookbook.util;
+
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.example.cookbook.CookBookApplication;
+import com.example.cookbook.api.model.AreaResponse;
+import com.example.cookbook.api.model.CategoryResponse;
+import com.example.cookbook.api.model.IngredientResponse;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the TheMealDB filter catalogs (categories, areas, ingredients) in
+ * memory and on disk so the filter dialogs open without waiting for three
+ * network calls. Catalogs older than {@link #REFRESH_INTERVAL_MS} are still
+ * served, and refreshed in the background.
+ *
+ * The stored copy is a JSON file streamed on the disk thread, without the
+ * category and ingredient descriptions, which the filter dialogs never show
+ * and which make up most of the ingredient catalog.
+ */
+public class FilterOptionsCache {
+    private static final String TAG = "FilterOptionsCache";
+    private static final String FILE_NAME = "filter_options.json";
+    // Where earlier versions kept the catalogs
+    private static final String LEGACY_PREFS_NAME = "filter_options_cache";
+    // Bump when the stored JSON shape changes; older entries are then ignored
+    private static final int CACHE_VERSION = 1;
+    private static final long REFRESH_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+
+    private static FilterOptionsCache instance;
+
+    private final Gson gson = new GsonBuilder()
+            .setExclusionStrategies(new ExclusionStrategy() {
+                @Override
+                public boolean shouldSkipField(FieldAttributes field) {
+                    return field.getName().equals("description")
+                            && (field.getDeclaringClass() == IngredientResponse.Ingredient.class
+                            || field.getDeclaringClass() == CategoryResponse.Category.class);
+                }
+
+                @Override
+                public boolean shouldSkipClass(Class<?> clazz) {
+                    return false;
+                }
+            })
+            .create();
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final List<OnFilterOptionsLoadedListener> pendingListeners = new ArrayList<>();
+    private FilterOptions options;
+    private boolean loading = false;
+
+    public interface OnFilterOptionsLoadedListener {
+        void onFilterOptionsLoaded(FilterOptions options);
+        void onError(String error);
+    }
+
+    /**
+     * The three filter catalogs, as fetched together.
+     */
+    public static class FilterOptions {
+        private int version;
+        private long fetchedAt;
+        private ArrayList<CategoryResponse.Category> categories = new ArrayList<>();
+        private ArrayList<AreaResponse.Area> areas = new ArrayList<>();
+        private ArrayList<IngredientResponse.Ingredient> ingredients = new ArrayList<>();
+
+        public long getFetchedAt() { return fetchedAt; }
+        public ArrayList<CategoryResponse.Category> getCategories() { return categories; }
+        public ArrayList<AreaResponse.Area> getAreas() { return areas; }
+        public ArrayList<IngredientResponse.Ingredient> getIngredients() { return ingredients; }
+
+        boolean isComplete() {
+            return categories != null && !categories.isEmpty()
+                    && areas != null && !areas.isEmpty()
+                    && ingredients != null && !ingredients.isEmpty();
+        }
+
+        boolean isStale() {
+            return System.currentTimeMillis() - fetchedAt > REFRESH_INTERVAL_MS;
+        }
+    }
+
+    private FilterOptionsCache() {
+    }
+
+    public static synchronized FilterOptionsCache getInstance() {
+        if (instance == null) {
+            instance = new FilterOptionsCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the in-memory catalogs, or null if they have not been loaded yet.
+     */
+    public synchronized FilterOptions getCachedOptions() {
+        return options;
+    }
+
+    /**
+     * Loads the catalogs into memory ahead of the first filter tap.
+     */
+    public void warmUp() {
+        getFilterOptions(null);
+    }
+
+    /**
+     * Delivers the filter catalogs on the main thread: from memory if present,
+     * otherwise from disk, otherwise from the network.
+     *
+     * @param listener Callback for the catalogs, may be null to only warm the cache
+     */
+    public void getFilterOptions(OnFilterOptionsLoadedListener listener) {
+        FilterOptions current;
+        synchronized (this) {
+            current = options;
+            if (current == null) {
+                if (listener != null) {
+                    pendingListeners.add(listener);
+                }
+                if (loading) {
+                    return;
+                }
+                loading = true;
+            }
+        }
+        if (current != null) {
+            if (listener != null) {
+                executors.mainThread().execute(() -> listener.onFilterOptionsLoaded(current));
+            }
+            if (current.isStale()) {
+                refresh();
+            }
+            return;
+        }
+        executors.diskIO().execute(() -> {
+            FilterOptions stored = readFromDisk();
+            if (stored != null) {
+                Log.d(TAG, "Loaded filter options from disk");
+                publish(stored);
+                if (stored.isStale()) {
+                    refresh();
+                }
+            } else {
+                fetchFromNetwork();
+            }
+        });
+    }
+
+    private void refresh() {
+        synchronized (this) {
+            if (loading) {
+                return;
+            }
+            loading = true;
+        }
+        fetchFromNetwork();
+    }
+
+    private void fetchFromNetwork() {
+        FirebaseManager firebaseManager = FirebaseManager.getInstance();
+        FilterOptions fetched = new FilterOptions();
+        final int[] remaining = {3};
+        final String[] firstError = {null};
+        Runnable onPartDone = () -> {
+            synchronized (fetched) {
+                if (--remaining[0] > 0) {
+                    return;
+                }
+            }
+            if (fetched.isComplete()) {
+                fetched.version = CACHE_VERSION;
+                fetched.fetchedAt = System.currentTimeMillis();
+                publish(fetched);
+                executors.diskIO().execute(() -> writeToDisk(fetched));
+            } else {
+                fail(firstError[0] != null ? firstError[0] : "Failed to load filter options");
+            }
+        };
+
+        firebaseManager.getCategories(new FirebaseManager.OnCategoriesLoadedListener() {
+            @Override
+            public void onCategoriesLoaded(List<CategoryResponse.Category> categories) {
+                fetched.categories = new ArrayList<>(categories);
+                onPartDone.run();
+            }
+
+            @Override
+            public void onError(String error) {
+                firstError[0] = error;
+                onPartDone.run();
+            }
+        });
+        firebaseManager.getAreas(new FirebaseManager.OnAreasLoadedListener() {
+            @Override
+            public void onAreasLoaded(List<AreaResponse.Area> areas) {
+                fetched.areas = new ArrayList<>(areas);
+                onPartDone.run();
+            }
+
+            @Override
+            public void onError(String error) {
+                firstError[0] = error;
+                onPartDone.run();
+            }
+        });
+        firebaseManager.getIngredients(new FirebaseManager.OnIngredientsLoadedListener() {
+            @Override
+            public void onIngredientsLoaded(List<IngredientResponse.Ingredient> ingredients) {
+                fetched.ingredients = new ArrayList<>(ingredients);
+                onPartDone.run();
+            }
+
+            @Override
+            public void onError(String error) {
+                firstError[0] = error;
+                onPartDone.run();
+            }
+        });
+    }
+
+    private void publish(FilterOptions loaded) {
+        List<OnFilterOptionsLoadedListener> listeners;
+        synchronized (this) {
+            options = loaded;
+            loading = false;
+            listeners = new ArrayList<>(pendingListeners);
+            pendingListeners.clear();
+        }
+        executors.mainThread().execute(() -> {
+            for (OnFilterOptionsLoadedListener listener : listeners) {
+                listener.onFilterOptionsLoaded(loaded);
+            }
+        });
+    }
+
+    private void fail(String error) {
+        Log.e(TAG, "Failed to load filter options: " + error);
+        List<OnFilterOptionsLoadedListener> listeners;
+        synchronized (this) {
+            loading = false;
+            listeners = new ArrayList<>(pendingListeners);
+            pendingListeners.clear();
+        }
+        executors.mainThread().execute(() -> {
+            for (OnFilterOptionsLoadedListener listener : listeners) {
+                listener.onError(error);
+            }
+        });
+    }
+
+    private FilterOptions readFromDisk() {
+        try (Reader reader = new InputStreamReader(getFile().openRead(), StandardCharsets.UTF_8)) {
+            FilterOptions stored = gson.fromJson(reader, FilterOptions.class);
+            if (stored == null || stored.version != CACHE_VERSION || !stored.isComplete()) {
+                return null;
+            }
+            return stored;
+        } catch (FileNotFoundException e) {
+            // First run with the file format: drop the catalogs earlier versions stored
+            CookBookApplication.getInstance().deleteSharedPreferences(LEGACY_PREFS_NAME);
+            return null;
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading cached filter options", e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(FilterOptions fetched) {
+        AtomicFile file = getFile();
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            gson.toJson(fetched, writer);
+            writer.flush();
+            file.finishWrite(out);
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing cached filter options", e);
+            if (out != null) {
+                file.failWrite(out);
+            }
+        }
+    }
+
+    private AtomicFile getFile() {
+        return new AtomicFile(new File(CookBookApplication.getInstance().getFilesDir(), FILE_NAME));
+    }
+}
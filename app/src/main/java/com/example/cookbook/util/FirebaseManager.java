@@ -1,43 +1,48 @@
 package com.example.cookbook.util;
 
 import android.content.Context;
-import android.net.Uri;
 import android.util.Log;
 
 import com.example.cookbook.BuildConfig;
 import com.example.cookbook.CookBookApplication;
 import com.example.cookbook.R;
 import com.example.cookbook.api.ApiClient;
-import com.example.cookbook.api.model.ApiRecipe;
-import com.example.cookbook.api.model.ApiRecipeResponse;
+import com.example.cookbook.core.api.ApiRecipe;
+import com.example.cookbook.core.api.MealConverter;
+import com.example.cookbook.core.api.ApiRecipeResponse;
 import com.example.cookbook.api.model.CategoryResponse;
 import com.example.cookbook.api.model.AreaResponse;
 import com.example.cookbook.api.model.IngredientResponse;
-import com.example.cookbook.model.RecipeFilter;
+import com.example.cookbook.db.LocalRecipeStore;
+import com.example.cookbook.core.model.RecipeFilter;
+import com.example.cookbook.core.util.DietaryClassifier;
+import com.example.cookbook.core.util.RecipeSearch;
 import com.example.cookbook.model.Ingredient;
 import com.example.cookbook.model.Recipe;
 import com.example.cookbook.model.User;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.firestore.DocumentSnapshot;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -57,24 +62,64 @@ import retrofit2.Response;
  */
 public class FirebaseManager {
     private static final String TAG = "FirebaseManager";
-    private static final String USERS_COLLECTION = "users";
-    private static final String RECIPES_COLLECTION = "recipes";
+    static final String USERS_COLLECTION = "users";
+    static final String RECIPES_COLLECTION = "recipes";
+    /** Number of recipes per {@link RecipeStream} page. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    // Dietary filters classify at most this many candidates, hydrating stubs first
+    private static final int MAX_DIETARY_CANDIDATES = 30;
+    private static final int MAX_FILTER_RESULTS = 10;
+    // Firestore rejects a batch with more writes than this
+    private static final int MAX_BATCH_WRITES = 500;
+    private static final MealConverter<Recipe, Ingredient> MEAL_CONVERTER = new MealConverter<>(
+            new MealConverter.Factory<Recipe, Ingredient>() {
+                @Override
+                public Ingredient newIngredient(String name, String amount, String unit) {
+                    return new Ingredient(name, amount, unit);
+                }
+
+                @Override
+                public Recipe newRecipe(ApiRecipe meal, String category, List<Ingredient> ingredients) {
+                    Recipe recipe = new Recipe();
+                    recipe.setId(meal.getId());
+                    recipe.setTitle(meal.getTitle());
+                    recipe.setInstructions(meal.getInstructions());
+                    recipe.setImageUrl(meal.getImageUrl());
+                    recipe.setCategory(category);
+                    recipe.setArea(meal.getArea());
+                    recipe.setImportedFromApi(true);
+                    recipe.setFavorite(false);
+                    recipe.setCreatedAt(System.currentTimeMillis());
+                    recipe.setIngredients(ingredients);
+                    return recipe;
+                }
+            });
 
     private final FirebaseAuth auth;
-    private final FirebaseFirestore db;
+    // Built on first use; see db()
+    private volatile FirebaseFirestore db;
     private final Context context;
+    private final LocalRecipeStore localStore;
+    private final CatalogMirror catalog;
+    private volatile FilterEngine filterEngine;
+    // Coalesces identical reads that are in flight at the same time
+    private final SingleFlight requests = new SingleFlight();
+    private RecipeStream userRecipesStream;
+    private RecipeStream favoriteRecipesStream;
 
     private static FirebaseManager instance;
 
     /**
      * Private constructor for singleton pattern.
-     * Initializes Firebase Auth and Firestore instances.
+     * Initializes Firebase Auth; Firestore and the TheMealDB client are
+     * created on first use.
      */
     private FirebaseManager() {
         try {
             auth = FirebaseAuth.getInstance();
-            db = FirebaseFirestore.getInstance();
             context = CookBookApplication.getInstance();
+            localStore = LocalRecipeStore.getInstance(context);
+            catalog = CatalogMirror.getInstance(context);
             Log.d(TAG, "Firebase services initialized successfully");
         } catch (Exception e) {
             Log.e(TAG, "Error initializing Firebase services", e);
@@ -82,6 +127,32 @@ public class FirebaseManager {
         }
     }
 
+    /**
+     * Returns the Firestore instance, creating it on first use so screens
+     * that only need Auth, like the login screen, never pay for it.
+     */
+    private FirebaseFirestore db() {
+        FirebaseFirestore firestore = db;
+        if (firestore == null) {
+            // getInstance() always returns the same instance, so a race is harmless
+            firestore = FirebaseFirestore.getInstance();
+            db = firestore;
+        }
+        return firestore;
+    }
+
+    /**
+     * Returns the filter engine, building the TheMealDB client on first use.
+     */
+    private FilterEngine filterEngine() {
+        FilterEngine engine = filterEngine;
+        if (engine == null) {
+            engine = new FilterEngine(ApiClient.getRecipeService());
+            filterEngine = engine;
+        }
+        return engine;
+    }
+
     /**
      * Gets the singleton instance of FirebaseManager.
      * Creates a new instance if one doesn't exist.
@@ -114,7 +185,7 @@ public class FirebaseManager {
                     if (authResult.getUser() != null) {
                         FirebaseUser firebaseUser = authResult.getUser();
                         User newUser = new User(firebaseUser.getUid(), email);
-                        db.collection(USERS_COLLECTION)
+                        db().collection(USERS_COLLECTION)
                                 .document(firebaseUser.getUid())
                                 .set(newUser)
                                 .addOnFailureListener(e -> 
@@ -164,6 +235,9 @@ public class FirebaseManager {
      */
     public void logoutUser() {
         try {
+            // Detach listeners first; they would fail with permission errors once signed out
+            stopRecipeStreams();
+            MigrationRunner.getInstance().reset();
             auth.signOut();
             Log.d(TAG, "User logged out successfully");
         } catch (Exception e) {
@@ -178,6 +252,27 @@ public class FirebaseManager {
      * @return Task containing the document reference
      */
     public Task<DocumentReference> addRecipe(Recipe recipe) {
+        return addRecipe(recipe, newRecipeId());
+    }
+
+    /**
+     * Reserves a document ID for a recipe that is about to be added, so work
+     * such as an image upload can refer to it before the recipe is saved.
+     *
+     * @return A new, unused recipe ID
+     */
+    public String newRecipeId() {
+        return db().collection(RECIPES_COLLECTION).document().getId();
+    }
+
+    /**
+     * Adds a new recipe to Firestore under a reserved ID.
+     *
+     * @param recipe The recipe to add
+     * @param recipeId ID from {@link #newRecipeId()}
+     * @return Task containing the document reference
+     */
+    public Task<DocumentReference> addRecipe(Recipe recipe, String recipeId) {
         Log.d(TAG, "addRecipe called with recipe: " + recipe.getTitle());
         String userId = getCurrentUserId();
         if (userId == null) {
@@ -192,9 +287,18 @@ public class FirebaseManager {
             ", importedFromApi=" + recipe.isImportedFromApi() + 
             ", ingredients count=" + (recipe.getIngredients() != null ? recipe.getIngredients().size() : 0));
         
-        return db.collection(RECIPES_COLLECTION).add(recipe)
+        DocumentReference reference = db().collection(RECIPES_COLLECTION).document(recipeId);
+        return reference.set(recipe)
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    return reference;
+                })
                 .addOnSuccessListener(documentReference -> {
                     Log.d(TAG, "Recipe added successfully to Firestore with ID: " + documentReference.getId());
+                    recipe.setId(documentReference.getId());
+                    localStore.saveRecipe(recipe);
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error adding recipe to Firestore", e);
@@ -203,15 +307,39 @@ public class FirebaseManager {
     }
 
     /**
-     * Updates an existing recipe in Firestore.
+     * Updates the fields the edit screen changes: title, category,
+     * instructions and ingredients. The image URL is left alone, since
+     * {@link UploadQueue} patches it in on its own and may already have done
+     * so; writing the whole recipe could put the old URL back.
      * 
      * @param recipe The recipe to update
      * @return Task indicating success or failure
      */
     public Task<Void> updateRecipe(Recipe recipe) {
-        return db.collection(RECIPES_COLLECTION)
+        return db().collection(RECIPES_COLLECTION)
                 .document(recipe.getId())
-                .set(recipe);
+                .update("title", recipe.getTitle(),
+                        "category", recipe.getCategory(),
+                        "instructions", recipe.getInstructions(),
+                        "ingredients", recipe.getIngredients())
+                .addOnSuccessListener(aVoid -> {
+                    localStore.saveRecipe(recipe);
+                    RecipeMemoryStore.getInstance().put(recipe);
+                });
+    }
+
+    /**
+     * Sets the image URL of a saved recipe, e.g. once its queued upload finished.
+     *
+     * @param recipeId The ID of the recipe
+     * @param imageUrl The uploaded image URL
+     * @return Task indicating success or failure
+     */
+    public Task<Void> setRecipeImageUrl(String recipeId, String imageUrl) {
+        return db().collection(RECIPES_COLLECTION)
+                .document(recipeId)
+                .update("imageUrl", imageUrl)
+                .addOnSuccessListener(aVoid -> localStore.setImageUrl(recipeId, imageUrl));
     }
 
     /**
@@ -221,14 +349,13 @@ public class FirebaseManager {
      * @return Task indicating success or failure
      */
     public Task<Void> deleteRecipe(String recipeId) {
-        return db.collection(RECIPES_COLLECTION)
+        UploadQueue.getInstance(context).cancelForRecipe(recipeId);
+        return db().collection(RECIPES_COLLECTION)
                 .document(recipeId)
                 .delete()
                 .addOnSuccessListener(aVoid -> {
-                    // Also remove from favorites if it was favorited
-                    db.collection(RECIPES_COLLECTION)
-                            .document(recipeId)
-                            .delete();
+                    localStore.deleteRecipe(recipeId);
+                    RecipeMemoryStore.getInstance().remove(recipeId);
                 });
     }
 
@@ -246,9 +373,9 @@ public class FirebaseManager {
         }
         Log.d(TAG, "Getting recipes for user ID: " + userId);
         // First try a simple query without ordering
-        return db.collection(RECIPES_COLLECTION)
+        return requests.run("firestore:recipes:" + userId, () -> db().collection(RECIPES_COLLECTION)
                 .whereEqualTo("userId", userId)
-                .get()
+                .get())
                 .addOnSuccessListener(new com.google.android.gms.tasks.OnSuccessListener<QuerySnapshot>() {
                     @Override
                     public void onSuccess(QuerySnapshot querySnapshot) {
@@ -273,7 +400,10 @@ public class FirebaseManager {
      * 
      * @param query The search query
      * @return Task containing matching recipes
+     * @deprecated Only matches titles starting with the lowercased query.
+     *             Use {@link #searchLocalRecipes(String, OnRecipesLoadedListener)}.
      */
+    @Deprecated
     public Task<QuerySnapshot> searchRecipesByName(String query) {
         String userId = getCurrentUserId();
         if (userId == null) {
@@ -281,11 +411,28 @@ public class FirebaseManager {
             return Tasks.forException(new Exception("User not logged in"));
         }
         String searchQuery = query.toLowerCase();
-        return db.collection(RECIPES_COLLECTION)
+        return requests.run("firestore:title:" + userId + ":" + searchQuery, () -> db().collection(RECIPES_COLLECTION)
                 .whereEqualTo("userId", userId)
                 .whereGreaterThanOrEqualTo("title", searchQuery)
                 .whereLessThanOrEqualTo("title", searchQuery + "\uf8ff")
-                .get();
+                .get());
+    }
+
+    /**
+     * Searches the on-device full-text index over titles, ingredients and
+     * instructions of the user's cached recipes and of API recipes fetched
+     * earlier. Works offline and costs no Firestore reads.
+     *
+     * @param query Free text as typed by the user
+     * @param listener Callback for ranked results, invoked on the main thread
+     */
+    public void searchLocalRecipes(String query, OnRecipesLoadedListener listener) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            listener.onError("User not logged in");
+            return;
+        }
+        localStore.searchRecipes(userId, query, listener::onRecipesLoaded);
     }
 
     /**
@@ -295,10 +442,11 @@ public class FirebaseManager {
      * @return Task containing matching recipes
      */
     public Task<QuerySnapshot> searchRecipesByCategory(String category) {
-        return db.collection(RECIPES_COLLECTION)
-                .whereEqualTo("userId", getCurrentUserId())
+        String userId = getCurrentUserId();
+        return requests.run("firestore:category:" + userId + ":" + category, () -> db().collection(RECIPES_COLLECTION)
+                .whereEqualTo("userId", userId)
                 .whereEqualTo("category", category)
-                .get();
+                .get());
     }
 
     /**
@@ -308,73 +456,11 @@ public class FirebaseManager {
      * @return Task containing matching recipes
      */
     public Task<QuerySnapshot> searchRecipesByIngredient(String ingredient) {
-        return db.collection(RECIPES_COLLECTION)
-                .whereEqualTo("userId", getCurrentUserId())
+        String userId = getCurrentUserId();
+        return requests.run("firestore:ingredient:" + userId + ":" + ingredient, () -> db().collection(RECIPES_COLLECTION)
+                .whereEqualTo("userId", userId)
                 .whereArrayContains("ingredients", ingredient)
-                .get();
-    }
-
-    /**
-     * Uploads a recipe image to ImgBB and returns the URL.
-     * 
-     * @param imageUri The URI of the image to upload
-     * @return Task containing the uploaded image URL
-     */
-    public Task<String> uploadRecipeImage(Uri imageUri) {
-        Log.d(TAG, "Starting image upload...");
-        Log.d(TAG, "Selected Image URI: " + imageUri);
-        
-        Task<String> task = Tasks.call(() -> {
-            // Convert Uri to File
-            File imageFile = createTempFileFromUri(imageUri);
-            
-            // Create a CompletableFuture to handle the async ImgBB upload
-            CompletableFuture<String> future = new CompletableFuture<>();
-            
-            // Upload to ImgBB
-            ImgBBUploadManager.uploadImage(imageFile, new ImgBBUploadManager.UploadCallback() {
-                @Override
-                public void onSuccess(String imageUrl) {
-                    Log.d(TAG, "Image uploaded successfully: " + imageUrl);
-                    future.complete(imageUrl);
-                }
-
-                @Override
-                public void onError(String error) {
-                    Log.e(TAG, "Error uploading image: " + error);
-                    future.completeExceptionally(new Exception(error));
-                }
-            });
-            
-            // Wait for the upload to complete
-            return future.get();
-        });
-        
-        return task;
-    }
-
-    /**
-     * Creates a temporary file from a URI for image upload.
-     * 
-     * @param uri The URI to convert to a file
-     * @return The temporary file
-     * @throws IOException If file creation fails
-     */
-    private File createTempFileFromUri(Uri uri) throws IOException {
-        InputStream inputStream = context.getContentResolver().openInputStream(uri);
-        File tempFile = File.createTempFile("recipe_image_", ".jpg", context.getCacheDir());
-        
-        try (OutputStream outputStream = new FileOutputStream(tempFile)) {
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
-        } finally {
-            inputStream.close();
-        }
-        
-        return tempFile;
+                .get());
     }
 
     /**
@@ -385,9 +471,10 @@ public class FirebaseManager {
      * @return Task indicating success or failure
      */
     public Task<Void> toggleFavoriteRecipe(String recipeId, boolean isFavorite) {
-        return db.collection(RECIPES_COLLECTION)
+        return db().collection(RECIPES_COLLECTION)
                 .document(recipeId)
-                .update("favorite", isFavorite);
+                .update("favorite", isFavorite)
+                .addOnSuccessListener(aVoid -> localStore.setFavorite(recipeId, isFavorite));
     }
 
     /**
@@ -396,10 +483,94 @@ public class FirebaseManager {
      * @return Task containing favorite recipes
      */
     public Task<QuerySnapshot> getFavoriteRecipes() {
-        return db.collection(RECIPES_COLLECTION)
-                .whereEqualTo("userId", getCurrentUserId())
+        String userId = getCurrentUserId();
+        return requests.run("firestore:favorites:" + userId, () -> db().collection(RECIPES_COLLECTION)
+                .whereEqualTo("userId", userId)
                 .whereEqualTo("favorite", true)
-                .get();
+                .get());
+    }
+
+    /**
+     * Returns the live stream of the current user's recipes, newest first.
+     * The stream is shared and outlives the screens observing it, so
+     * returning to a screen costs no reads; it is replaced when another
+     * user logs in and stopped on logout.
+     *
+     * @return The shared stream; observers get an error if nobody is logged in
+     */
+    public synchronized RecipeStream getUserRecipesStream() {
+        String userId = getCurrentUserId();
+        if (userRecipesStream == null || !userRecipesStream.isFor(userId)) {
+            if (userRecipesStream != null) {
+                userRecipesStream.stop();
+            }
+            Query query = userId != null
+                    ? db().collection(RECIPES_COLLECTION).whereEqualTo("userId", userId)
+                    : null;
+            userRecipesStream = new RecipeStream(userId, query, DEFAULT_PAGE_SIZE, new RecipeStream.LocalCache() {
+                @Override
+                public void load(LocalRecipeStore.OnCachedRecipesListener listener) {
+                    localStore.loadUserRecipes(userId, listener);
+                }
+
+                @Override
+                public void save(List<Recipe> changed) {
+                    localStore.saveRecipes(changed);
+                }
+
+                @Override
+                public void replaceAll(List<Recipe> recipes) {
+                    localStore.replaceUserRecipes(userId, recipes);
+                }
+            });
+        }
+        return userRecipesStream;
+    }
+
+    /**
+     * Returns the live stream of the current user's favorite recipes, newest first.
+     * See {@link #getUserRecipesStream()} for its lifetime.
+     *
+     * @return The shared stream; observers get an error if nobody is logged in
+     */
+    public synchronized RecipeStream getFavoriteRecipesStream() {
+        String userId = getCurrentUserId();
+        if (favoriteRecipesStream == null || !favoriteRecipesStream.isFor(userId)) {
+            if (favoriteRecipesStream != null) {
+                favoriteRecipesStream.stop();
+            }
+            Query query = userId != null
+                    ? db().collection(RECIPES_COLLECTION).whereEqualTo("userId", userId).whereEqualTo("favorite", true)
+                    : null;
+            favoriteRecipesStream = new RecipeStream(userId, query, DEFAULT_PAGE_SIZE, new RecipeStream.LocalCache() {
+                @Override
+                public void load(LocalRecipeStore.OnCachedRecipesListener listener) {
+                    localStore.loadFavoriteRecipes(userId, listener);
+                }
+
+                @Override
+                public void save(List<Recipe> changed) {
+                    localStore.saveRecipes(changed);
+                }
+
+                @Override
+                public void replaceAll(List<Recipe> recipes) {
+                    localStore.replaceFavoriteRecipes(userId, recipes);
+                }
+            });
+        }
+        return favoriteRecipesStream;
+    }
+
+    private synchronized void stopRecipeStreams() {
+        if (userRecipesStream != null) {
+            userRecipesStream.stop();
+            userRecipesStream = null;
+        }
+        if (favoriteRecipesStream != null) {
+            favoriteRecipesStream.stop();
+            favoriteRecipesStream = null;
+        }
     }
 
     /**
@@ -412,22 +583,77 @@ public class FirebaseManager {
         try {
             recipe.setImportedFromApi(true);
             recipe.setFavorite(true);
-            return addRecipe(recipe)
-                .continueWithTask(task -> {
-                    if (task.isSuccessful()) {
-                        String recipeId = task.getResult().getId();
-                        recipe.setId(recipeId);
-                        return task.getResult().getParent().document(recipeId)
-                            .update("favorite", true);
-                    } else {
-                        throw task.getException();
-                    }
-                });
+            // The favorite flag is written together with the rest of the recipe
+            Task<DocumentReference> add = addRecipe(recipe);
+            if (add == null) {
+                return Tasks.forException(new Exception("User not logged in"));
+            }
+            return add.onSuccessTask(reference -> Tasks.<Void>forResult(null));
         } catch (Exception e) {
             return Tasks.forException(e);
         }
     }
 
+    /**
+     * Loads the current user's pantry, the ingredients stored in
+     * {@link User#getCustomIngredients()}.
+     *
+     * @return Task with the pantry items; empty if the user has none or no user document
+     */
+    public Task<List<String>> getPantry() {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            return Tasks.forException(new Exception("User not logged in"));
+        }
+        return db().collection(USERS_COLLECTION).document(userId).get()
+            .continueWith(task -> {
+                User user = task.getResult().toObject(User.class);
+                return user != null && user.getCustomIngredients() != null
+                        ? user.getCustomIngredients() : new ArrayList<String>();
+            });
+    }
+
+    /**
+     * Adds an item to the current user's pantry. The user document is
+     * created if accounts made before it existed lack one.
+     *
+     * @param ingredient The ingredient name as entered
+     */
+    public Task<Void> addPantryItem(String ingredient) {
+        return updatePantry(FieldValue.arrayUnion(ingredient));
+    }
+
+    /**
+     * Removes an item from the current user's pantry.
+     *
+     * @param ingredient The ingredient name as stored
+     */
+    public Task<Void> removePantryItem(String ingredient) {
+        return updatePantry(FieldValue.arrayRemove(ingredient));
+    }
+
+    private Task<Void> updatePantry(FieldValue change) {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            return Tasks.forException(new Exception("User not logged in"));
+        }
+        Map<String, Object> update = new HashMap<>();
+        update.put("customIngredients", change);
+        return db().collection(USERS_COLLECTION).document(userId).set(update, SetOptions.merge());
+    }
+
+    /**
+     * Ranks the user's recipes and cached TheMealDB recipes by how well the
+     * pantry covers them. See {@link PantryMatcher}.
+     *
+     * @param pantry Ingredient names as the user entered them
+     * @param limit Number of recipes to return at most
+     * @param listener Receives the ranked matches on the main thread
+     */
+    public void findCookableRecipes(List<String> pantry, int limit, PantryMatcher.OnPantryMatchesListener listener) {
+        PantryMatcher.getInstance().findCookable(getCurrentUserId(), pantry, limit, listener);
+    }
+
     /**
      * Gets the current user's ID.
      * 
@@ -504,7 +730,11 @@ public class FirebaseManager {
      * @param listener Callback for search results
      */
     public void searchOnlineRecipes(String query, OnRecipesLoadedListener listener) {
-        searchOnlineRecipesWithFilter(RecipeFilter.bySearch(query), listener);
+        searchOnlineRecipes(query, listener, new RequestHandle());
+    }
+
+    private void searchOnlineRecipes(String query, OnRecipesLoadedListener listener, RequestHandle handle) {
+        searchOnlineRecipesWithFilter(RecipeFilter.bySearch(query), listener, handle);
     }
 
     /**
@@ -514,63 +744,88 @@ public class FirebaseManager {
      * @param listener Callback for search results
      */
     public void searchOnlineRecipesWithFilter(RecipeFilter filter, OnRecipesLoadedListener listener) {
+        searchOnlineRecipesWithFilter(filter, listener, new RequestHandle());
+    }
+
+    private void searchOnlineRecipesWithFilter(RecipeFilter filter, OnRecipesLoadedListener listener, RequestHandle handle) {
+        if (handle.isCancelled()) {
+            return;
+        }
+        if (catalog.isComplete()) {
+            // The whole catalog is on the device and the mirror keeps it fresh
+            searchCatalog(filter, listener, handle);
+            return;
+        }
+        // TheMealDB knows nothing about diets: fetch candidates for the other
+        // conditions, or from likely categories, and classify them locally
+        RecipeFilter apiFilter = filter.without(RecipeFilter.FilterType.DIETARY);
+        if (apiFilter == null) {
+            apiFilter = new RecipeFilter(RecipeFilter.FilterType.CATEGORY,
+                    DietaryClassifier.candidateCategories(filter.getRequiredDiets()));
+        }
+        if (apiFilter.isCompound()) {
+            // filter.php takes one value per request; fan out and intersect
+            android.util.Log.d(TAG, "searchOnlineRecipesWithFilter called with compound filter: " + filter);
+            filterEngine().filter(apiFilter, handle, new FilterEngine.OnMealsFilteredListener() {
+                @Override
+                public void onMealsFiltered(List<ApiRecipe> meals) {
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    deliverFilterResults(meals, filter, listener, handle);
+                }
+
+                @Override
+                public void onError(String error) {
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    listener.onError(error);
+                }
+            });
+            return;
+        }
         Call<ApiRecipeResponse> call;
         String logMsg = "";
         String endpoint = "filter.php";
         String param = "";
         
-        android.util.Log.d(TAG, "searchOnlineRecipesWithFilter called with filter type: " + filter.getType() + ", value: " + filter.getValue());
+        android.util.Log.d(TAG, "searchOnlineRecipesWithFilter called with filter type: " + apiFilter.getType() + ", value: " + apiFilter.getValue());
         
-        switch (filter.getType()) {
+        switch (apiFilter.getType()) {
             case CATEGORY:
-                param = "c=" + filter.getValue();
-                call = ApiClient.getRecipeService().filterByCategory(filter.getValue());
+                param = "c=" + apiFilter.getValue();
+                call = ApiClient.getRecipeService().filterByCategory(apiFilter.getValue());
                 break;
             case AREA:
-                param = "a=" + filter.getValue();
-                call = ApiClient.getRecipeService().filterByArea(filter.getValue());
+                param = "a=" + apiFilter.getValue();
+                call = ApiClient.getRecipeService().filterByArea(apiFilter.getValue());
                 break;
             case INGREDIENT:
-                param = "i=" + filter.getValue();
-                call = ApiClient.getRecipeService().filterByIngredient(filter.getValue());
+                param = "i=" + apiFilter.getValue();
+                call = ApiClient.getRecipeService().filterByIngredient(apiFilter.getValue());
                 break;
             case SEARCH:
             default:
                 endpoint = "search.php";
-                param = "s=" + filter.getValue();
-                call = ApiClient.getRecipeService().searchRecipes(filter.getValue());
+                param = "s=" + apiFilter.getValue();
+                call = ApiClient.getRecipeService().searchRecipes(apiFilter.getValue());
                 break;
         }
         logMsg = "[TheMealDB API] Request: https://www.themealdb.com/api/json/v1/1/" + endpoint + "?" + param;
         android.util.Log.d(TAG, logMsg);
         System.out.println(logMsg);
 
+        handle.attach(call);
         call.enqueue(new Callback<ApiRecipeResponse>() {
             @Override
             public void onResponse(Call<ApiRecipeResponse> call, Response<ApiRecipeResponse> response) {
+                if (handle.isCancelled()) {
+                    return;
+                }
                 android.util.Log.d(TAG, "API Response received - successful: " + response.isSuccessful());
                 if (response.isSuccessful() && response.body() != null) {
-                    List<ApiRecipe> searchResults = response.body().getResults();
-                    android.util.Log.d(TAG, "Search results count: " + (searchResults != null ? searchResults.size() : 0));
-                    if (searchResults != null && !searchResults.isEmpty()) {
-                        List<Recipe> recipes = convertApiRecipesToLocalRecipes(searchResults);
-                        android.util.Log.d(TAG, "Converted recipes count: " + recipes.size());
-                        
-                        // Apply additional local filters (like vegan, gluten-free)
-                        recipes = applyLocalFilters(recipes, filter);
-                        android.util.Log.d(TAG, "After local filtering: " + recipes.size() + " recipes");
-                        
-                        // Ensure we only return maximum 10 results
-                        if (recipes.size() > 10) {
-                            recipes = recipes.subList(0, 10);
-                            android.util.Log.d(TAG, "Limited to 10 recipes");
-                        }
-                        android.util.Log.d(TAG, "Final recipes to return: " + recipes.size());
-                        listener.onRecipesLoaded(recipes);
-                    } else {
-                        android.util.Log.w(TAG, "No search results found");
-                        listener.onRecipesLoaded(new ArrayList<>());
-                    }
+                    deliverFilterResults(response.body().getResults(), filter, listener, handle);
                 } else {
                     android.util.Log.e(TAG, "API response not successful or body is null");
                     listener.onError("Failed to load recipes");
@@ -579,81 +834,283 @@ public class FirebaseManager {
 
             @Override
             public void onFailure(Call<ApiRecipeResponse> call, Throwable t) {
+                if (handle.isCancelled()) {
+                    return;
+                }
                 listener.onError(t.getMessage());
             }
         });
     }
 
     /**
-     * Retrieves available categories from TheMealDB API.
-     * 
-     * @param listener Callback for categories
+     * Answers an online search from the mirrored catalog instead of
+     * TheMealDB. Text searches use the full-text index; every other
+     * condition is checked with {@link RecipeFilter#matches(Recipe)}.
      */
-    public void getCategories(OnCategoriesLoadedListener listener) {
-        ApiClient.getRecipeService().getCategories()
-            .enqueue(new Callback<CategoryResponse>() {
-                @Override
-                public void onResponse(Call<CategoryResponse> call, Response<CategoryResponse> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        listener.onCategoriesLoaded(response.body().getCategories());
-                    } else {
-                        listener.onError("Failed to load categories");
+    private void searchCatalog(RecipeFilter filter, OnRecipesLoadedListener listener, RequestHandle handle) {
+        if (filter.getType() == RecipeFilter.FilterType.SEARCH) {
+            localStore.searchRecipes(getCurrentUserId(), filter.getValue(), recipes -> {
+                if (handle.isCancelled()) {
+                    return;
+                }
+                List<Recipe> mirrored = new ArrayList<>();
+                for (Recipe recipe : recipes) {
+                    if (recipe.getUserId() == null && recipe.isImportedFromApi()) {
+                        mirrored.add(recipe);
                     }
                 }
+                finishFilterResults(mirrored, filter, listener);
+            });
+            return;
+        }
+        catalog.loadCatalog(recipes -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            List<Recipe> matching = new ArrayList<>();
+            for (Recipe recipe : recipes) {
+                if (filter.matches(recipe)) {
+                    matching.add(recipe);
+                }
+            }
+            android.util.Log.d(TAG, "Catalog filter " + filter + ": " + matching.size() + " of " + recipes.size());
+            finishFilterResults(matching, filter, listener);
+        });
+    }
+
+    /**
+     * Converts API results, applies local filters and caps them at 10 recipes.
+     *
+     * @param searchResults Meals returned by the API, possibly null
+     * @param filter The filter the meals were fetched for
+     * @param listener Callback for the final recipes
+     * @param handle Handle of the search; nothing is delivered once it is cancelled
+     */
+    private void deliverFilterResults(List<ApiRecipe> searchResults, RecipeFilter filter, OnRecipesLoadedListener listener, RequestHandle handle) {
+        android.util.Log.d(TAG, "Search results count: " + (searchResults != null ? searchResults.size() : 0));
+        if (searchResults == null || searchResults.isEmpty()) {
+            android.util.Log.w(TAG, "No search results found");
+            listener.onRecipesLoaded(new ArrayList<>());
+            return;
+        }
+        List<Recipe> recipes = convertApiRecipesToLocalRecipes(searchResults);
+        android.util.Log.d(TAG, "Converted recipes count: " + recipes.size());
+        if (filter.getType() == RecipeFilter.FilterType.SEARCH) {
+            // search.php returns full recipes; filter.php only names and thumbnails
+            localStore.saveRecipes(recipes);
+        } else {
+            // Use full records for stubs hydrated earlier so local filters see real ingredients
+            RecipeHydrator hydrator = RecipeHydrator.getInstance();
+            for (int i = 0; i < recipes.size(); i++) {
+                Recipe hydrated = hydrator.getCached(recipes.get(i).getId());
+                if (hydrated != null) {
+                    recipes.set(i, hydrated);
+                }
+            }
+        }
 
-                @Override
-                public void onFailure(Call<CategoryResponse> call, Throwable t) {
-                    listener.onError(t.getMessage());
+        if (filter.getRequiredDiets() != 0) {
+            // Diets are read off the ingredients, which filter.php stubs lack
+            hydrateDietaryCandidates(recipes, filter, listener, handle);
+            return;
+        }
+        finishFilterResults(recipes, filter, listener);
+    }
+
+    /**
+     * Replaces the stubs among the first {@link #MAX_DIETARY_CANDIDATES}
+     * candidates with full records, from Room where cached and lookup.php
+     * otherwise, then finishes the results. Stubs that cannot be hydrated are
+     * dropped, since their diets are unknown.
+     */
+    private void hydrateDietaryCandidates(List<Recipe> candidates, RecipeFilter filter, OnRecipesLoadedListener listener, RequestHandle handle) {
+        List<Recipe> window = new ArrayList<>(candidates.subList(0, Math.min(candidates.size(), MAX_DIETARY_CANDIDATES)));
+        List<String> stubIds = new ArrayList<>();
+        for (Recipe recipe : window) {
+            if (RecipeHydrator.isStub(recipe) && recipe.getId() != null) {
+                stubIds.add(recipe.getId());
+            }
+        }
+        if (stubIds.isEmpty()) {
+            finishFilterResults(window, filter, listener);
+            return;
+        }
+        localStore.loadRecipes(stubIds, cached -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            Map<String, Recipe> full = new HashMap<>();
+            for (Recipe recipe : cached) {
+                if (!RecipeHydrator.isStub(recipe)) {
+                    full.put(recipe.getId(), recipe);
                 }
+            }
+            List<String> missing = new ArrayList<>();
+            for (String id : stubIds) {
+                if (!full.containsKey(id)) {
+                    missing.add(id);
+                }
+            }
+            android.util.Log.d(TAG, "Dietary filter: " + full.size() + " of " + stubIds.size()
+                    + " stubs cached, looking up " + missing.size());
+            new LookupBatch(missing, handle).start().addOnSuccessListener(looked -> {
+                if (handle.isCancelled()) {
+                    return;
+                }
+                for (Recipe recipe : looked) {
+                    full.put(recipe.getId(), recipe);
+                }
+                List<Recipe> hydrated = new ArrayList<>(window.size());
+                for (Recipe recipe : window) {
+                    Recipe replacement = RecipeHydrator.isStub(recipe) ? full.get(recipe.getId()) : recipe;
+                    if (replacement != null) {
+                        hydrated.add(replacement);
+                    }
+                }
+                finishFilterResults(hydrated, filter, listener);
             });
+        });
     }
 
     /**
-     * Retrieves available areas from TheMealDB API.
-     * 
-     * @param listener Callback for areas
+     * Looks up recipes on lookup.php at most
+     * {@link RecipeHydrator#MAX_CONCURRENT_LOOKUPS} at a time, and stops
+     * starting lookups once the request is cancelled. Failed lookups are left
+     * out of the result. Call from the main thread only.
      */
-    public void getAreas(OnAreasLoadedListener listener) {
-        ApiClient.getRecipeService().getAreas("list")
-            .enqueue(new Callback<AreaResponse>() {
-                @Override
-                public void onResponse(Call<AreaResponse> call, Response<AreaResponse> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        listener.onAreasLoaded(response.body().getAreas());
-                    } else {
-                        listener.onError("Failed to load areas");
+    private class LookupBatch {
+        private final ArrayDeque<String> remaining;
+        private final RequestHandle handle;
+        private final List<Recipe> found = new ArrayList<>();
+        private final TaskCompletionSource<List<Recipe>> source = new TaskCompletionSource<>();
+        private int active = 0;
+
+        LookupBatch(List<String> recipeIds, RequestHandle handle) {
+            this.remaining = new ArrayDeque<>(recipeIds);
+            this.handle = handle;
+        }
+
+        Task<List<Recipe>> start() {
+            pump();
+            return source.getTask();
+        }
+
+        private void pump() {
+            while (active < RecipeHydrator.MAX_CONCURRENT_LOOKUPS && !remaining.isEmpty() && !handle.isCancelled()) {
+                active++;
+                lookupRecipe(remaining.removeFirst()).addOnCompleteListener(task -> {
+                    active--;
+                    if (task.isSuccessful()) {
+                        found.add(task.getResult());
                     }
+                    pump();
+                });
+            }
+            if (active == 0 && (remaining.isEmpty() || handle.isCancelled())) {
+                source.trySetResult(found);
+            }
+        }
+    }
+
+    /**
+     * Applies local filters to converted results and delivers at most
+     * {@link #MAX_FILTER_RESULTS} of them.
+     */
+    private void finishFilterResults(List<Recipe> recipes, RecipeFilter filter, OnRecipesLoadedListener listener) {
+        // Apply additional local filters (like vegan, gluten-free)
+        recipes = applyLocalFilters(recipes, filter);
+        android.util.Log.d(TAG, "After local filtering: " + recipes.size() + " recipes");
+
+        // Ensure we only return maximum 10 results
+        if (recipes.size() > MAX_FILTER_RESULTS) {
+            recipes = recipes.subList(0, MAX_FILTER_RESULTS);
+            android.util.Log.d(TAG, "Limited to " + MAX_FILTER_RESULTS + " recipes");
+        }
+        android.util.Log.d(TAG, "Final recipes to return: " + recipes.size());
+        listener.onRecipesLoaded(recipes);
+    }
+
+    /**
+     * Retrieves available categories from TheMealDB API. Concurrent callers
+     * share one request.
+     * 
+     * @param listener Callback for categories
+     */
+    public void getCategories(OnCategoriesLoadedListener listener) {
+        requests.run("api:categories", () -> toTask(ApiClient.getRecipeService().getCategories(), "Failed to load categories"))
+            .addOnSuccessListener(body -> {
+                if (body.getCategories() != null) {
+                    listener.onCategoriesLoaded(body.getCategories());
+                } else {
+                    listener.onError("Failed to load categories");
                 }
+            })
+            .addOnFailureListener(e -> listener.onError(e.getMessage()));
+    }
 
-                @Override
-                public void onFailure(Call<AreaResponse> call, Throwable t) {
-                    listener.onError(t.getMessage());
+    /**
+     * Retrieves available areas from TheMealDB API. Concurrent callers share
+     * one request.
+     * 
+     * @param listener Callback for areas
+     */
+    public void getAreas(OnAreasLoadedListener listener) {
+        requests.run("api:areas", () -> toTask(ApiClient.getRecipeService().getAreas("list"), "Failed to load areas"))
+            .addOnSuccessListener(body -> {
+                if (body.getAreas() != null) {
+                    listener.onAreasLoaded(body.getAreas());
+                } else {
+                    listener.onError("Failed to load areas");
                 }
-            });
+            })
+            .addOnFailureListener(e -> listener.onError(e.getMessage()));
     }
 
     /**
-     * Retrieves available ingredients from TheMealDB API.
+     * Retrieves available ingredients from TheMealDB API. Concurrent callers
+     * share one request.
      * 
      * @param listener Callback for ingredients
      */
     public void getIngredients(OnIngredientsLoadedListener listener) {
-        ApiClient.getRecipeService().getIngredients("list")
-            .enqueue(new Callback<IngredientResponse>() {
-                @Override
-                public void onResponse(Call<IngredientResponse> call, Response<IngredientResponse> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        listener.onIngredientsLoaded(response.body().getIngredients());
-                    } else {
-                        listener.onError("Failed to load ingredients");
-                    }
+        requests.run("api:ingredients", () -> toTask(ApiClient.getRecipeService().getIngredients("list"), "Failed to load ingredients"))
+            .addOnSuccessListener(body -> {
+                if (body.getIngredients() != null) {
+                    listener.onIngredientsLoaded(body.getIngredients());
+                } else {
+                    listener.onError("Failed to load ingredients");
                 }
+            })
+            .addOnFailureListener(e -> listener.onError(e.getMessage()));
+    }
 
-                @Override
-                public void onFailure(Call<IngredientResponse> call, Throwable t) {
-                    listener.onError(t.getMessage());
+    /**
+     * Runs a Retrofit call and exposes its body as a Task, so it can be shared
+     * through {@link SingleFlight}. Listeners run on the main thread.
+     * TheMealDB answers a query without results with a null list, so callers
+     * still check the list inside the body.
+     *
+     * @param call The call to enqueue
+     * @param errorMessage Message of the failure if the response is unsuccessful or empty
+     */
+    private static <T> Task<T> toTask(Call<T> call, String errorMessage) {
+        TaskCompletionSource<T> source = new TaskCompletionSource<>();
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    source.setResult(response.body());
+                } else {
+                    source.setException(new Exception(errorMessage));
                 }
-            });
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                source.setException(t instanceof Exception ? (Exception) t : new Exception(t));
+            }
+        });
+        return source.getTask();
     }
 
     /**
@@ -664,34 +1121,7 @@ public class FirebaseManager {
      * @return Filtered list of recipes
      */
     private List<Recipe> applyLocalFilters(List<Recipe> recipes, RecipeFilter filter) {
-        // This is where we can add local filtering logic for dietary restrictions
-        // For now, we'll implement basic vegan/vegetarian filtering based on ingredients
-        
-        List<Recipe> filteredRecipes = new ArrayList<>();
-        
-        for (Recipe recipe : recipes) {
-            if (isRecipeSuitableForFilter(recipe, filter)) {
-                filteredRecipes.add(recipe);
-            }
-        }
-        
-        return filteredRecipes;
-    }
-
-    /**
-     * Checks if a recipe is suitable for a given filter.
-     * 
-     * @param recipe The recipe to check
-     * @param filter The filter to apply
-     * @return true if the recipe matches the filter
-     */
-    private boolean isRecipeSuitableForFilter(Recipe recipe, RecipeFilter filter) {
-        // Add local filtering logic here
-        // For example, check ingredients for vegan/vegetarian compliance
-        
-        // For now, return true (no additional filtering)
-        // You can enhance this with ingredient analysis
-        return true;
+        return RecipeSearch.suitingDiets(recipes, filter.getRequiredDiets());
     }
 
     /**
@@ -700,90 +1130,8 @@ public class FirebaseManager {
      * @param apiRecipes The API recipes to convert
      * @return List of local Recipe objects
      */
-    private List<Recipe> convertApiRecipesToLocalRecipes(List<ApiRecipe> apiRecipes) {
-        List<Recipe> recipes = new ArrayList<>();
-        for (ApiRecipe apiRecipe : apiRecipes) {
-            try {
-                Recipe recipe = new Recipe();
-                recipe.setId(apiRecipe.getId()); // <-- Set the ID from idMeal
-                recipe.setTitle(apiRecipe.getTitle());
-                recipe.setInstructions(apiRecipe.getInstructions());
-                recipe.setImageUrl(apiRecipe.getImageUrl());
-                recipe.setCategory(apiRecipe.getCategory() != null ? apiRecipe.getCategory() : "Other");
-                recipe.setImportedFromApi(true);
-                recipe.setFavorite(false); // Initialize as not favorited
-                recipe.setCreatedAt(System.currentTimeMillis());
-
-                // TheMealDB stores ingredients as separate fields, so we need to extract them
-                List<Ingredient> ingredients = extractIngredientsFromTheMealDB(apiRecipe);
-                recipe.setIngredients(ingredients);
-                
-                recipes.add(recipe);
-                Log.d(TAG, "Successfully converted API recipe: " + recipe.getTitle() + ", id: " + recipe.getId());
-            } catch (Exception e) {
-                Log.e(TAG, "Error converting API recipe: " + apiRecipe.getTitle(), e);
-            }
-        }
-        return recipes;
-    }
-
-    /**
-     * Extracts ingredients from TheMealDB API response.
-     * 
-     * @param apiRecipe The API recipe
-     * @return List of ingredients
-     */
-    private List<Ingredient> extractIngredientsFromTheMealDB(ApiRecipe apiRecipe) {
-        List<Ingredient> ingredients = new ArrayList<>();
-        
-        // Extract ingredients and measures from TheMealDB response
-        String[] ingredientFields = {
-            apiRecipe.getIngredient1(), apiRecipe.getIngredient2(), apiRecipe.getIngredient3(),
-            apiRecipe.getIngredient4(), apiRecipe.getIngredient5(), apiRecipe.getIngredient6(),
-            apiRecipe.getIngredient7(), apiRecipe.getIngredient8(), apiRecipe.getIngredient9(),
-            apiRecipe.getIngredient10(), apiRecipe.getIngredient11(), apiRecipe.getIngredient12(),
-            apiRecipe.getIngredient13(), apiRecipe.getIngredient14(), apiRecipe.getIngredient15(),
-            apiRecipe.getIngredient16(), apiRecipe.getIngredient17(), apiRecipe.getIngredient18(),
-            apiRecipe.getIngredient19(), apiRecipe.getIngredient20()
-        };
-        
-        String[] measureFields = {
-            apiRecipe.getMeasure1(), apiRecipe.getMeasure2(), apiRecipe.getMeasure3(),
-            apiRecipe.getMeasure4(), apiRecipe.getMeasure5(), apiRecipe.getMeasure6(),
-            apiRecipe.getMeasure7(), apiRecipe.getMeasure8(), apiRecipe.getMeasure9(),
-            apiRecipe.getMeasure10(), apiRecipe.getMeasure11(), apiRecipe.getMeasure12(),
-            apiRecipe.getMeasure13(), apiRecipe.getMeasure14(), apiRecipe.getMeasure15(),
-            apiRecipe.getMeasure16(), apiRecipe.getMeasure17(), apiRecipe.getMeasure18(),
-            apiRecipe.getMeasure19(), apiRecipe.getMeasure20()
-        };
-        
-        // Combine ingredients with their measures
-        for (int i = 0; i < ingredientFields.length; i++) {
-            String ingredient = ingredientFields[i];
-            String measure = measureFields[i];
-            
-            if (ingredient != null && !ingredient.trim().isEmpty()) {
-                // Clean up the measure (remove extra spaces, etc.)
-                String cleanMeasure = measure != null ? measure.trim() : "";
-                String cleanIngredient = ingredient.trim();
-                
-                // If no measure is provided, use a default
-                if (cleanMeasure.isEmpty()) {
-                    cleanMeasure = "1";
-                }
-                
-                ingredients.add(new Ingredient(cleanIngredient, cleanMeasure, ""));
-                Log.d(TAG, "Added ingredient: " + cleanIngredient + " - " + cleanMeasure);
-            }
-        }
-        
-        // If no ingredients were found, add a placeholder
-        if (ingredients.isEmpty() && apiRecipe.getTitle() != null && !apiRecipe.getTitle().isEmpty()) {
-            ingredients.add(new Ingredient("Main ingredient", "1", "portion"));
-            Log.d(TAG, "No ingredients found, added placeholder for: " + apiRecipe.getTitle());
-        }
-        
-        return ingredients;
+    static List<Recipe> convertApiRecipesToLocalRecipes(List<ApiRecipe> apiRecipes) {
+        return MEAL_CONVERTER.convert(apiRecipes);
     }
 
     /**
@@ -828,7 +1176,7 @@ public class FirebaseManager {
             return;
         }
 
-        db.collection("recipes")
+        db().collection("recipes")
             .get()
             .addOnSuccessListener(queryDocumentSnapshots -> {
                 List<Recipe> recipes = new ArrayList<>();
@@ -852,23 +1200,25 @@ public class FirebaseManager {
      * 
      * @param filter The filter to apply
      * @param query The search query
-     * @param listener Callback for search results
+     * @param listener Callback for search results, never invoked once the request is cancelled
+     * @return Handle to cancel the request with
      */
-    public void searchOnlineRecipesByFilterOrQuery(RecipeFilter filter, String query, OnRecipesLoadedListener listener) {
+    public RequestHandle searchOnlineRecipesByFilterOrQuery(RecipeFilter filter, String query, OnRecipesLoadedListener listener) {
+        RequestHandle handle = new RequestHandle();
         // If both are empty/null, just return empty
         if ((filter == null || filter.getType() == null || filter.getValue() == null || filter.getValue().isEmpty()) && (query == null || query.isEmpty())) {
             listener.onRecipesLoaded(new ArrayList<>());
-            return;
+            return handle;
         }
         // If only filter is set
         if (query == null || query.isEmpty()) {
-            searchOnlineRecipesWithFilter(filter, listener);
-            return;
+            searchOnlineRecipesWithFilter(filter, listener, handle);
+            return handle;
         }
         // If only query is set
         if (filter == null || filter.getType() == null || filter.getValue() == null || filter.getValue().isEmpty()) {
-            searchOnlineRecipes(query, listener);
-            return;
+            searchOnlineRecipes(query, listener, handle);
+            return handle;
         }
         // Both filter and query are set, so fetch by filter, then locally filter by query
         searchOnlineRecipesWithFilter(filter, new OnRecipesLoadedListener() {
@@ -878,21 +1228,15 @@ public class FirebaseManager {
                     listener.onRecipesLoaded(new ArrayList<>());
                     return;
                 }
-                String lowerQuery = query.toLowerCase();
-                List<Recipe> filtered = new ArrayList<>();
-                for (Recipe r : filterResults) {
-                    if (r.getTitle() != null && r.getTitle().toLowerCase().contains(lowerQuery)) {
-                        filtered.add(r);
-                    }
-                }
-                listener.onRecipesLoaded(filtered);
+                listener.onRecipesLoaded(RecipeSearch.withTitleContaining(filterResults, query));
             }
             @Override
             public void onError(String error) {
                 // If filter search fails, just try query search
-                searchOnlineRecipes(query, listener);
+                searchOnlineRecipes(query, listener, handle);
             }
-        });
+        }, handle);
+        return handle;
     }
 
     /**
@@ -902,48 +1246,105 @@ public class FirebaseManager {
      * @param listener Callback for recipe details
      */
     public void fetchFullRecipeById(String id, OnRecipesLoadedListener listener) {
-        ApiClient.getRecipeService().getRecipeInformation(id).enqueue(new retrofit2.Callback<ApiRecipeResponse>() {
-            @Override
-            public void onResponse(Call<ApiRecipeResponse> call, Response<ApiRecipeResponse> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().getResults() != null && !response.body().getResults().isEmpty()) {
-                    List<Recipe> recipes = convertApiRecipesToLocalRecipes(response.body().getResults());
-                    listener.onRecipesLoaded(recipes);
-                } else {
-                    listener.onError("No recipe details found");
-                }
-            }
-            @Override
-            public void onFailure(Call<ApiRecipeResponse> call, Throwable t) {
-                listener.onError(t.getMessage());
+        lookupRecipe(id)
+            .addOnSuccessListener(recipe -> listener.onRecipesLoaded(Collections.singletonList(recipe)))
+            .addOnFailureListener(e -> listener.onError(e.getMessage()));
+    }
+
+    /**
+     * Fetches the full record of a TheMealDB recipe with lookup.php and caches
+     * it locally. Concurrent lookups of the same ID, e.g. a tap on a row that
+     * is being hydrated, share one request.
+     *
+     * @param id The TheMealDB recipe ID
+     * @return Task with the recipe, failing if TheMealDB has no such recipe
+     */
+    public Task<Recipe> lookupRecipe(String id) {
+        return requests.run("api:lookup:" + id, () ->
+            toTask(ApiClient.getRecipeService().getRecipeInformation(id), "No recipe details found")
+                .continueWith(task -> {
+                    List<ApiRecipe> results = task.getResult().getResults();
+                    List<Recipe> recipes = results != null ? convertApiRecipesToLocalRecipes(results) : new ArrayList<>();
+                    if (recipes.isEmpty()) {
+                        throw new Exception("No recipe details found");
+                    }
+                    localStore.saveRecipes(recipes);
+                    return recipes.get(0);
+                }));
+    }
+
+    /**
+     * Resolves a recipe ID handed over by another screen: from memory, then
+     * the local cache, then Firestore for the user's own recipes and finally
+     * lookup.php for TheMealDB recipes. Found recipes are kept in
+     * {@link RecipeMemoryStore}.
+     *
+     * @param id The recipe ID
+     * @param listener Callback with a single recipe, or an error if none was found
+     */
+    public void loadRecipeById(String id, OnRecipesLoadedListener listener) {
+        RecipeMemoryStore memoryStore = RecipeMemoryStore.getInstance();
+        Recipe inMemory = memoryStore.get(id);
+        if (inMemory != null) {
+            listener.onRecipesLoaded(Collections.singletonList(inMemory));
+            return;
+        }
+        localStore.loadRecipe(id, cached -> {
+            if (!cached.isEmpty() && !RecipeHydrator.isStub(cached.get(0))) {
+                memoryStore.put(cached.get(0));
+                listener.onRecipesLoaded(cached);
+                return;
             }
+            db().collection(RECIPES_COLLECTION).document(id).get()
+                .addOnSuccessListener(document -> {
+                    if (document.exists()) {
+                        Recipe recipe = document.toObject(Recipe.class);
+                        recipe.setId(document.getId());
+                        memoryStore.put(recipe);
+                        listener.onRecipesLoaded(Collections.singletonList(recipe));
+                        return;
+                    }
+                    lookupRecipe(id)
+                        .addOnSuccessListener(recipe -> {
+                            memoryStore.put(recipe);
+                            listener.onRecipesLoaded(Collections.singletonList(recipe));
+                        })
+                        .addOnFailureListener(e -> listener.onError(e.getMessage()));
+                })
+                .addOnFailureListener(e -> listener.onError(e.getMessage()));
         });
     }
 
     /**
-     * Updates the imported flag for a recipe by title.
-     * 
-     * @param title The recipe title
-     * @param imported Whether the recipe was imported
-     * @param listener Callback for the operation
+     * One write of a batched mutation, see {@link #commitBatched(List)}.
      */
-    public void updateRecipeImportedFlagByTitle(String title, boolean imported, OnRecipesLoadedListener listener) {
-        db.collection(RECIPES_COLLECTION)
-            .whereEqualTo("title", title)
-            .get()
-            .addOnSuccessListener(queryDocumentSnapshots -> {
-                List<Recipe> updated = new ArrayList<>();
-                for (DocumentSnapshot document : queryDocumentSnapshots) {
-                    Recipe recipe = document.toObject(Recipe.class);
-                    recipe.setId(document.getId());
-                    recipe.setImportedFromApi(imported);
-                    db.collection(RECIPES_COLLECTION).document(document.getId()).update("importedFromApi", imported);
-                    updated.add(recipe);
-                }
-                if (listener != null) listener.onRecipesLoaded(updated);
-            })
-            .addOnFailureListener(e -> {
-                if (listener != null) listener.onError(e.getMessage());
-            });
+    public interface BatchWrite {
+        void applyTo(WriteBatch batch);
+    }
+
+    /**
+     * Commits related writes in as few round trips as Firestore allows. Up
+     * to {@link #MAX_BATCH_WRITES} writes share one {@link WriteBatch},
+     * which is applied atomically; larger mutations are split into several
+     * batches that are each atomic, but not as a whole.
+     *
+     * @param writes The writes, applied in order within each batch
+     * @return Task that completes once every batch is committed
+     */
+    public Task<Void> commitBatched(List<BatchWrite> writes) {
+        if (writes.isEmpty()) {
+            return Tasks.forResult(null);
+        }
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int start = 0; start < writes.size(); start += MAX_BATCH_WRITES) {
+            WriteBatch batch = db().batch();
+            for (BatchWrite write : writes.subList(start, Math.min(writes.size(), start + MAX_BATCH_WRITES))) {
+                write.applyTo(batch);
+            }
+            commits.add(batch.commit());
+        }
+        Log.d(TAG, "Committing " + writes.size() + " writes in " + commits.size() + " batches");
+        return Tasks.whenAll(commits);
     }
 
     /**
@@ -0,0 +1,202 @@
+package com.example.cookbook.util;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Shrinks a picked photo before upload: decodes it subsampled, applies the
+ * EXIF orientation, scales the longest side down to a maximum dimension and
+ * re-encodes it at a target quality.
+ *
+ * {@link #process(Uri)} blocks and allocates bitmaps, so call it off the main thread.
+ */
+public class ImageProcessor {
+    private static final String TAG = "ImageProcessor";
+    /** Longest side of processed images; enough for full-width display on phones and tablets. */
+    public static final int DEFAULT_MAX_DIMENSION = 1600;
+    public static final int DEFAULT_QUALITY = 80;
+
+    public enum Format {
+        WEBP(".webp"),
+        JPEG(".jpg");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    private final Context context;
+    private final int maxDimension;
+    private final int quality;
+    private final Format format;
+
+    public ImageProcessor(Context context) {
+        this(context, DEFAULT_MAX_DIMENSION, DEFAULT_QUALITY, Format.WEBP);
+    }
+
+    /**
+     * @param context Context used to read the image and reach the cache directory
+     * @param maxDimension Maximum width and height of the output in pixels
+     * @param quality Encoder quality from 0 to 100
+     * @param format Output encoding
+     */
+    public ImageProcessor(Context context, int maxDimension, int quality, Format format) {
+        this.context = context.getApplicationContext();
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+        this.format = format;
+    }
+
+    /**
+     * Processes the image behind a content URI into a new file in the cache
+     * directory. The caller owns the file and should delete it when done.
+     *
+     * @param uri The picked image
+     * @return The processed image file
+     * @throws IOException If the image cannot be read, decoded or written
+     */
+    public File process(Uri uri) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not a decodable image: " + uri);
+        }
+
+        int orientation;
+        try (InputStream in = open(uri)) {
+            orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read EXIF orientation, assuming normal", e);
+            orientation = ExifInterface.ORIENTATION_NORMAL;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, maxDimension);
+        Bitmap decoded;
+        try (InputStream in = open(uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Failed to decode image: " + uri);
+        }
+
+        Bitmap output = transform(decoded, orientation);
+        File file = File.createTempFile("recipe_image_", format.extension, context.getCacheDir());
+        try (OutputStream out = new FileOutputStream(file)) {
+            if (!output.compress(compressFormat(), quality, out)) {
+                throw new IOException("Failed to encode image");
+            }
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        } finally {
+            output.recycle();
+        }
+
+        Log.d(TAG, "Processed " + bounds.outWidth + "x" + bounds.outHeight
+                + " (sample " + options.inSampleSize + ", orientation " + orientation + ") into "
+                + file.length() / 1024 + " KB in " + (SystemClock.elapsedRealtime() - start) + " ms");
+        return file;
+    }
+
+    private InputStream open(Uri uri) throws IOException {
+        InputStream in = context.getContentResolver().openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        return in;
+    }
+
+    /**
+     * Largest power of two that keeps the decoded image at least
+     * maxDimension on its longest side, so the final scale is a downscale.
+     */
+    static int sampleSize(int width, int height, int maxDimension) {
+        int longest = Math.max(width, height);
+        int sampleSize = 1;
+        while (longest / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Applies the EXIF orientation and scales the longest side down to
+     * maxDimension. Recycles the input if a new bitmap was created.
+     */
+    private Bitmap transform(Bitmap source, int orientation) {
+        Matrix matrix = new Matrix();
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        if (longest > maxDimension) {
+            float scale = (float) maxDimension / longest;
+            matrix.postScale(scale, scale);
+        }
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(270);
+                break;
+            default:
+                break;
+        }
+        if (matrix.isIdentity()) {
+            return source;
+        }
+        Bitmap transformed = Bitmap.createBitmap(source, 0, 0,
+                source.getWidth(), source.getHeight(), matrix, true);
+        if (transformed != source) {
+            source.recycle();
+        }
+        return transformed;
+    }
+
+    @SuppressWarnings("deprecation")
+    private Bitmap.CompressFormat compressFormat() {
+        if (format == Format.JPEG) {
+            return Bitmap.CompressFormat.JPEG;
+        }
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+}
@@ -1,69 +1,156 @@
 package com.example.cookbook.util;
 
-import android.util.Log;
+import androidx.annotation.NonNull;
 
 import com.example.cookbook.BuildConfig;
 
 import java.io.File;
 import java.io.IOException;
 
+import okhttp3.Call;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Sink;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 public class ImgBBUploadManager {
-    private static final String TAG = "ImgBBUploadManager";
     private static final String IMGBB_API_URL = "https://api.imgbb.com/1/upload";
     private static final OkHttpClient client = new OkHttpClient();
 
-    public interface UploadCallback {
-        void onSuccess(String imageUrl);
-        void onError(String error);
+    public interface ProgressListener {
+        /**
+         * Called on the uploading thread as the image body is written.
+         */
+        void onProgress(long bytesWritten, long totalBytes);
     }
 
-    public static void uploadImage(final File imageFile, final UploadCallback callback) {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    RequestBody requestBody = new MultipartBody.Builder()
-                        .setType(MultipartBody.FORM)
-                        .addFormDataPart("image", imageFile.getName(),
-                            RequestBody.create(MediaType.parse("image/*"), imageFile))
-                        .addFormDataPart("key", BuildConfig.IMGBB_API_KEY)
-                        .build();
-
-                    Request request = new Request.Builder()
-                        .url(IMGBB_API_URL)
-                        .post(requestBody)
-                        .build();
-
-                    try (Response response = client.newCall(request).execute()) {
-                        if (!response.isSuccessful()) {
-                            callback.onError("Upload failed: " + response.code());
-                            return;
-                        }
-
-                        String responseBody = response.body().string();
-                        JSONObject json = new JSONObject(responseBody);
-                        
-                        if (json.getBoolean("success")) {
-                            String imageUrl = json.getJSONObject("data")
-                                .getString("url");
-                            callback.onSuccess(imageUrl);
-                        } else {
-                            callback.onError("Upload failed: " + json.getString("error"));
-                        }
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error uploading image", e);
-                    callback.onError(e.getMessage());
-                }
+    /**
+     * Upload failure. Retryable failures are network errors, 5xx and 429;
+     * anything else will fail again the same way.
+     */
+    public static class UploadException extends IOException {
+        private final boolean retryable;
+
+        UploadException(String message, boolean retryable) {
+            super(message);
+            this.retryable = retryable;
+        }
+
+        UploadException(String message, Throwable cause) {
+            super(message, cause);
+            this.retryable = true;
+        }
+
+        public boolean isRetryable() {
+            return retryable;
+        }
+    }
+
+    /**
+     * Creates the upload call without starting it, so the caller can run it
+     * on its own thread with {@link #execute(Call)} and cancel it. Uploads go
+     * through {@link UploadQueue}.
+     *
+     * @param imageFile The image to upload
+     * @param progressListener Optional progress listener
+     */
+    public static Call newUploadCall(File imageFile, ProgressListener progressListener) {
+        RequestBody imageBody = RequestBody.create(MediaType.parse("image/*"), imageFile);
+        if (progressListener != null) {
+            imageBody = new ProgressRequestBody(imageBody, progressListener);
+        }
+        RequestBody requestBody = new MultipartBody.Builder()
+            .setType(MultipartBody.FORM)
+            .addFormDataPart("image", imageFile.getName(), imageBody)
+            .addFormDataPart("key", BuildConfig.IMGBB_API_KEY)
+            .build();
+
+        Request request = new Request.Builder()
+            .url(IMGBB_API_URL)
+            .post(requestBody)
+            .build();
+        return client.newCall(request);
+    }
+
+    /**
+     * Runs an upload call on the current thread.
+     *
+     * @return The URL of the uploaded image
+     * @throws UploadException If the upload failed or was cancelled
+     */
+    public static String execute(Call call) throws UploadException {
+        try (Response response = call.execute()) {
+            return parseResponse(response);
+        } catch (UploadException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UploadException("Upload failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static String parseResponse(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            int code = response.code();
+            throw new UploadException("Upload failed: " + code, code >= 500 || code == 429);
+        }
+        try {
+            JSONObject json = new JSONObject(response.body().string());
+            if (json.getBoolean("success")) {
+                return json.getJSONObject("data").getString("url");
             }
-        }).start();
+            throw new UploadException("Upload failed: " + json.optString("error"), false);
+        } catch (JSONException e) {
+            throw new UploadException("Unexpected upload response: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Reports how much of the wrapped body has been written to the socket.
+     */
+    private static class ProgressRequestBody extends RequestBody {
+        private final RequestBody delegate;
+        private final ProgressListener listener;
+
+        ProgressRequestBody(RequestBody delegate, ProgressListener listener) {
+            this.delegate = delegate;
+            this.listener = listener;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(@NonNull BufferedSink sink) throws IOException {
+            final long total = contentLength();
+            Sink counting = new ForwardingSink(sink) {
+                private long written = 0;
+
+                @Override
+                public void write(@NonNull Buffer source, long byteCount) throws IOException {
+                    super.write(source, byteCount);
+                    written += byteCount;
+                    listener.onProgress(written, total);
+                }
+            };
+            BufferedSink buffered = Okio.buffer(counting);
+            delegate.writeTo(buffered);
+            buffered.flush();
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.example.cookbook.util;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Asks for the next page once the user scrolls within a few rows of the end
+ * of a list laid out by a {@link LinearLayoutManager}.
+ */
+public class LoadMoreScrollListener extends RecyclerView.OnScrollListener {
+    private final LinearLayoutManager layoutManager;
+    private final int prefetchDistance;
+    private final Runnable loadMore;
+
+    /**
+     * @param layoutManager The layout manager of the observed list
+     * @param prefetchDistance How many rows before the end to start loading
+     * @param loadMore Called when more rows are needed; should ignore calls while a page is loading
+     */
+    public LoadMoreScrollListener(LinearLayoutManager layoutManager, int prefetchDistance, Runnable loadMore) {
+        this.layoutManager = layoutManager;
+        this.prefetchDistance = prefetchDistance;
+        this.loadMore = loadMore;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy > 0) {
+            check(recyclerView);
+        }
+    }
+
+    /**
+     * Loads more right away if the end of the list is already in reach, e.g.
+     * when a page filtered down to too few rows to fill the screen.
+     */
+    public void check(@NonNull RecyclerView recyclerView) {
+        int itemCount = layoutManager.getItemCount();
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (!recyclerView.canScrollVertically(1) || lastVisible >= itemCount - 1 - prefetchDistance) {
+            loadMore.run();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.cookbook.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.cookbook.CookBookApplication;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies one-off fixes to the signed-in user's Firestore data.
+ *
+ * A migration's version is its position in {@link #MIGRATIONS} plus one,
+ * and the user document records the highest version applied in
+ * {@code migrationVersion}. Pending migrations run one after the other on a
+ * background thread, each committing its writes through
+ * {@link FirebaseManager#commitBatched(List)}. The version is also kept on
+ * the device, so a user who is up to date costs no Firestore reads.
+ *
+ * A migration that was interrupted after its writes runs again, so
+ * migrations must only queue writes for documents that still need them.
+ */
+public class MigrationRunner {
+    private static final String TAG = "MigrationRunner";
+    private static final String PREFS_NAME = "migrations";
+    private static final String KEY_VERSION_PREFIX = "version_";
+    private static final String FIELD_VERSION = "migrationVersion";
+    // Firestore keeps writes queued offline; try again on the next start
+    private static final long TIMEOUT_S = 30;
+    private static MigrationRunner instance;
+
+    /**
+     * A one-off change to a user's data.
+     */
+    public interface Migration {
+        /**
+         * Queues the writes that migrate one user. Runs on a background
+         * thread, so reads may block with {@link Tasks#await}.
+         *
+         * @param db The Firestore instance
+         * @param userId The user to migrate
+         * @param writes Receives the writes to commit
+         */
+        void collect(FirebaseFirestore db, String userId, List<FirebaseManager.BatchWrite> writes) throws Exception;
+    }
+
+    // Append only: never reorder or remove a migration once released
+    private static final List<Migration> MIGRATIONS = Collections.singletonList(
+            // 1: Pierogi was saved from TheMealDB before imported recipes were flagged
+            (db, userId, writes) -> markImported(db, userId, "Pierogi (Polish Dumplings)", writes)
+    );
+
+    private final FirebaseManager firebaseManager;
+    private final AppExecutors executors;
+    // Users whose migrations have been started since the last logout
+    private final Set<String> startedUsers = new HashSet<>();
+
+    private MigrationRunner() {
+        firebaseManager = FirebaseManager.getInstance();
+        executors = AppExecutors.getInstance();
+    }
+
+    public static synchronized MigrationRunner getInstance() {
+        if (instance == null) {
+            instance = new MigrationRunner();
+        }
+        return instance;
+    }
+
+    /**
+     * Runs the migrations the signed-in user has not had yet, at most once
+     * per user until {@link #reset()}. Call once the first frame is drawn.
+     */
+    public synchronized void runPending() {
+        String userId = firebaseManager.getCurrentUserId();
+        if (userId == null || !startedUsers.add(userId)) {
+            return;
+        }
+        executors.networkIO().execute(() -> run(userId));
+    }
+
+    /**
+     * Forgets which users have been migrated in this process, so the next
+     * user to sign in is checked again. Call on logout.
+     */
+    public synchronized void reset() {
+        startedUsers.clear();
+    }
+
+    /** Runs on a background thread. */
+    private void run(String userId) {
+        int latest = MIGRATIONS.size();
+        String key = KEY_VERSION_PREFIX + userId;
+        SharedPreferences preferences = getPreferences();
+        if (preferences.getInt(key, 0) >= latest) {
+            return;
+        }
+        try {
+            FirebaseFirestore db = FirebaseFirestore.getInstance();
+            DocumentReference userDocument = db.collection(FirebaseManager.USERS_COLLECTION).document(userId);
+            Long applied = Tasks.await(userDocument.get(), TIMEOUT_S, TimeUnit.SECONDS).getLong(FIELD_VERSION);
+            int version = applied != null ? applied.intValue() : 0;
+            for (; version < latest; version++) {
+                List<FirebaseManager.BatchWrite> writes = new ArrayList<>();
+                MIGRATIONS.get(version).collect(db, userId, writes);
+                Tasks.await(firebaseManager.commitBatched(writes), TIMEOUT_S, TimeUnit.SECONDS);
+                Log.d(TAG, "Applied migration " + (version + 1) + " with " + writes.size() + " writes");
+            }
+            if (applied == null || applied < latest) {
+                Tasks.await(userDocument.set(Collections.singletonMap(FIELD_VERSION, latest), SetOptions.merge()),
+                        TIMEOUT_S, TimeUnit.SECONDS);
+            }
+            preferences.edit().putInt(key, latest).apply();
+        } catch (Exception e) {
+            Log.w(TAG, "Migrations stopped, retrying on next start", e);
+        }
+    }
+
+    /**
+     * Queues writes that set importedFromApi on the user's recipes with the
+     * given title that do not have it yet.
+     */
+    private static void markImported(FirebaseFirestore db, String userId, String title,
+                                     List<FirebaseManager.BatchWrite> writes) throws Exception {
+        QuerySnapshot snapshot = Tasks.await(db.collection(FirebaseManager.RECIPES_COLLECTION)
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("title", title)
+                .get(), TIMEOUT_S, TimeUnit.SECONDS);
+        for (DocumentSnapshot document : snapshot) {
+            if (!Boolean.TRUE.equals(document.getBoolean("importedFromApi"))) {
+                DocumentReference reference = document.getReference();
+                writes.add(batch -> batch.update(reference, "importedFromApi", true));
+            }
+        }
+    }
+
+    private SharedPreferences getPreferences() {
+        return CookBookApplication.getInstance().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,429 @@
+package com.example.cookbook.util;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.cookbook.CookBookApplication;
+import com.example.cookbook.db.LocalRecipeStore;
+import com.example.cookbook.model.Ingredient;
+import com.example.cookbook.model.Recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranks cached recipes by how well the user's pantry covers them.
+ *
+ * Every cached recipe, the user's own and hydrated TheMealDB records alike,
+ * is encoded once as a bitset over a dictionary of normalized ingredient
+ * names. Scoring a recipe against a pantry is then a popcount over the
+ * handful of words the pantry touches, and the best K are kept in a bounded
+ * heap of packed long keys, so ranking allocates nothing per recipe.
+ *
+ * The index is rebuilt only when the local cache has been written to since
+ * it was built, so editing the pantry and ranking again skips the load.
+ */
+public class PantryMatcher {
+    private static final String TAG = "PantryMatcher";
+    private static PantryMatcher instance;
+
+    // Assumed to be in every kitchen; left out of coverage entirely
+    private static final Set<String> STAPLES = new HashSet<>(Arrays.asList(
+            "water", "salt", "pepper", "black pepper", "sea salt", "ice"));
+    // Preparation words that do not change what the ingredient is
+    private static final Set<String> DESCRIPTORS = new HashSet<>(Arrays.asList(
+            "fresh", "freshly", "chopped", "diced", "sliced", "minced", "grated", "crushed", "ground",
+            "dried", "frozen", "canned", "tinned", "large", "medium", "small", "whole", "raw", "cooked",
+            "boneless", "skinless", "finely", "roughly", "organic", "free", "range", "of", "to", "taste"));
+
+    private final LocalRecipeStore localStore;
+    private final AppExecutors executors;
+    private Index index;
+
+    public interface OnPantryMatchesListener {
+        void onPantryMatches(List<Match> matches);
+    }
+
+    /**
+     * A recipe and how well the pantry covers it.
+     */
+    public static class Match {
+        private final Recipe recipe;
+        private final int matched;
+        private final int total;
+        private final List<String> missing;
+
+        Match(Recipe recipe, int matched, int total, List<String> missing) {
+            this.recipe = recipe;
+            this.matched = matched;
+            this.total = total;
+            this.missing = missing;
+        }
+
+        public Recipe getRecipe() { return recipe; }
+        /** Ingredients the pantry has, staples not counted. */
+        public int getMatchedCount() { return matched; }
+        /** Ingredients of the recipe, staples not counted. */
+        public int getTotalCount() { return total; }
+        public int getMissingCount() { return total - matched; }
+        /** Names of the missing ingredients as the recipe lists them. */
+        public List<String> getMissing() { return missing; }
+    }
+
+    private PantryMatcher() {
+        localStore = LocalRecipeStore.getInstance(CookBookApplication.getInstance());
+        executors = AppExecutors.getInstance();
+    }
+
+    public static synchronized PantryMatcher getInstance() {
+        if (instance == null) {
+            instance = new PantryMatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Finds the cached recipes the pantry covers best: fewest missing
+     * ingredients first, then highest coverage. Recipes sharing nothing with
+     * the pantry are left out. Call from the main thread; the listener is
+     * called on the main thread.
+     *
+     * @param userId The current user, whose recipes are ranked with the cached API recipes
+     * @param pantry Ingredient names as the user entered them
+     * @param limit Number of recipes to return at most
+     * @param listener Receives the ranked matches
+     */
+    public void findCookable(String userId, Collection<String> pantry, int limit, OnPantryMatchesListener listener) {
+        List<String> pantryItems = new ArrayList<>(pantry);
+        Index current = index;
+        if (current != null && current.version == localStore.getVersion() && current.isFor(userId)) {
+            executors.computation().execute(() -> deliver(current.rank(pantryItems, limit), listener));
+            return;
+        }
+        long version = localStore.getVersion();
+        localStore.loadPantryCandidates(userId, candidates -> executors.computation().execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            Index built = Index.build(userId, version, candidates);
+            Log.d(TAG, "Indexed " + built.recipes.size() + " recipes over " + built.terms.length
+                    + " ingredients in " + (SystemClock.elapsedRealtime() - start) + " ms");
+            executors.mainThread().execute(() -> index = built);
+            deliver(built.rank(pantryItems, limit), listener);
+        }));
+    }
+
+    private void deliver(List<Match> matches, OnPantryMatchesListener listener) {
+        executors.mainThread().execute(() -> listener.onPantryMatches(matches));
+    }
+
+    /**
+     * Normalizes an ingredient name for the dictionary: lower case, letters
+     * only, preparation words dropped and each word made singular, so
+     * "Chopped Tomatoes" and "tomato" meet. Returns "" if nothing is left.
+     */
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(name.length());
+        StringBuilder word = new StringBuilder();
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (c >= 'a' && c <= 'z') {
+                word.append(c);
+                continue;
+            }
+            if (word.length() > 0) {
+                String w = word.toString();
+                if (!DESCRIPTORS.contains(w)) {
+                    if (result.length() > 0) {
+                        result.append(' ');
+                    }
+                    result.append(singular(w));
+                }
+                word.setLength(0);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String singular(String word) {
+        int length = word.length();
+        if (length > 4 && word.endsWith("ies")) {
+            return word.substring(0, length - 3) + "y";
+        } else if (length > 4 && word.endsWith("oes")) {
+            return word.substring(0, length - 2);
+        } else if (length > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+
+    /**
+     * True if a normalized pantry item contains a normalized recipe term as
+     * whole words: "chicken breast" covers "chicken", but "chicken" does not
+     * cover "chicken stock", nor "oil" "sesame oil".
+     */
+    static boolean covers(String pantryItem, String term) {
+        return containsWords(pantryItem, term);
+    }
+
+    private static boolean containsWords(String text, String words) {
+        int from = 0;
+        while (true) {
+            int at = text.indexOf(words, from);
+            if (at < 0) {
+                return false;
+            }
+            int end = at + words.length();
+            if ((at == 0 || text.charAt(at - 1) == ' ') && (end == text.length() || text.charAt(end) == ' ')) {
+                return true;
+            }
+            from = at + 1;
+        }
+    }
+
+    /**
+     * Bitset encoding of a set of recipes. Immutable once built.
+     */
+    static final class Index {
+        private static final int MAX_COUNT = 0xff;
+        private static final int PERMILLE = 1000;
+        private static final long RECIPE_MASK = (1L << 36) - 1;
+
+        final String userId;
+        final long version;
+        final List<Recipe> recipes;
+        // Dictionary: normalized ingredient name -> bit number, and back
+        final Map<String, Integer> dictionary;
+        final String[] terms;
+        final int words;
+        // recipes.size() * words longs; recipe r owns [r * words, (r + 1) * words)
+        final long[] bits;
+        // Distinct non-staple ingredients per recipe
+        final int[] sizes;
+
+        private Index(String userId, long version, List<Recipe> recipes, Map<String, Integer> dictionary,
+                      String[] terms, int words, long[] bits, int[] sizes) {
+            this.userId = userId;
+            this.version = version;
+            this.recipes = recipes;
+            this.dictionary = dictionary;
+            this.terms = terms;
+            this.words = words;
+            this.bits = bits;
+            this.sizes = sizes;
+        }
+
+        boolean isFor(String otherUserId) {
+            return userId == null ? otherUserId == null : userId.equals(otherUserId);
+        }
+
+        static Index build(String userId, long version, List<Recipe> candidates) {
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<Recipe> recipes = new ArrayList<>(candidates.size());
+            List<int[]> encoded = new ArrayList<>(candidates.size());
+            Set<String> seenIds = new HashSet<>();
+            for (Recipe recipe : candidates) {
+                if (RecipeHydrator.isStub(recipe) || (recipe.getId() != null && !seenIds.add(recipe.getId()))) {
+                    continue;
+                }
+                int[] ids = encode(recipe, dictionary);
+                if (ids.length > 0) {
+                    recipes.add(recipe);
+                    encoded.add(ids);
+                }
+            }
+            String[] terms = new String[dictionary.size()];
+            for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+                terms[entry.getValue()] = entry.getKey();
+            }
+            int words = Math.max(1, (terms.length + 63) >>> 6);
+            long[] bits = new long[recipes.size() * words];
+            int[] sizes = new int[recipes.size()];
+            for (int r = 0; r < recipes.size(); r++) {
+                int base = r * words;
+                for (int id : encoded.get(r)) {
+                    long mask = 1L << id;
+                    if ((bits[base + (id >>> 6)] & mask) == 0) {
+                        bits[base + (id >>> 6)] |= mask;
+                        sizes[r]++;
+                    }
+                }
+            }
+            return new Index(userId, version, recipes, dictionary, terms, words, bits, sizes);
+        }
+
+        private static int[] encode(Recipe recipe, Map<String, Integer> dictionary) {
+            List<Ingredient> ingredients = recipe.getIngredients();
+            if (ingredients == null) {
+                return new int[0];
+            }
+            int[] ids = new int[ingredients.size()];
+            int count = 0;
+            for (Ingredient ingredient : ingredients) {
+                String term = ingredient != null ? normalize(ingredient.getName()) : "";
+                if (term.isEmpty() || STAPLES.contains(term)) {
+                    continue;
+                }
+                Integer id = dictionary.get(term);
+                if (id == null) {
+                    id = dictionary.size();
+                    dictionary.put(term, id);
+                }
+                ids[count++] = id;
+            }
+            return count == ids.length ? ids : Arrays.copyOf(ids, count);
+        }
+
+        /**
+         * Encodes a pantry as a bitset: every dictionary entry an item covers is set.
+         */
+        long[] encodePantry(Collection<String> pantry) {
+            long[] pantryBits = new long[words];
+            List<String> items = new ArrayList<>();
+            for (String item : pantry) {
+                String normalized = normalize(item);
+                if (!normalized.isEmpty()) {
+                    items.add(normalized);
+                }
+            }
+            for (int id = 0; id < terms.length; id++) {
+                for (String item : items) {
+                    if (covers(item, terms[id])) {
+                        pantryBits[id >>> 6] |= 1L << id;
+                        break;
+                    }
+                }
+            }
+            return pantryBits;
+        }
+
+        List<Match> rank(Collection<String> pantry, int limit) {
+            long start = SystemClock.elapsedRealtime();
+            long[] pantryBits = encodePantry(pantry);
+            // Only words the pantry touches can contribute to a popcount
+            int[] touched = new int[words];
+            int touchedCount = 0;
+            for (int w = 0; w < words; w++) {
+                if (pantryBits[w] != 0) {
+                    touched[touchedCount++] = w;
+                }
+            }
+            if (touchedCount == 0 || limit <= 0) {
+                return new ArrayList<>();
+            }
+
+            // Max-heap of the best keys so far; the worst kept match is on top
+            long[] heap = new long[limit];
+            int heapSize = 0;
+            for (int r = 0; r < sizes.length; r++) {
+                int base = r * words;
+                int matched = 0;
+                for (int t = 0; t < touchedCount; t++) {
+                    int w = touched[t];
+                    matched += Long.bitCount(bits[base + w] & pantryBits[w]);
+                }
+                if (matched == 0) {
+                    continue;
+                }
+                long key = key(r, matched, sizes[r]);
+                if (heapSize < limit) {
+                    heap[heapSize] = key;
+                    siftUp(heap, heapSize++);
+                } else if (key < heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, heapSize);
+                }
+            }
+
+            long[] best = Arrays.copyOf(heap, heapSize);
+            Arrays.sort(best);
+            List<Match> matches = new ArrayList<>(best.length);
+            for (long key : best) {
+                int r = (int) (key & RECIPE_MASK);
+                matches.add(toMatch(r, pantryBits));
+            }
+            Log.d(TAG, "Ranked " + sizes.length + " recipes against " + pantry.size() + " pantry items in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+            return matches;
+        }
+
+        /**
+         * Packs a ranking into one long, smaller is better: missing count,
+         * then uncovered share in per mille, then fewer matches, then
+         * position in the cache for a stable order.
+         */
+        private static long key(int recipe, int matched, int total) {
+            long missing = Math.min(total - matched, MAX_COUNT);
+            long uncovered = PERMILLE - (long) matched * PERMILLE / total;
+            long unmatched = MAX_COUNT - Math.min(matched, MAX_COUNT);
+            return missing << 54 | uncovered << 44 | unmatched << 36 | recipe;
+        }
+
+        private Match toMatch(int r, long[] pantryBits) {
+            Recipe recipe = recipes.get(r);
+            int base = r * words;
+            int matched = 0;
+            for (int w = 0; w < words; w++) {
+                matched += Long.bitCount(bits[base + w] & pantryBits[w]);
+            }
+            List<String> missing = new ArrayList<>();
+            Set<String> listed = new HashSet<>();
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                String term = ingredient != null ? normalize(ingredient.getName()) : "";
+                if (term.isEmpty() || STAPLES.contains(term) || !listed.add(term)) {
+                    continue;
+                }
+                Integer id = dictionary.get(term);
+                if (id != null && (pantryBits[id >>> 6] & (1L << id)) == 0) {
+                    missing.add(ingredient.getName());
+                }
+            }
+            return new Match(recipe, matched, sizes[r], missing);
+        }
+
+        private static void siftUp(long[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] >= heap[i]) {
+                    return;
+                }
+                swap(heap, parent, i);
+                i = parent;
+            }
+        }
+
+        private static void siftDown(long[] heap, int size) {
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                int largest = i;
+                if (left < size && heap[left] > heap[largest]) {
+                    largest = left;
+                }
+                if (left + 1 < size && heap[left + 1] > heap[largest]) {
+                    largest = left + 1;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(heap, i, largest);
+                i = largest;
+            }
+        }
+
+        private static void swap(long[] heap, int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.cookbook.util;
+
+import android.util.Log;
+import android.util.LruCache;
+
+import com.example.cookbook.core.util.RecipeSearch;
+import com.example.cookbook.CookBookApplication;
+import com.example.cookbook.db.LocalRecipeStore;
+import com.example.cookbook.model.Recipe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fills in TheMealDB stubs with their full records.
+ *
+ * filter.php only returns ids, titles and thumbnails. Rows showing such a
+ * stub ask for it to be hydrated; the full record is looked up in memory,
+ * then in the Room cache, and only then fetched from lookup.php. At most
+ * {@link #MAX_CONCURRENT_LOOKUPS} lookups run at once; the most recently
+ * requested ids go first, and ids that fall too far behind are dropped, so
+ * fast scrolling does not build a backlog of rows nobody is looking at.
+ *
+ * Call from the main thread only. Listeners are called on the main thread.
+ */
+public class RecipeHydrator {
+    private static final String TAG = "RecipeHydrator";
+    // Shared with FirebaseManager's dietary filter, so neither floods lookup.php
+    static final int MAX_CONCURRENT_LOOKUPS = 4;
+    private static final int MAX_QUEUED_LOOKUPS = 30;
+    private static final int MEMORY_CACHE_SIZE = 200;
+    private static RecipeHydrator instance;
+
+    private final FirebaseManager firebaseManager;
+    private final LocalRecipeStore localStore;
+    private final AppExecutors executors;
+    private final LruCache<String, Recipe> memoryCache = new LruCache<>(MEMORY_CACHE_SIZE);
+    // Ids waiting for the batched Room lookup, queued for lookup.php or in flight
+    private final Set<String> pending = new HashSet<>();
+    private final List<String> cacheBatch = new ArrayList<>();
+    private final Deque<String> queue = new ArrayDeque<>();
+    private final List<OnRecipeHydratedListener> listeners = new ArrayList<>();
+    private int activeLookups = 0;
+
+    public interface OnRecipeHydratedListener {
+        void onRecipeHydrated(Recipe recipe);
+    }
+
+    private RecipeHydrator() {
+        firebaseManager = FirebaseManager.getInstance();
+        localStore = LocalRecipeStore.getInstance(CookBookApplication.getInstance());
+        executors = AppExecutors.getInstance();
+    }
+
+    public static synchronized RecipeHydrator getInstance() {
+        if (instance == null) {
+            instance = new RecipeHydrator();
+        }
+        return instance;
+    }
+
+    /**
+     * True if the recipe is an API result without its ingredients and
+     * instructions, i.e. a filter.php stub. See {@link RecipeSearch#isStub}.
+     */
+    public static boolean isStub(Recipe recipe) {
+        return RecipeSearch.isStub(recipe);
+    }
+
+    public void addListener(OnRecipeHydratedListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(OnRecipeHydratedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the full record for an id if it is in memory, or null.
+     */
+    public Recipe getCached(String recipeId) {
+        return recipeId != null ? memoryCache.get(recipeId) : null;
+    }
+
+    /**
+     * Hydrates the given recipe ids. Ids already in memory are delivered to
+     * the listeners right away; the rest are looked up in one Room query and
+     * whatever is missing there is fetched from lookup.php.
+     *
+     * @param recipeIds Ids of stubs that are visible or about to be
+     */
+    public void request(Collection<String> recipeIds) {
+        boolean scheduleBatch = cacheBatch.isEmpty();
+        for (String id : recipeIds) {
+            if (id == null) {
+                continue;
+            }
+            Recipe cached = memoryCache.get(id);
+            if (cached != null) {
+                notifyHydrated(cached);
+            } else if (queue.remove(id)) {
+                // Requested again: move it to the front
+                queue.addFirst(id);
+            } else if (pending.add(id)) {
+                cacheBatch.add(id);
+            }
+        }
+        if (scheduleBatch && !cacheBatch.isEmpty()) {
+            // Binds of one layout pass arrive back to back; look them up together
+            executors.mainThread().execute(this::lookUpCachedBatch);
+        }
+        pump();
+    }
+
+    private void lookUpCachedBatch() {
+        List<String> batch = new ArrayList<>(cacheBatch);
+        cacheBatch.clear();
+        localStore.loadRecipes(batch, cached -> {
+            Set<String> missing = new HashSet<>(batch);
+            for (Recipe recipe : cached) {
+                if (!isStub(recipe)) {
+                    missing.remove(recipe.getId());
+                    pending.remove(recipe.getId());
+                    memoryCache.put(recipe.getId(), recipe);
+                    notifyHydrated(recipe);
+                }
+            }
+            Log.d(TAG, "Room had " + (batch.size() - missing.size()) + " of " + batch.size() + " recipes");
+            for (String id : batch) {
+                if (missing.contains(id)) {
+                    queue.addFirst(id);
+                }
+            }
+            while (queue.size() > MAX_QUEUED_LOOKUPS) {
+                pending.remove(queue.removeLast());
+            }
+            pump();
+        });
+    }
+
+    private void pump() {
+        while (activeLookups < MAX_CONCURRENT_LOOKUPS && !queue.isEmpty()) {
+            fetch(queue.removeFirst());
+        }
+    }
+
+    private void fetch(String recipeId) {
+        activeLookups++;
+        // Shares the request with a tap on the same row, and saves the record to Room
+        firebaseManager.lookupRecipe(recipeId).addOnCompleteListener(task -> {
+            activeLookups--;
+            pending.remove(recipeId);
+            if (task.isSuccessful()) {
+                Recipe recipe = task.getResult();
+                memoryCache.put(recipeId, recipe);
+                notifyHydrated(recipe);
+            } else {
+                Log.w(TAG, "lookup.php failed for " + recipeId + ": "
+                        + (task.getException() != null ? task.getException().getMessage() : "unknown error"));
+            }
+            pump();
+        });
+    }
+
+    private void notifyHydrated(Recipe recipe) {
+        for (OnRecipeHydratedListener listener : new ArrayList<>(listeners)) {
+            listener.onRecipeHydrated(recipe);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.cookbook.util;
+
+import android.util.LruCache;
+
+import com.example.cookbook.model.Recipe;
+
+/**
+ * In-process store of recently opened recipes, so screens can hand each
+ * other a recipe ID instead of the recipe itself. Intents stay a few bytes
+ * and nothing is serialized on the way.
+ *
+ * The store does not survive process death; a screen that cannot find its
+ * recipe here resolves the ID through
+ * {@link FirebaseManager#loadRecipeById(String, FirebaseManager.OnRecipesLoadedListener)}.
+ */
+public class RecipeMemoryStore {
+    private static final int MAX_RECIPES = 50;
+    private static RecipeMemoryStore instance;
+
+    private final LruCache<String, Recipe> recipes = new LruCache<>(MAX_RECIPES);
+
+    private RecipeMemoryStore() {
+    }
+
+    public static synchronized RecipeMemoryStore getInstance() {
+        if (instance == null) {
+            instance = new RecipeMemoryStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Stores a recipe under its ID. Recipes without an ID are ignored.
+     */
+    public void put(Recipe recipe) {
+        if (recipe != null && recipe.getId() != null) {
+            recipes.put(recipe.getId(), recipe);
+        }
+    }
+
+    /**
+     * Returns the stored recipe, or null if it is not in memory.
+     */
+    public Recipe get(String recipeId) {
+        return recipeId != null ? recipes.get(recipeId) : null;
+    }
+
+    public void remove(String recipeId) {
+        if (recipeId != null) {
+            recipes.remove(recipeId);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.cookbook.util;
+
+import android.util.Log;
+
+import com.example.cookbook.model.Recipe;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads a Firestore recipe query one page at a time, newest first, using a
+ * {@code startAfter} cursor on the last document of the previous page.
+ *
+ * Every loaded page keeps its own snapshot listener, so loading a page
+ * reads only that page, and edits, deletions and favorite toggles show up
+ * whichever page the recipe is on. Snapshots are deserialized on a
+ * background executor, only for the documents they change, and applied on
+ * the main thread.
+ *
+ * A page listens with a limit until a recipe enters or leaves it while a
+ * later page is loaded. It is then re-registered as the fixed range
+ * between its cursor and the next page's, so a recipe pushed over the
+ * boundary is not lost between the two. Call from the main thread only.
+ *
+ * A page whose listener fails stops loading and is listened to again on
+ * the next {@link #loadNextPage()}.
+ */
+public class RecipePager {
+    private static final String TAG = "RecipePager";
+
+    private final Query query;
+    private final int pageSize;
+    private final Listener listener;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final List<Page> pages = new ArrayList<>();
+
+    /**
+     * Receives every change to the loaded pages on the main thread.
+     */
+    public interface Listener {
+        /**
+         * @param changed Recipes added or modified by the change
+         * @param fromServer Whether the change came from the server rather than the local cache
+         */
+        void onPagesChanged(List<Recipe> changed, boolean fromServer);
+
+        void onError(String error);
+    }
+
+    /**
+     * @param query Base query without ordering or limit
+     * @param pageSize Number of documents per page
+     * @param listener Receives page changes
+     */
+    public RecipePager(Query query, int pageSize, Listener listener) {
+        this.query = query.orderBy("createdAt", Query.Direction.DESCENDING);
+        this.pageSize = pageSize;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts listening to the next page. If a page's listener has failed it
+     * is listened to again instead. Does nothing if a page is still loading
+     * or the last page has been reached.
+     */
+    public void loadNextPage() {
+        if (retryFailedPages()) {
+            return;
+        }
+        if (isLoading() || !hasMore()) {
+            return;
+        }
+        Page last = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+        Page page = new Page(last != null ? last.lastDocument : null);
+        pages.add(page);
+        listen(page, pageQuery(page).limit(pageSize));
+    }
+
+    /**
+     * Removes every listener and forgets every page, so the next call starts
+     * from the newest recipe again.
+     */
+    public void reset() {
+        for (Page page : pages) {
+            page.registration.remove();
+        }
+        pages.clear();
+    }
+
+    /**
+     * True while the last page waits for its first snapshot.
+     */
+    public boolean isLoading() {
+        if (pages.isEmpty()) {
+            return false;
+        }
+        Page last = pages.get(pages.size() - 1);
+        return !last.loaded && !last.failed;
+    }
+
+    public boolean hasMore() {
+        if (pages.isEmpty()) {
+            return true;
+        }
+        Page last = pages.get(pages.size() - 1);
+        return !last.loaded || last.size >= pageSize;
+    }
+
+    /**
+     * True once the first page has arrived.
+     */
+    public boolean isLoaded() {
+        return !pages.isEmpty() && pages.get(0).loaded;
+    }
+
+    /**
+     * Returns the recipes of every loaded page in order. A recipe a page
+     * picked up from the next one is listed once.
+     */
+    public List<Recipe> getLoadedRecipes() {
+        List<Recipe> loaded = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (Page page : pages) {
+            for (Recipe recipe : page.recipes) {
+                if (recipe.getId() == null || ids.add(recipe.getId())) {
+                    loaded.add(recipe);
+                }
+            }
+        }
+        return Collections.unmodifiableList(loaded);
+    }
+
+    private Query pageQuery(Page page) {
+        return page.startAfter != null ? query.startAfter(page.startAfter) : query;
+    }
+
+    /**
+     * Listens again to every page whose listener failed.
+     *
+     * @return Whether any page was retried
+     */
+    private boolean retryFailedPages() {
+        boolean retried = false;
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            if (!page.failed) {
+                continue;
+            }
+            Log.d(TAG, "Retrying page " + i);
+            page.failed = false;
+            page.registration.remove();
+            if (page.pinned) {
+                listen(page, pageQuery(page).endAt(pages.get(i + 1).startAfter));
+            } else {
+                listen(page, pageQuery(page).limit(pageSize));
+            }
+            retried = true;
+        }
+        return retried;
+    }
+
+    private void listen(Page page, Query pageQuery) {
+        final int listenGeneration = ++page.generation;
+        page.replaying = true;
+        // Metadata changes too, so the snapshot confirming cached results with the server is delivered
+        page.registration = pageQuery.addSnapshotListener(executors.computation(), MetadataChanges.INCLUDE, (snapshot, e) -> {
+            if (e != null) {
+                executors.mainThread().execute(() -> {
+                    if (isCurrent(page, listenGeneration)) {
+                        Log.e(TAG, "Page listener failed", e);
+                        // Firestore ends a listener after an error; the page waits for a retry
+                        page.failed = true;
+                        listener.onError(e.getMessage());
+                    }
+                });
+                return;
+            }
+            if (snapshot == null) {
+                return;
+            }
+            // Deserialize here, off the main thread
+            PageUpdate update = new PageUpdate(snapshot);
+            executors.mainThread().execute(() -> {
+                if (isCurrent(page, listenGeneration)) {
+                    apply(page, update);
+                }
+            });
+        });
+    }
+
+    private boolean isCurrent(Page page, int listenGeneration) {
+        return page.generation == listenGeneration && pages.contains(page);
+    }
+
+    private void apply(Page page, PageUpdate update) {
+        boolean firstFromServer = !update.fromCache && !page.synced;
+        if (!page.replaying && update.changes.isEmpty() && !firstFromServer) {
+            // Only the metadata changed, and the page has already been confirmed by the server
+            return;
+        }
+        boolean membershipChanged = false;
+        if (page.replaying) {
+            // A new listener replays the whole page as ADDED changes
+            page.recipes.clear();
+            page.replaying = false;
+        } else {
+            for (PageUpdate.Change change : update.changes) {
+                membershipChanged |= change.type != DocumentChange.Type.MODIFIED;
+            }
+        }
+        List<Recipe> changed = new ArrayList<>();
+        for (PageUpdate.Change change : update.changes) {
+            switch (change.type) {
+                case ADDED:
+                    page.recipes.add(change.newIndex, change.recipe);
+                    changed.add(change.recipe);
+                    break;
+                case MODIFIED:
+                    if (change.oldIndex == change.newIndex) {
+                        page.recipes.set(change.newIndex, change.recipe);
+                    } else {
+                        page.recipes.remove(change.oldIndex);
+                        page.recipes.add(change.newIndex, change.recipe);
+                    }
+                    changed.add(change.recipe);
+                    break;
+                case REMOVED:
+                    page.recipes.remove(change.oldIndex);
+                    break;
+            }
+        }
+        if (firstFromServer) {
+            // The recipes before this came from the cache; report them all as confirmed
+            page.synced = true;
+            changed = new ArrayList<>(page.recipes);
+        }
+        page.loaded = true;
+        page.size = update.size;
+        if (update.lastDocument != null) {
+            page.lastDocument = update.lastDocument;
+        }
+        Log.d(TAG, "Page " + pages.indexOf(page) + ": " + update.changes.size() + " changes, "
+                + page.recipes.size() + " recipes, fromCache: " + update.fromCache);
+
+        int index = pages.indexOf(page);
+        if (membershipChanged && !page.pinned && index < pages.size() - 1) {
+            pin(page, pages.get(index + 1).startAfter);
+        }
+        listener.onPagesChanged(changed, !update.fromCache);
+    }
+
+    /**
+     * Re-registers a page as the range up to the next page's cursor.
+     */
+    private void pin(Page page, DocumentSnapshot end) {
+        Log.d(TAG, "Pinning page " + pages.indexOf(page) + " to the next page's cursor");
+        page.pinned = true;
+        page.registration.remove();
+        listen(page, pageQuery(page).endAt(end));
+    }
+
+    private static class Page {
+        final DocumentSnapshot startAfter;
+        final List<Recipe> recipes = new ArrayList<>();
+        ListenerRegistration registration;
+        // Bumped when the listener is replaced, so snapshots of the old one are dropped
+        int generation;
+        boolean loaded;
+        boolean replaying;
+        boolean pinned;
+        // Whether a snapshot from the server has been applied
+        boolean synced;
+        // Whether the listener ended with an error
+        boolean failed;
+        int size;
+        DocumentSnapshot lastDocument;
+
+        Page(DocumentSnapshot startAfter) {
+            this.startAfter = startAfter;
+        }
+    }
+
+    /**
+     * A snapshot's changes with the added and modified documents already
+     * deserialized.
+     */
+    private static class PageUpdate {
+        final List<Change> changes = new ArrayList<>();
+        final int size;
+        final DocumentSnapshot lastDocument;
+        final boolean fromCache;
+
+        static class Change {
+            final DocumentChange.Type type;
+            final int oldIndex;
+            final int newIndex;
+            final Recipe recipe;
+
+            Change(DocumentChange change) {
+                type = change.getType();
+                oldIndex = change.getOldIndex();
+                newIndex = change.getNewIndex();
+                if (type != DocumentChange.Type.REMOVED) {
+                    recipe = change.getDocument().toObject(Recipe.class);
+                    recipe.setId(change.getDocument().getId());
+                } else {
+                    recipe = null;
+                }
+            }
+        }
+
+        PageUpdate(QuerySnapshot snapshot) {
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                changes.add(new Change(change));
+            }
+            size = snapshot.size();
+            List<DocumentSnapshot> documents = snapshot.getDocuments();
+            lastDocument = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+            fromCache = snapshot.getMetadata().isFromCache();
+        }
+    }
+}
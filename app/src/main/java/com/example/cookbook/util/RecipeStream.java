@@ -0,0 +1,190 @@
+package com.example.cookbook.util;
+
+import android.util.Log;
+
+import com.example.cookbook.db.LocalRecipeStore;
+import com.example.cookbook.model.Recipe;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Live, newest-first view of a Firestore recipe query, kept current by
+ * snapshot listeners on the pages of a {@link RecipePager}.
+ *
+ * Observers get the current list as soon as they subscribe, which makes
+ * coming back to a screen free, and again after every change. Before the
+ * first page arrives the list is seeded from the local cache.
+ *
+ * The stream starts with one page and {@link #loadMore()} adds the next
+ * one through a {@code startAfter} cursor, so each page is read once.
+ * Call from the main thread only.
+ */
+public class RecipeStream {
+    private static final String TAG = "RecipeStream";
+
+    private final String userId;
+    private final RecipePager pager;
+    private final LocalCache localCache;
+    private final List<FirebaseManager.OnRecipesLoadedListener> observers = new ArrayList<>();
+    // Shown until the first page arrives
+    private final List<Recipe> cachedRecipes = new ArrayList<>();
+    private boolean started = false;
+    private boolean loaded = false;
+
+    /**
+     * Local copy of the streamed query, used to paint before the first
+     * snapshot and kept in step with it afterwards.
+     */
+    public interface LocalCache {
+        void load(LocalRecipeStore.OnCachedRecipesListener listener);
+
+        void save(List<Recipe> changed);
+
+        /**
+         * Called when every page is loaded, so the cache can drop recipes
+         * deleted while the app was not listening.
+         */
+        void replaceAll(List<Recipe> recipes);
+    }
+
+    /**
+     * @param userId Owner of the streamed recipes, or null if nobody is logged in
+     * @param query Base query without ordering or limit, or null if nobody is logged in
+     * @param pageSize Number of recipes each {@link #loadMore()} adds
+     * @param localCache Local copy of the query
+     */
+    public RecipeStream(String userId, Query query, int pageSize, LocalCache localCache) {
+        this.userId = userId;
+        this.localCache = localCache;
+        this.pager = query != null ? new RecipePager(query, pageSize, new RecipePager.Listener() {
+            @Override
+            public void onPagesChanged(List<Recipe> changed, boolean fromServer) {
+                onPagerChanged(changed, fromServer);
+            }
+
+            @Override
+            public void onError(String error) {
+                for (FirebaseManager.OnRecipesLoadedListener observer : new ArrayList<>(observers)) {
+                    observer.onError(error);
+                }
+            }
+        }) : null;
+    }
+
+    /**
+     * Subscribes an observer and starts listening if this is the first one.
+     * If the list is already known it is delivered right away.
+     */
+    public void observe(FirebaseManager.OnRecipesLoadedListener observer) {
+        if (pager == null) {
+            observer.onError("User not logged in");
+            return;
+        }
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+        if (loaded) {
+            observer.onRecipesLoaded(getRecipes());
+        }
+        start();
+    }
+
+    /**
+     * Unsubscribes an observer. The snapshot listeners keep running so the
+     * list stays current for the next observer; call {@link #stop()} to end them.
+     */
+    public void removeObserver(FirebaseManager.OnRecipesLoadedListener observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Starts listening to the first page if the stream is not running yet,
+     * e.g. to prefetch before the first observer subscribes. Safe to call
+     * repeatedly.
+     */
+    public void start() {
+        if (pager == null || started) {
+            return;
+        }
+        started = true;
+        localCache.load(cached -> {
+            if (started && !pager.isLoaded() && !cached.isEmpty()) {
+                Log.d(TAG, "Seeding with " + cached.size() + " cached recipes");
+                cachedRecipes.clear();
+                cachedRecipes.addAll(cached);
+                loaded = true;
+                notifyObservers();
+            }
+        });
+        pager.loadNextPage();
+    }
+
+    /**
+     * Adds the next page. Does nothing while the previous page is still
+     * loading or when every page is loaded.
+     */
+    public void loadMore() {
+        if (pager == null || !started) {
+            return;
+        }
+        pager.loadNextPage();
+    }
+
+    /**
+     * Stops listening and forgets the list.
+     */
+    public void stop() {
+        if (pager != null) {
+            pager.reset();
+        }
+        observers.clear();
+        cachedRecipes.clear();
+        started = false;
+        loaded = false;
+    }
+
+    public boolean isFor(String userId) {
+        return this.userId != null && this.userId.equals(userId);
+    }
+
+    public boolean isLoading() {
+        return pager != null && pager.isLoading();
+    }
+
+    public boolean hasMore() {
+        return pager != null && pager.hasMore();
+    }
+
+    public List<Recipe> getRecipes() {
+        if (pager != null && pager.isLoaded()) {
+            return pager.getLoadedRecipes();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(cachedRecipes));
+    }
+
+    private void onPagerChanged(List<Recipe> changed, boolean fromServer) {
+        if (!pager.isLoaded()) {
+            return;
+        }
+        cachedRecipes.clear();
+        loaded = true;
+        if (fromServer) {
+            if (!pager.hasMore()) {
+                localCache.replaceAll(getRecipes());
+            } else if (!changed.isEmpty()) {
+                localCache.save(changed);
+            }
+        }
+        notifyObservers();
+    }
+
+    private void notifyObservers() {
+        List<Recipe> current = getRecipes();
+        for (FirebaseManager.OnRecipesLoadedListener observer : new ArrayList<>(observers)) {
+            observer.onRecipesLoaded(current);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.cookbook.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import retrofit2.Call;
+
+/**
+ * Cancellation handle for a multi-step API request. Each step attaches its
+ * Retrofit calls; cancelling aborts every attached call and tells later
+ * steps to stop and drop their results.
+ */
+public class RequestHandle {
+    private volatile boolean cancelled = false;
+    private final List<Call<?>> calls = new CopyOnWriteArrayList<>();
+
+    /**
+     * Attaches a call now in flight for this request. Several calls may be
+     * attached when a step fans out.
+     */
+    public void attach(Call<?> call) {
+        calls.add(call);
+        if (cancelled) {
+            call.cancel();
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        for (Call<?> call : calls) {
+            call.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
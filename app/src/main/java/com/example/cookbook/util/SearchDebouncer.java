@@ -0,0 +1,88 @@
+package com.example.cookbook.util;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Debounces search-as-you-type and keeps at most one search in flight.
+ *
+ * Every submitted search gets a new generation number and supersedes the
+ * previous one: a pending search is dropped and an in-flight one is
+ * cancelled. Results should be applied only while
+ * {@link #isCurrent(long)} is true for their generation, so a late
+ * response can never overwrite the results of newer text.
+ *
+ * Must be used from the main thread.
+ */
+public class SearchDebouncer {
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final long delayMs;
+    private long generation = 0;
+    private Runnable pending;
+    private RequestHandle inFlight;
+
+    public interface SearchRequest {
+        /**
+         * Starts the search.
+         *
+         * @param generation Token to check with {@link #isCurrent(long)} before applying results
+         * @return Handle to cancel the search with, or null if it cannot be cancelled
+         */
+        RequestHandle start(long generation);
+    }
+
+    public SearchDebouncer(long delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    /**
+     * Runs the search once no other search was submitted for the debounce delay.
+     */
+    public void submit(SearchRequest request) {
+        schedule(request, delayMs);
+    }
+
+    /**
+     * Runs the search right away, superseding any pending or in-flight search.
+     */
+    public void submitNow(SearchRequest request) {
+        schedule(request, 0);
+    }
+
+    /**
+     * Drops any pending search and cancels the one in flight.
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            handler.removeCallbacks(pending);
+            pending = null;
+        }
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+    }
+
+    public boolean isCurrent(long generation) {
+        return this.generation == generation;
+    }
+
+    private void schedule(SearchRequest request, long delay) {
+        cancel();
+        final long searchGeneration = generation;
+        Runnable run = new Runnable() {
+            @Override
+            public void run() {
+                pending = null;
+                inFlight = request.start(searchGeneration);
+            }
+        };
+        if (delay <= 0) {
+            run.run();
+        } else {
+            pending = run;
+            handler.postDelayed(run, delay);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.cookbook.util;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collapses concurrent requests for the same key into one operation.
+ *
+ * The first caller for a key starts the operation; callers arriving while
+ * it is in flight get the same Task and so the same result. Once the Task
+ * completes the key is forgotten, so the next call starts afresh; this is
+ * deduplication of in-flight work, not a cache.
+ *
+ * Only share operations nobody cancels on their own: a cancelled request
+ * would fail every caller that joined it.
+ */
+public class SingleFlight {
+    private static final String TAG = "SingleFlight";
+
+    private final Map<String, Task<?>> inFlight = new HashMap<>();
+
+    public interface Operation<T> {
+        Task<T> start();
+    }
+
+    /**
+     * Returns the in-flight Task for a key, or starts the operation if there is none.
+     *
+     * @param key Identifies the request, e.g. endpoint plus parameters
+     * @param operation Starts the request; only called if nothing is in flight for the key
+     * @return Task shared by every caller that asked for the key while it was in flight
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> Task<T> run(String key, Operation<T> operation) {
+        Task<T> existing = (Task<T>) inFlight.get(key);
+        if (existing != null) {
+            Log.d(TAG, "Joining in-flight request " + key);
+            return existing;
+        }
+        Task<T> task = operation.start();
+        if (!task.isComplete()) {
+            inFlight.put(key, task);
+            // Forget the key on the completing thread, before any main thread listener runs
+            task.addOnCompleteListener(Runnable::run, completed -> remove(key, completed));
+        }
+        return task;
+    }
+
+    private synchronized void remove(String key, Task<?> task) {
+        if (inFlight.get(key) == task) {
+            inFlight.remove(key);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.cookbook.util;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Splits app start-up into the work the first frame needs and the work that
+ * can wait.
+ *
+ * Critical phases run synchronously from {@code Application.onCreate()}.
+ * Deferred phases are held back until the first activity has drawn its
+ * first frame and then run one after the other on a background thread;
+ * phases deferred after that run straight away. Every phase is timed and
+ * logged, together with the time from process start to first frame.
+ */
+public class StartupOrchestrator {
+    private static final String TAG = "StartupOrchestrator";
+    private static StartupOrchestrator instance;
+
+    private final ExecutorService background = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Runnable> pending = new ArrayList<>();
+    private boolean firstFrameDrawn = false;
+
+    /**
+     * A unit of start-up work.
+     */
+    public interface Phase {
+        void run() throws Exception;
+    }
+
+    private StartupOrchestrator() {
+    }
+
+    public static synchronized StartupOrchestrator getInstance() {
+        if (instance == null) {
+            instance = new StartupOrchestrator();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts watching for the first frame. Call first thing in
+     * {@code Application.onCreate()}.
+     */
+    public void attach(Application application) {
+        application.registerActivityLifecycleCallbacks(new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityResumed(Activity activity) {
+                application.unregisterActivityLifecycleCallbacks(this);
+                // The callback runs in the frame that draws the resumed activity;
+                // the message it posts runs once that frame is done
+                Choreographer.getInstance().postFrameCallback(
+                        frameTimeNanos -> mainHandler.post(StartupOrchestrator.this::onFirstFrame));
+            }
+
+            @Override
+            public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityStarted(Activity activity) {
+            }
+
+            @Override
+            public void onActivityPaused(Activity activity) {
+            }
+
+            @Override
+            public void onActivityStopped(Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            }
+
+            @Override
+            public void onActivityDestroyed(Activity activity) {
+            }
+        });
+    }
+
+    /**
+     * Runs a phase the first frame cannot do without, on the calling thread.
+     */
+    public void runCritical(String name, Phase phase) {
+        run(name, "critical", phase);
+    }
+
+    /**
+     * Runs a phase on the background thread once the first frame is drawn.
+     */
+    public void defer(String name, Phase phase) {
+        Runnable task = () -> run(name, "deferred", phase);
+        synchronized (this) {
+            if (!firstFrameDrawn) {
+                pending.add(task);
+                return;
+            }
+        }
+        background.execute(task);
+    }
+
+    private void onFirstFrame() {
+        Log.d(TAG, "First frame drawn " + (SystemClock.uptimeMillis() - Process.getStartUptimeMillis())
+                + " ms after process start");
+        List<Runnable> deferred;
+        synchronized (this) {
+            firstFrameDrawn = true;
+            deferred = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (Runnable task : deferred) {
+            background.execute(task);
+        }
+    }
+
+    private static void run(String name, String kind, Phase phase) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            phase.run();
+        } catch (Exception e) {
+            Log.e(TAG, "Start-up phase " + name + " failed", e);
+        }
+        Log.d(TAG, kind + " phase " + name + ": " + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.cookbook.util;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import com.example.cookbook.db.PendingUploadDao;
+import com.example.cookbook.db.PendingUploadEntity;
+import com.example.cookbook.db.UploadDatabase;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import okhttp3.Call;
+
+/**
+ * Durable queue of recipe image uploads to ImgBB.
+ *
+ * Enqueuing processes the picked image into app storage and records it in
+ * {@link UploadDatabase}; from then on the recipe can be saved without an
+ * image and the queue patches {@code imageUrl} in once the upload succeeds.
+ * Pending uploads survive process death and are picked up again by
+ * {@link #resume()} on the next start.
+ *
+ * Uploads run on a small fixed pool and failed attempts are retried with
+ * exponential backoff. Listener callbacks are delivered on the main thread.
+ */
+public class UploadQueue {
+    private static final String TAG = "UploadQueue";
+    private static final String UPLOAD_DIR = "pending_uploads";
+    private static final int MAX_CONCURRENT_UPLOADS = 2;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 10 * 60_000;
+    // Firestore keeps the write queued once it has been applied locally
+    private static final long PATCH_TIMEOUT_S = 30;
+    private static UploadQueue instance;
+
+    private final Context context;
+    private final PendingUploadDao dao;
+    private final ScheduledExecutorService workers;
+    private final AppExecutors executors;
+    private final Random random = new Random();
+    private final Map<Long, Call> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> cancelled = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<UploadListener> listeners = new CopyOnWriteArrayList<>();
+    private boolean resumed = false;
+
+    public interface UploadListener {
+        void onProgress(long uploadId, String recipeId, int percent);
+
+        void onUploaded(long uploadId, String recipeId, String imageUrl);
+
+        void onFailed(long uploadId, String recipeId, String error);
+    }
+
+    private UploadQueue(Context context) {
+        this.context = context.getApplicationContext();
+        dao = UploadDatabase.getInstance(context).pendingUploadDao();
+        workers = new ScheduledThreadPoolExecutor(MAX_CONCURRENT_UPLOADS);
+        executors = AppExecutors.getInstance();
+    }
+
+    public static synchronized UploadQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new UploadQueue(context);
+        }
+        return instance;
+    }
+
+    public void addListener(UploadListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(UploadListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Schedules every upload left over from a previous run. Call once at startup.
+     */
+    public synchronized void resume() {
+        if (resumed) {
+            return;
+        }
+        resumed = true;
+        executors.diskIO().execute(() -> {
+            long now = System.currentTimeMillis();
+            for (PendingUploadEntity upload : dao.getAll()) {
+                Log.d(TAG, "Resuming upload " + upload.id + " for recipe " + upload.recipeId
+                        + " after " + upload.attempts + " attempts");
+                schedule(upload.id, Math.max(0, upload.nextAttemptAt - now));
+            }
+        });
+    }
+
+    /**
+     * Processes the image and queues it for upload to the given recipe,
+     * replacing any upload still pending for that recipe.
+     *
+     * @param recipeId Recipe whose imageUrl is set once the upload succeeds
+     * @param imageUri The picked image; only read before the returned task completes
+     * @return Task with the upload ID, completed once the image is safely queued
+     */
+    public Task<Long> enqueue(String recipeId, Uri imageUri) {
+        TaskCompletionSource<Long> source = new TaskCompletionSource<>();
+        // Decoding and compressing is slow CPU work; keep it off the network pool and snapshot listeners
+        executors.imageProcessing().execute(() -> {
+            try {
+                File processed = new ImageProcessor(context).process(imageUri);
+                File dir = new File(context.getFilesDir(), UPLOAD_DIR);
+                if (!dir.isDirectory() && !dir.mkdirs()) {
+                    throw new IOException("Cannot create " + dir);
+                }
+                File queued = new File(dir, processed.getName());
+                if (!processed.renameTo(queued)) {
+                    processed.delete();
+                    throw new IOException("Cannot move image into " + dir);
+                }
+
+                PendingUploadEntity upload = new PendingUploadEntity();
+                upload.recipeId = recipeId;
+                upload.filePath = queued.getAbsolutePath();
+                upload.createdAt = System.currentTimeMillis();
+                upload.nextAttemptAt = upload.createdAt;
+                executors.diskIO().execute(() -> {
+                    try {
+                        for (PendingUploadEntity previous : dao.getForRecipe(recipeId)) {
+                            discard(previous);
+                        }
+                        upload.id = dao.insert(upload);
+                        Log.d(TAG, "Queued upload " + upload.id + " for recipe " + recipeId
+                                + " (" + queued.length() / 1024 + " KB)");
+                        schedule(upload.id, 0);
+                        source.setResult(upload.id);
+                    } catch (Exception e) {
+                        queued.delete();
+                        source.setException(e);
+                    }
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to queue image for recipe " + recipeId, e);
+                source.setException(e);
+            }
+        });
+        return source.getTask();
+    }
+
+    /**
+     * Cancels every pending upload for a recipe, e.g. because it was deleted.
+     */
+    public void cancelForRecipe(String recipeId) {
+        executors.diskIO().execute(() -> {
+            for (PendingUploadEntity upload : dao.getForRecipe(recipeId)) {
+                discard(upload);
+            }
+        });
+    }
+
+    /**
+     * Cancels an upload. An attempt in flight is aborted.
+     */
+    public void cancel(long uploadId) {
+        executors.diskIO().execute(() -> {
+            PendingUploadEntity upload = dao.get(uploadId);
+            if (upload != null) {
+                discard(upload);
+            }
+        });
+    }
+
+    /**
+     * Runs on the disk executor. The upload's next attempt, scheduled or in
+     * flight, sees the cancellation and clears it when it ends.
+     */
+    private void discard(PendingUploadEntity upload) {
+        cancelled.put(upload.id, Boolean.TRUE);
+        Call call = inFlight.remove(upload.id);
+        if (call != null) {
+            call.cancel();
+        }
+        dao.delete(upload);
+        new File(upload.filePath).delete();
+        Log.d(TAG, "Cancelled upload " + upload.id + " for recipe " + upload.recipeId);
+    }
+
+    private void schedule(long uploadId, long delayMs) {
+        workers.schedule(() -> attempt(uploadId), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Runs on a worker thread. */
+    private void attempt(long uploadId) {
+        try {
+            attemptUpload(uploadId);
+        } finally {
+            // A cancelled upload's row is gone, so no later attempt needs the mark
+            cancelled.remove(uploadId);
+        }
+    }
+
+    private void attemptUpload(long uploadId) {
+        if (cancelled.containsKey(uploadId)) {
+            return;
+        }
+        PendingUploadEntity upload = dao.get(uploadId);
+        if (upload == null) {
+            return;
+        }
+        File file = new File(upload.filePath);
+        try {
+            if (upload.imageUrl == null) {
+                if (!file.exists()) {
+                    fail(upload, "Queued image is missing");
+                    return;
+                }
+                Call call = ImgBBUploadManager.newUploadCall(file, new ImgBBUploadManager.ProgressListener() {
+                    private int lastPercent = -1;
+
+                    @Override
+                    public void onProgress(long bytesWritten, long totalBytes) {
+                        int percent = totalBytes > 0 ? (int) (100 * bytesWritten / totalBytes) : 0;
+                        if (percent != lastPercent) {
+                            lastPercent = percent;
+                            notifyProgress(upload, percent);
+                        }
+                    }
+                });
+                inFlight.put(uploadId, call);
+                try {
+                    upload.imageUrl = ImgBBUploadManager.execute(call);
+                } finally {
+                    inFlight.remove(uploadId);
+                }
+                if (cancelled.containsKey(uploadId)) {
+                    return;
+                }
+                dao.update(upload);
+                Log.d(TAG, "Uploaded " + uploadId + " to " + upload.imageUrl);
+            }
+            patchRecipe(upload);
+            dao.delete(upload);
+            file.delete();
+            for (UploadListener listener : listeners) {
+                executors.mainThread().execute(() -> listener.onUploaded(upload.id, upload.recipeId, upload.imageUrl));
+            }
+        } catch (ImgBBUploadManager.UploadException e) {
+            if (cancelled.containsKey(uploadId)) {
+                return;
+            }
+            if (e.isRetryable()) {
+                retry(upload, e.getMessage());
+            } else {
+                fail(upload, e.getMessage());
+            }
+        } catch (Exception e) {
+            if (cancelled.containsKey(uploadId)) {
+                return;
+            }
+            retry(upload, e.getMessage());
+        }
+    }
+
+    private void patchRecipe(PendingUploadEntity upload) throws Exception {
+        try {
+            Tasks.await(FirebaseManager.getInstance().setRecipeImageUrl(upload.recipeId, upload.imageUrl),
+                    PATCH_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // Offline: the update is applied locally and Firestore delivers it on reconnect
+            Log.d(TAG, "Image URL patch for recipe " + upload.recipeId + " queued by Firestore");
+        }
+    }
+
+    private void retry(PendingUploadEntity upload, String error) {
+        upload.attempts++;
+        if (upload.attempts >= MAX_ATTEMPTS) {
+            fail(upload, error);
+            return;
+        }
+        long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (upload.attempts - 1));
+        // Jitter keeps retries of several uploads from lining up
+        long delay = backoff / 2 + (long) (random.nextDouble() * backoff / 2);
+        upload.nextAttemptAt = System.currentTimeMillis() + delay;
+        dao.update(upload);
+        Log.w(TAG, "Upload " + upload.id + " attempt " + upload.attempts + " failed (" + error
+                + "), retrying in " + delay + " ms");
+        schedule(upload.id, delay);
+    }
+
+    private void fail(PendingUploadEntity upload, String error) {
+        Log.e(TAG, "Giving up on upload " + upload.id + " for recipe " + upload.recipeId + ": " + error);
+        dao.delete(upload);
+        new File(upload.filePath).delete();
+        for (UploadListener listener : listeners) {
+            executors.mainThread().execute(() -> listener.onFailed(upload.id, upload.recipeId, error));
+        }
+    }
+
+    private void notifyProgress(PendingUploadEntity upload, int percent) {
+        for (UploadListener listener : listeners) {
+            executors.mainThread().execute(() -> listener.onProgress(upload.id, upload.recipeId, percent));
+        }
+    }
+}
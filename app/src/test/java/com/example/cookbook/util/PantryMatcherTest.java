@@ -0,0 +1,71 @@
+package com.example.cookbook.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for the name matching behind {@link PantryMatcher}.
+ */
+public class PantryMatcherTest {
+
+    @Test
+    public void normalize_lowerCasesAndKeepsLettersOnly() {
+        assertEquals("olive oil", PantryMatcher.normalize("Olive Oil"));
+        assertEquals("clove garlic", PantryMatcher.normalize("2 cloves garlic"));
+        assertEquals("gluten flour", PantryMatcher.normalize("Gluten-free flour"));
+    }
+
+    @Test
+    public void normalize_dropsPreparationWords() {
+        assertEquals("tomato", PantryMatcher.normalize("Chopped Tomatoes"));
+        assertEquals("egg", PantryMatcher.normalize("Free-range Eggs"));
+        assertEquals("salt", PantryMatcher.normalize("Salt to taste"));
+        assertEquals("chicken breast", PantryMatcher.normalize("Boneless skinless chicken breasts"));
+    }
+
+    @Test
+    public void normalize_makesWordsSingular() {
+        assertEquals("berry", PantryMatcher.normalize("Berries"));
+        assertEquals("potato", PantryMatcher.normalize("Potatoes"));
+        assertEquals("chickpea", PantryMatcher.normalize("Chickpeas"));
+        assertEquals("asparagus", PantryMatcher.normalize("Asparagus"));
+        assertEquals("glass noodle", PantryMatcher.normalize("Glass Noodles"));
+    }
+
+    @Test
+    public void normalize_returnsEmptyWhenNothingIsLeft() {
+        assertEquals("", PantryMatcher.normalize(null));
+        assertEquals("", PantryMatcher.normalize(""));
+        assertEquals("", PantryMatcher.normalize("Freshly chopped"));
+        assertEquals("", PantryMatcher.normalize("100"));
+    }
+
+    @Test
+    public void covers_matchesTheSameName() {
+        assertTrue(PantryMatcher.covers("tomato", "tomato"));
+    }
+
+    @Test
+    public void covers_pantryItemMayBeMoreSpecific() {
+        assertTrue(PantryMatcher.covers("chicken breast", "chicken"));
+        assertTrue(PantryMatcher.covers("sesame oil", "oil"));
+    }
+
+    @Test
+    public void covers_recipeTermMayNotBeMoreSpecific() {
+        assertFalse(PantryMatcher.covers("chicken", "chicken stock"));
+        assertFalse(PantryMatcher.covers("oil", "sesame oil"));
+        assertFalse(PantryMatcher.covers("milk", "coconut milk"));
+    }
+
+    @Test
+    public void covers_onlyMatchesWholeWords() {
+        assertFalse(PantryMatcher.covers("pineapple", "apple"));
+        assertFalse(PantryMatcher.covers("egg", "eggplant"));
+        assertFalse(PantryMatcher.covers("eggplant", "egg"));
+        assertTrue(PantryMatcher.covers("red onion", "onion"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.cookbook.benchmarks;
+
+import com.example.cookbook.core.api.ApiRecipe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Turning parsed meals into recipes, as FirebaseManager's
+ * convertApiRecipesToLocalRecipes does through MealConverter.
+ */
+public class ConvertBenchmark {
+
+    @Benchmark
+    public List<PlainRecipe> convertMeals(CookbookState cookbook) {
+        return Cookbooks.converter().convert(cookbook.meals);
+    }
+
+    /** Ingredient extraction alone, per meal. */
+    @Benchmark
+    public void convertIngredients(CookbookState cookbook, Blackhole blackhole) {
+        for (ApiRecipe meal : cookbook.meals) {
+            blackhole.consume(Cookbooks.converter().convertIngredients(meal));
+        }
+    }
+}
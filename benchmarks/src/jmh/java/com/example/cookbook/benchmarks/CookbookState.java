@@ -0,0 +1,51 @@
+package com.example.cookbook.benchmarks;
+
+import com.example.cookbook.core.api.ApiRecipe;
+import com.example.cookbook.core.util.DietaryClassifier;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A synthetic cookbook in every form the pipeline passes it through, from
+ * the response body to classified recipes. Built once per trial, so the
+ * benchmarks only measure their own stage.
+ */
+@State(Scope.Benchmark)
+public class CookbookState {
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    public String responseJson;
+    public List<ApiRecipe> meals;
+    /** Recipes whose dietary flags have not been computed yet. */
+    public List<PlainRecipe> recipes;
+    /** The same recipes with their dietary flags cached, as after the first filter. */
+    public List<PlainRecipe> classifiedRecipes;
+    /** Ingredient names per recipe, for classifying without the cache. */
+    public List<List<String>> ingredientNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        meals = Cookbooks.meals(size);
+        responseJson = Cookbooks.responseJson(meals);
+        recipes = Cookbooks.recipes(meals);
+        classifiedRecipes = Cookbooks.recipes(meals);
+        DietaryClassifier classifier = DietaryClassifier.getInstance();
+        ingredientNames = new ArrayList<>(recipes.size());
+        for (PlainRecipe recipe : classifiedRecipes) {
+            classifier.classify(recipe);
+            List<String> names = new ArrayList<>(recipe.getIngredients().size());
+            for (PlainIngredient ingredient : recipe.getIngredients()) {
+                names.add(ingredient.getName());
+            }
+            ingredientNames.add(names);
+        }
+    }
+}
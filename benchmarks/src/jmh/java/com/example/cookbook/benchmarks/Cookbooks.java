@@ -0,0 +1,238 @@
+package com.example.cookbook.benchmarks;
+
+import com.example.cookbook.core.api.ApiRecipe;
+import com.example.cookbook.core.api.ApiRecipeTypeAdapter;
+import com.example.cookbook.core.api.MealConverter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Inputs shared by the benchmarks: TheMealDB response fixtures and
+ * synthetic cookbooks of any size.
+ *
+ * Synthetic cookbooks are generated from a fixed seed, so every run and
+ * every fork sees the same meals. They mix full meals, as search.php and
+ * lookup.php return them, with filter.php stubs, and ingredient names that
+ * hit every kind of dietary term, so each stage does the work it does on
+ * real data.
+ */
+public final class Cookbooks {
+    public static final String USER_ID = "benchmark-user";
+    // Every STUB_EVERY-th meal only has the fields filter.php returns
+    private static final int STUB_EVERY = 20;
+    // Every OWNED_EVERY-th recipe is written by the user rather than saved from TheMealDB
+    private static final int OWNED_EVERY = 3;
+    private static final int SLOT_COUNT = 20;
+    private static final long SEED = 42;
+
+    private static final String[] CATEGORIES = {
+        "Beef", "Breakfast", "Chicken", "Dessert", "Goat", "Lamb", "Miscellaneous",
+        "Pasta", "Pork", "Seafood", "Side", "Starter", "Vegan", "Vegetarian"
+    };
+    private static final String[] AREAS = {
+        "British", "Chinese", "French", "Greek", "Indian", "Italian", "Japanese",
+        "Mexican", "Moroccan", "Spanish", "Thai", "Turkish", null
+    };
+    private static final String[] ADJECTIVES = {
+        "Smoky", "Spicy", "Creamy", "Roasted", "Braised", "Crispy", "Slow Cooked", "Grilled", "Baked", "Sticky"
+    };
+    private static final String[] MAINS = {
+        "Chicken", "Beef", "Lamb", "Pork", "Salmon", "Prawn", "Tofu", "Chickpea", "Mushroom", "Aubergine",
+        "Lentil", "Halloumi"
+    };
+    private static final String[] DISHES = {
+        "Stew", "Curry", "Pie", "Salad", "Tagine", "Risotto", "Stir Fry", "Soup", "Tacos", "Bake", "Skewers"
+    };
+    private static final String[] INGREDIENTS = {
+        "Chicken Thighs", "Beef Brisket", "Lamb Mince", "Bacon", "Salmon Fillets", "King Prawns",
+        "Fish Sauce", "Worcestershire Sauce", "Butter", "Double Cream", "Parmesan Cheese", "Eggs", "Honey",
+        "Greek Yogurt", "Plain Flour", "Spaghetti", "Breadcrumbs", "Soy Sauce", "Puff Pastry", "Egg Noodles",
+        "Peanut Butter", "Coconut Milk", "Rice Flour", "Butter Beans", "Rice Noodles", "Olive Oil", "Onion",
+        "Garlic", "Ginger", "Tomatoes", "Chopped Tomatoes", "Red Pepper", "Carrots", "Potatoes", "Spinach",
+        "Chickpeas", "Red Lentils", "Basmati Rice", "Cumin", "Paprika", "Turmeric", "Coriander", "Parsley",
+        "Lemon", "Lime", "Salt", "Black Pepper", "Vegetable Stock", "Sugar", "Tofu"
+    };
+    private static final String[] MEASURES = {
+        "1 tbsp", "2 tbsp", "1 tsp", "1/2 tsp", "200g", "500g", "1kg", "400ml", "2 cloves", "1 chopped",
+        "Pinch", "To taste", "3", "1 large", ""
+    };
+    private static final String[] STEPS = {
+        "Preheat the oven to 180C/160C fan/gas 4.",
+        "Heat the oil in a large pan over a medium heat and fry the onion for 5 mins until softened.",
+        "Add the garlic and spices and cook for 1 min more, stirring all the time.",
+        "Tip in the remaining ingredients, bring to a simmer, then cover and cook for 20 mins.",
+        "Season to taste, scatter over the herbs and serve with rice or crusty bread.",
+        "Leave to rest for 10 mins before slicing.",
+        "Whisk everything together in a bowl until smooth, then pour into the prepared tin."
+    };
+
+    private static final MealConverter<PlainRecipe, PlainIngredient> CONVERTER = new MealConverter<>(
+            new MealConverter.Factory<PlainRecipe, PlainIngredient>() {
+                @Override
+                public PlainIngredient newIngredient(String name, String amount, String unit) {
+                    return new PlainIngredient(name, amount, unit);
+                }
+
+                @Override
+                public PlainRecipe newRecipe(ApiRecipe meal, String category, List<PlainIngredient> ingredients) {
+                    return new PlainRecipe(meal.getId(), null, meal.getTitle(), category, meal.getArea(),
+                            meal.getInstructions(), ingredients, true);
+                }
+            });
+
+    private Cookbooks() {
+    }
+
+    /**
+     * Gson configured like the app's Retrofit client.
+     */
+    public static Gson gson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(ApiRecipe.class, new ApiRecipeTypeAdapter().nullSafe())
+                .create();
+    }
+
+    public static MealConverter<PlainRecipe, PlainIngredient> converter() {
+        return CONVERTER;
+    }
+
+    /**
+     * Reads a TheMealDB response body from the fixtures directory.
+     */
+    public static String fixture(String name) {
+        try (InputStream in = Cookbooks.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates meals as the JSON adapter returns them.
+     */
+    public static List<ApiRecipe> meals(int size) {
+        Random random = new Random(SEED);
+        List<ApiRecipe> meals = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String id = String.valueOf(52700 + i);
+            String title = pick(random, ADJECTIVES) + " " + pick(random, MAINS) + " " + pick(random, DISHES);
+            String imageUrl = "https://www.themealdb.com/images/media/meals/" + id + ".jpg";
+            if (i % STUB_EVERY == STUB_EVERY - 1) {
+                meals.add(new ApiRecipe(id, title, imageUrl, null, null, null, null));
+                continue;
+            }
+            int ingredientCount = 4 + random.nextInt(13);
+            List<ApiRecipe.IngredientLine> ingredients = new ArrayList<>(ingredientCount);
+            for (int j = 0; j < ingredientCount; j++) {
+                ingredients.add(new ApiRecipe.IngredientLine(pick(random, INGREDIENTS), pick(random, MEASURES)));
+            }
+            StringBuilder instructions = new StringBuilder();
+            int stepCount = 3 + random.nextInt(6);
+            for (int j = 0; j < stepCount; j++) {
+                instructions.append(pick(random, STEPS)).append("\r\n");
+            }
+            meals.add(new ApiRecipe(id, title, imageUrl, instructions.toString(),
+                    pick(random, CATEGORIES), pick(random, AREAS), ingredients));
+        }
+        return meals;
+    }
+
+    /**
+     * Converts meals to recipes and hands every {@link #OWNED_EVERY}-th one
+     * to {@link #USER_ID}, as if the user had written it.
+     */
+    public static List<PlainRecipe> recipes(List<ApiRecipe> meals) {
+        List<PlainRecipe> recipes = CONVERTER.convert(meals);
+        for (int i = 0; i < recipes.size(); i += OWNED_EVERY) {
+            PlainRecipe recipe = recipes.get(i);
+            recipes.set(i, new PlainRecipe(recipe.getId(), USER_ID, recipe.getTitle(), recipe.getCategory(),
+                    null, recipe.getInstructions(), recipe.getIngredients(), false));
+        }
+        return recipes;
+    }
+
+    /**
+     * Writes meals as a TheMealDB response body: full meals with all forty
+     * slot fields, blanks and nulls included, and stubs with the three
+     * fields filter.php returns.
+     */
+    public static String responseJson(List<ApiRecipe> meals) {
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = new JsonWriter(json)) {
+            out.setSerializeNulls(true);
+            out.beginObject().name("meals").beginArray();
+            for (ApiRecipe meal : meals) {
+                if (meal.getInstructions() == null) {
+                    out.beginObject()
+                            .name("strMeal").value(meal.getTitle())
+                            .name("strMealThumb").value(meal.getImageUrl())
+                            .name("idMeal").value(meal.getId())
+                            .endObject();
+                } else {
+                    writeMeal(out, meal);
+                }
+            }
+            out.endArray().endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    private static void writeMeal(JsonWriter out, ApiRecipe meal) throws IOException {
+        List<ApiRecipe.IngredientLine> ingredients = meal.getIngredients();
+        out.beginObject()
+                .name("idMeal").value(meal.getId())
+                .name("strMeal").value(meal.getTitle())
+                .name("strDrinkAlternate").nullValue()
+                .name("strCategory").value(meal.getCategory())
+                .name("strArea").value(meal.getArea())
+                .name("strInstructions").value(meal.getInstructions())
+                .name("strMealThumb").value(meal.getImageUrl())
+                .name("strTags").nullValue()
+                .name("strYoutube").value("");
+        // TheMealDB leaves unused slots blank or null
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            out.name("strIngredient" + (i + 1));
+            if (i < ingredients.size()) {
+                out.value(ingredients.get(i).getName());
+            } else if (i % 2 == 0) {
+                out.value("");
+            } else {
+                out.nullValue();
+            }
+        }
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            out.name("strMeasure" + (i + 1));
+            if (i < ingredients.size()) {
+                out.value(ingredients.get(i).getMeasure());
+            } else if (i % 2 == 0) {
+                out.value(" ");
+            } else {
+                out.nullValue();
+            }
+        }
+        out.name("strSource").nullValue()
+                .name("strImageSource").nullValue()
+                .name("strCreativeCommonsConfirmed").nullValue()
+                .name("dateModified").nullValue()
+                .endObject();
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
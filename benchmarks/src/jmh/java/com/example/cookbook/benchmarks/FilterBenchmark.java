@@ -0,0 +1,75 @@
+package com.example.cookbook.benchmarks;
+
+import com.example.cookbook.core.model.RecipeFilter;
+import com.example.cookbook.core.util.DietaryClassifier;
+import com.example.cookbook.core.util.RecipeSearch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Local filtering of a cookbook: the dietary filter FirebaseManager's
+ * applyLocalFilters runs, compound filters, title search, and the list
+ * HomeFragment.updateRecipeList builds before handing it to the adapter.
+ */
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+    private DietaryClassifier classifier;
+    private RecipeFilter compoundFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        classifier = DietaryClassifier.getInstance();
+        compoundFilter = RecipeFilter.byIngredient("Garlic")
+                .and(RecipeFilter.vegetarianOnly());
+    }
+
+    /** Classifying every recipe from its ingredient names, as on first sight. */
+    @Benchmark
+    public void classifyUncached(CookbookState cookbook, Blackhole blackhole) {
+        for (List<String> names : cookbook.ingredientNames) {
+            blackhole.consume(classifier.classifyNames(names));
+        }
+    }
+
+    /** A vegan filter over recipes whose flags are already cached. */
+    @Benchmark
+    public List<PlainRecipe> suitingDiets(CookbookState cookbook) {
+        return RecipeSearch.suitingDiets(cookbook.classifiedRecipes, DietaryClassifier.VEGAN);
+    }
+
+    /** Ingredient and diet conditions checked per recipe, as the catalog search does. */
+    @Benchmark
+    public int matchCompoundFilter(CookbookState cookbook) {
+        int matches = 0;
+        for (PlainRecipe recipe : cookbook.classifiedRecipes) {
+            if (compoundFilter.matches(recipe)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<PlainRecipe> titleSearch(CookbookState cookbook) {
+        return RecipeSearch.withTitleContaining(cookbook.classifiedRecipes, "chicken");
+    }
+
+    /** The home list without a search: the user's own recipes. */
+    @Benchmark
+    public List<PlainRecipe> homeUserRecipes(CookbookState cookbook) {
+        return RecipeSearch.ownedBy(cookbook.classifiedRecipes, Cookbooks.USER_ID);
+    }
+
+    /** The home list while a search or filter is active. */
+    @Benchmark
+    public List<PlainRecipe> homeSearchResults(CookbookState cookbook) {
+        return RecipeSearch.listable(cookbook.classifiedRecipes);
+    }
+}
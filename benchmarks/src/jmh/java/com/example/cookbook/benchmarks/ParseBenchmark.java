@@ -0,0 +1,45 @@
+package com.example.cookbook.benchmarks;
+
+import com.example.cookbook.core.api.ApiRecipeResponse;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing TheMealDB response bodies into meals with the app's Gson setup.
+ */
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+    private Gson gson;
+    private String searchResponse;
+    private String filterResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gson = Cookbooks.gson();
+        searchResponse = Cookbooks.fixture("search.json");
+        filterResponse = Cookbooks.fixture("filter.json");
+    }
+
+    /** A search.php page: full meals with all forty slot fields. */
+    @Benchmark
+    public ApiRecipeResponse searchFixture() {
+        return gson.fromJson(searchResponse, ApiRecipeResponse.class);
+    }
+
+    /** A filter.php page: names, thumbnails and IDs only. */
+    @Benchmark
+    public ApiRecipeResponse filterFixture() {
+        return gson.fromJson(filterResponse, ApiRecipeResponse.class);
+    }
+
+    /** A whole synthetic cookbook in one response, as the catalog mirror sees it. */
+    @Benchmark
+    public ApiRecipeResponse cookbook(CookbookState cookbook) {
+        return gson.fromJson(cookbook.responseJson, ApiRecipeResponse.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.cookbook.benchmarks;
+
+import com.example.cookbook.core.api.ApiRecipe;
+import com.example.cookbook.core.api.ApiRecipeResponse;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A/B comparison of the two ways the app has parsed TheMealDB responses:
+ * reflective Gson into {@link ReflectiveMeal} followed by the slot copy,
+ * against the streaming {@link com.example.cookbook.core.api.ApiRecipeTypeAdapter}.
+ * Both sides end with the same list of meals and ingredient lines, so the
+ * scores and the gc profiler's bytes per operation compare directly.
+ */
+@State(Scope.Benchmark)
+public class ParseComparisonBenchmark {
+    private Gson reflectiveGson;
+    private Gson adapterGson;
+    private String searchResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reflectiveGson = new Gson();
+        adapterGson = Cookbooks.gson();
+        searchResponse = Cookbooks.fixture("search.json");
+    }
+
+    /** A: a search.php page parsed reflectively. */
+    @Benchmark
+    public List<ApiRecipe> searchReflective() {
+        return reflective(searchResponse);
+    }
+
+    /** B: the same page through the adapter. */
+    @Benchmark
+    public List<ApiRecipe> searchAdapter() {
+        return adapterGson.fromJson(searchResponse, ApiRecipeResponse.class).getResults();
+    }
+
+    /** A: a whole synthetic cookbook parsed reflectively. */
+    @Benchmark
+    public List<ApiRecipe> cookbookReflective(CookbookState cookbook) {
+        return reflective(cookbook.responseJson);
+    }
+
+    /** B: the same cookbook through the adapter. */
+    @Benchmark
+    public List<ApiRecipe> cookbookAdapter(CookbookState cookbook) {
+        return adapterGson.fromJson(cookbook.responseJson, ApiRecipeResponse.class).getResults();
+    }
+
+    private List<ApiRecipe> reflective(String json) {
+        List<ReflectiveMeal> meals = reflectiveGson.fromJson(json, ReflectiveMeal.Response.class).getMeals();
+        List<ApiRecipe> recipes = new ArrayList<>(meals.size());
+        for (ReflectiveMeal meal : meals) {
+            recipes.add(meal.toApiRecipe());
+        }
+        return recipes;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.cookbook.benchmarks;
+
+import com.example.cookbook.core.model.IngredientData;
+
+/**
+ * Ingredient model for benchmarks, standing in for the app's Parcelable one.
+ */
+public class PlainIngredient implements IngredientData {
+    private final String name;
+    private final String amount;
+    private final String unit;
+
+    public PlainIngredient(String name, String amount, String unit) {
+        this.name = name;
+        this.amount = amount;
+        this.unit = unit;
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public String getAmount() { return amount; }
+
+    @Override
+    public String getUnit() { return unit; }
+}
@@ -0,0 +1,63 @@
+package com.example.cookbook.benchmarks;
+
+import com.example.cookbook.core.model.RecipeData;
+
+import java.util.List;
+
+/**
+ * Recipe model for benchmarks, standing in for the app's Parcelable and
+ * Firestore one. Holds the same fields the shared logic reads.
+ */
+public class PlainRecipe implements RecipeData {
+    private final String id;
+    private final String userId;
+    private final String title;
+    private final String category;
+    private final String area;
+    private final String instructions;
+    private final List<PlainIngredient> ingredients;
+    private final boolean importedFromApi;
+    private int dietaryFlags = DIETARY_FLAGS_UNKNOWN;
+
+    public PlainRecipe(String id, String userId, String title, String category, String area,
+                       String instructions, List<PlainIngredient> ingredients, boolean importedFromApi) {
+        this.id = id;
+        this.userId = userId;
+        this.title = title;
+        this.category = category;
+        this.area = area;
+        this.instructions = instructions;
+        this.ingredients = ingredients;
+        this.importedFromApi = importedFromApi;
+    }
+
+    @Override
+    public String getId() { return id; }
+
+    @Override
+    public String getUserId() { return userId; }
+
+    @Override
+    public String getTitle() { return title; }
+
+    @Override
+    public String getCategory() { return category; }
+
+    @Override
+    public String getArea() { return area; }
+
+    @Override
+    public String getInstructions() { return instructions; }
+
+    @Override
+    public List<PlainIngredient> getIngredients() { return ingredients; }
+
+    @Override
+    public boolean isImportedFromApi() { return importedFromApi; }
+
+    @Override
+    public int getDietaryFlags() { return dietaryFlags; }
+
+    @Override
+    public void setDietaryFlags(int dietaryFlags) { this.dietaryFlags = dietaryFlags; }
+}
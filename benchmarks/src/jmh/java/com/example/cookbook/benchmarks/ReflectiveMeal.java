@@ -1,29 +1,31 @@
-package com.example.cookbook.api.model;
+package com.example.cookbook.benchmarks;
 
+import com.example.cookbook.core.api.ApiRecipe;
 import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayList;
 import java.util.List;
 
-public class ApiRecipe {
+/**
+ * The meal model the app parsed with reflective Gson before
+ * {@link com.example.cookbook.core.api.ApiRecipeTypeAdapter}: one field per
+ * TheMealDB slot, copied into two arrays afterwards and zipped into
+ * ingredient lines. Kept only as the baseline of
+ * {@link ParseComparisonBenchmark}.
+ */
+public class ReflectiveMeal {
     @SerializedName("idMeal")
     private String id;
-
     @SerializedName("strMeal")
     private String title;
-
     @SerializedName("strMealThumb")
     private String imageUrl;
-
     @SerializedName("strInstructions")
     private String instructions;
-
     @SerializedName("strCategory")
     private String category;
-
     @SerializedName("strArea")
     private String area;
-
-    // TheMealDB stores ingredients as strIngredient1, strIngredient2, etc.
-    // We'll add these fields to properly extract ingredients
     @SerializedName("strIngredient1")
     private String ingredient1;
     @SerializedName("strIngredient2")
@@ -64,8 +66,6 @@ public class ApiRecipe {
     private String ingredient19;
     @SerializedName("strIngredient20")
     private String ingredient20;
-
-    // TheMealDB stores measures as strMeasure1, strMeasure2, etc.
     @SerializedName("strMeasure1")
     private String measure1;
     @SerializedName("strMeasure2")
@@ -107,61 +107,40 @@ public class ApiRecipe {
     @SerializedName("strMeasure20")
     private String measure20;
 
-    // Getters
-    public String getId() { return id; }
-    public String getTitle() { return title; }
-    public String getImageUrl() { return imageUrl; }
-    public String getInstructions() { return instructions; }
-    public String getCategory() { return category; }
-    public String getArea() { return area; }
+    /** The response wrapper Gson fills reflectively. */
+    public static class Response {
+        @SerializedName("meals")
+        private List<ReflectiveMeal> meals;
 
-    // Ingredient getters
-    public String getIngredient1() { return ingredient1; }
-    public String getIngredient2() { return ingredient2; }
-    public String getIngredient3() { return ingredient3; }
-    public String getIngredient4() { return ingredient4; }
-    public String getIngredient5() { return ingredient5; }
-    public String getIngredient6() { return ingredient6; }
-    public String getIngredient7() { return ingredient7; }
-    public String getIngredient8() { return ingredient8; }
-    public String getIngredient9() { return ingredient9; }
-    public String getIngredient10() { return ingredient10; }
-    public String getIngredient11() { return ingredient11; }
-    public String getIngredient12() { return ingredient12; }
-    public String getIngredient13() { return ingredient13; }
-    public String getIngredient14() { return ingredient14; }
-    public String getIngredient15() { return ingredient15; }
-    public String getIngredient16() { return ingredient16; }
-    public String getIngredient17() { return ingredient17; }
-    public String getIngredient18() { return ingredient18; }
-    public String getIngredient19() { return ingredient19; }
-    public String getIngredient20() { return ingredient20; }
-
-    // Measure getters
-    public String getMeasure1() { return measure1; }
-    public String getMeasure2() { return measure2; }
-    public String getMeasure3() { return measure3; }
-    public String getMeasure4() { return measure4; }
-    public String getMeasure5() { return measure5; }
-    public String getMeasure6() { return measure6; }
-    public String getMeasure7() { return measure7; }
-    public String getMeasure8() { return measure8; }
-    public String getMeasure9() { return measure9; }
-    public String getMeasure10() { return measure10; }
-    public String getMeasure11() { return measure11; }
-    public String getMeasure12() { return measure12; }
-    public String getMeasure13() { return measure13; }
-    public String getMeasure14() { return measure14; }
-    public String getMeasure15() { return measure15; }
-    public String getMeasure16() { return measure16; }
-    public String getMeasure17() { return measure17; }
-    public String getMeasure18() { return measure18; }
-    public String getMeasure19() { return measure19; }
-    public String getMeasure20() { return measure20; }
+        public List<ReflectiveMeal> getMeals() { return meals; }
+    }
 
-    // For compatibility with existing code
-    public List<String> getDishTypes() { 
-        // Return category as a list for compatibility
-        return category != null ? List.of(category) : List.of("Other"); 
+    /**
+     * Builds the meal the adapter produces, the way
+     * extractIngredientsFromTheMealDB() did: copy the slots into two arrays,
+     * then keep the filled ones, trimmed.
+     */
+    public ApiRecipe toApiRecipe() {
+        String[] ingredientFields = {
+            ingredient1, ingredient2, ingredient3, ingredient4, ingredient5,
+            ingredient6, ingredient7, ingredient8, ingredient9, ingredient10,
+            ingredient11, ingredient12, ingredient13, ingredient14, ingredient15,
+            ingredient16, ingredient17, ingredient18, ingredient19, ingredient20
+        };
+        String[] measureFields = {
+            measure1, measure2, measure3, measure4, measure5,
+            measure6, measure7, measure8, measure9, measure10,
+            measure11, measure12, measure13, measure14, measure15,
+            measure16, measure17, measure18, measure19, measure20
+        };
+        List<ApiRecipe.IngredientLine> ingredients = new ArrayList<>();
+        for (int i = 0; i < ingredientFields.length; i++) {
+            String ingredient = ingredientFields[i];
+            if (ingredient != null && !ingredient.trim().isEmpty()) {
+                String measure = measureFields[i];
+                ingredients.add(new ApiRecipe.IngredientLine(ingredient.trim(), measure != null ? measure.trim() : ""));
+            }
+        }
+        return new ApiRecipe(id, title, imageUrl, instructions, category, area, ingredients);
     }
-} 
\ No newline at end of file
+}
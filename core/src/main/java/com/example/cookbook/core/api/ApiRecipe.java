@@ -0,0 +1,68 @@
+package com.example.cookbook.core.api;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A TheMealDB meal. TheMealDB spreads ingredients over twenty
+ * strIngredientN / strMeasureN slot pairs; {@link ApiRecipeTypeAdapter}
+ * zips the filled slots into {@link #getIngredients()} while parsing.
+ */
+public class ApiRecipe {
+    private String id;
+    private String title;
+    private String imageUrl;
+    private String instructions;
+    private String category;
+    private String area;
+    private List<IngredientLine> ingredients = Collections.emptyList();
+
+    /**
+     * One filled ingredient slot, trimmed. The measure is empty when the slot has none.
+     */
+    public static class IngredientLine {
+        private final String name;
+        private final String measure;
+
+        public IngredientLine(String name, String measure) {
+            this.name = name;
+            this.measure = measure;
+        }
+
+        public String getName() { return name; }
+        public String getMeasure() { return measure; }
+    }
+
+    public ApiRecipe() {
+    }
+
+    public ApiRecipe(String id, String title, String imageUrl, String instructions,
+                     String category, String area, List<IngredientLine> ingredients) {
+        this.id = id;
+        this.title = title;
+        this.imageUrl = imageUrl;
+        this.instructions = instructions;
+        this.category = category;
+        this.area = area;
+        this.ingredients = ingredients != null ? ingredients : Collections.emptyList();
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getTitle() { return title; }
+    public String getImageUrl() { return imageUrl; }
+    public String getInstructions() { return instructions; }
+    public String getCategory() { return category; }
+    public String getArea() { return area; }
+
+    /**
+     * Filled ingredient slots in slot order; empty for filter.php results, which carry none.
+     */
+    public List<IngredientLine> getIngredients() { return ingredients; }
+
+    // For compatibility with existing code
+    public List<String> getDishTypes() { 
+        // Return category as a list for compatibility
+        return category != null ? List.of(category) : List.of("Other"); 
+    }
+}
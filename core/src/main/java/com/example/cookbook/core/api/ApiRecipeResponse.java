@@ -1,4 +1,4 @@
-package com.example.cookbook.api.model;
+package com.example.cookbook.core.api;
 
 import com.google.gson.annotations.SerializedName;
 import java.util.List;
@@ -0,0 +1,160 @@
+package com.example.cookbook.core.api;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming Gson adapter for {@link ApiRecipe}.
+ *
+ * Reads each meal in one pass over the token stream instead of reflecting
+ * into forty slot fields. Ingredient and measure slots are collected into
+ * per-thread scratch arrays, so null and blank slots cost nothing, and are
+ * zipped into the recipe's ingredient list at the end of the object.
+ */
+public class ApiRecipeTypeAdapter extends TypeAdapter<ApiRecipe> {
+    /** TheMealDB has twenty strIngredientN / strMeasureN slots per meal. */
+    static final int SLOT_COUNT = 20;
+    private static final String INGREDIENT_PREFIX = "strIngredient";
+    private static final String MEASURE_PREFIX = "strMeasure";
+
+    // [0] ingredients, [1] measures; reused across meals parsed on the same thread
+    private static final ThreadLocal<String[][]> SCRATCH = new ThreadLocal<String[][]>() {
+        @Override
+        protected String[][] initialValue() {
+            return new String[2][SLOT_COUNT];
+        }
+    };
+
+    @Override
+    public ApiRecipe read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String[][] scratch = SCRATCH.get();
+        String[] ingredientSlots = scratch[0];
+        String[] measureSlots = scratch[1];
+        Arrays.fill(ingredientSlots, null);
+        Arrays.fill(measureSlots, null);
+
+        String id = null;
+        String title = null;
+        String imageUrl = null;
+        String instructions = null;
+        String category = null;
+        String area = null;
+        int filledSlots = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "idMeal":
+                    id = in.nextString();
+                    break;
+                case "strMeal":
+                    title = in.nextString();
+                    break;
+                case "strMealThumb":
+                    imageUrl = in.nextString();
+                    break;
+                case "strInstructions":
+                    instructions = in.nextString();
+                    break;
+                case "strCategory":
+                    category = in.nextString();
+                    break;
+                case "strArea":
+                    area = in.nextString();
+                    break;
+                default:
+                    int slot;
+                    if ((slot = slotIndex(name, INGREDIENT_PREFIX)) >= 0) {
+                        String value = in.nextString().trim();
+                        if (!value.isEmpty()) {
+                            ingredientSlots[slot] = value;
+                            filledSlots++;
+                        }
+                    } else if ((slot = slotIndex(name, MEASURE_PREFIX)) >= 0) {
+                        String value = in.nextString().trim();
+                        if (!value.isEmpty()) {
+                            measureSlots[slot] = value;
+                        }
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+            }
+        }
+        in.endObject();
+
+        List<ApiRecipe.IngredientLine> ingredients;
+        if (filledSlots == 0) {
+            ingredients = Collections.emptyList();
+        } else {
+            ingredients = new ArrayList<>(filledSlots);
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                if (ingredientSlots[i] != null) {
+                    String measure = measureSlots[i];
+                    ingredients.add(new ApiRecipe.IngredientLine(ingredientSlots[i], measure != null ? measure : ""));
+                }
+            }
+        }
+        return new ApiRecipe(id, title, imageUrl, instructions, category, area, ingredients);
+    }
+
+    @Override
+    public void write(JsonWriter out, ApiRecipe recipe) throws IOException {
+        if (recipe == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("idMeal").value(recipe.getId());
+        out.name("strMeal").value(recipe.getTitle());
+        out.name("strMealThumb").value(recipe.getImageUrl());
+        out.name("strInstructions").value(recipe.getInstructions());
+        out.name("strCategory").value(recipe.getCategory());
+        out.name("strArea").value(recipe.getArea());
+        List<ApiRecipe.IngredientLine> ingredients = recipe.getIngredients();
+        for (int i = 0; i < ingredients.size() && i < SLOT_COUNT; i++) {
+            out.name(INGREDIENT_PREFIX + (i + 1)).value(ingredients.get(i).getName());
+            out.name(MEASURE_PREFIX + (i + 1)).value(ingredients.get(i).getMeasure());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Returns the zero-based slot of a name like "strIngredient7", or -1 if the
+     * name does not have the prefix followed by a number from 1 to SLOT_COUNT.
+     * Parses in place so no substring is allocated.
+     */
+    static int slotIndex(String name, String prefix) {
+        int length = name.length();
+        int start = prefix.length();
+        if (length <= start || length > start + 2 || !name.startsWith(prefix)) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = start; i < length; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number >= 1 && number <= SLOT_COUNT ? number - 1 : -1;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.cookbook.core.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns TheMealDB meals into the app's recipe model. The rules for filling
+ * gaps in TheMealDB data live here; building the model objects is left to
+ * a {@link Factory}, so this class needs no Android or Firebase types.
+ *
+ * @param <R> The recipe type
+ * @param <I> The ingredient type
+ */
+public class MealConverter<R, I> {
+    public static final String DEFAULT_CATEGORY = "Other";
+    public static final String DEFAULT_MEASURE = "1";
+    // Stands in for the ingredients of a meal that came without them
+    public static final String PLACEHOLDER_INGREDIENT = "Main ingredient";
+
+    private final Factory<R, I> factory;
+
+    /**
+     * Builds the app's model objects from converted values.
+     */
+    public interface Factory<R, I> {
+        I newIngredient(String name, String amount, String unit);
+
+        /**
+         * @param meal The meal being converted
+         * @param category The meal's category, or {@link #DEFAULT_CATEGORY} if it has none
+         * @param ingredients The converted ingredients
+         */
+        R newRecipe(ApiRecipe meal, String category, List<I> ingredients);
+    }
+
+    public MealConverter(Factory<R, I> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Converts meals in order, skipping null entries.
+     */
+    public List<R> convert(List<ApiRecipe> meals) {
+        List<R> recipes = new ArrayList<>(meals.size());
+        for (ApiRecipe meal : meals) {
+            if (meal != null) {
+                recipes.add(convert(meal));
+            }
+        }
+        return recipes;
+    }
+
+    public R convert(ApiRecipe meal) {
+        String category = meal.getCategory() != null ? meal.getCategory() : DEFAULT_CATEGORY;
+        return factory.newRecipe(meal, category, convertIngredients(meal));
+    }
+
+    /**
+     * Converts the filled ingredient slots of a meal. Slots without a measure
+     * get {@link #DEFAULT_MEASURE}. A named meal without any ingredients,
+     * e.g. a filter.php result, gets a single {@link #PLACEHOLDER_INGREDIENT}.
+     */
+    public List<I> convertIngredients(ApiRecipe meal) {
+        List<I> ingredients = new ArrayList<>(meal.getIngredients().size());
+        // The JSON adapter has already zipped the filled slots and trimmed them
+        for (ApiRecipe.IngredientLine line : meal.getIngredients()) {
+            String measure = line.getMeasure().isEmpty() ? DEFAULT_MEASURE : line.getMeasure();
+            ingredients.add(factory.newIngredient(line.getName(), measure, ""));
+        }
+        if (ingredients.isEmpty() && meal.getTitle() != null && !meal.getTitle().isEmpty()) {
+            ingredients.add(factory.newIngredient(PLACEHOLDER_INGREDIENT, "1", "portion"));
+        }
+        return ingredients;
+    }
+}
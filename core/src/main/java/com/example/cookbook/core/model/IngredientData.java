@@ -0,0 +1,12 @@
+package com.example.cookbook.core.model;
+
+/**
+ * One ingredient line of a {@link RecipeData}.
+ */
+public interface IngredientData {
+    String getName();
+
+    String getAmount();
+
+    String getUnit();
+}
@@ -0,0 +1,39 @@
+package com.example.cookbook.core.model;
+
+import java.util.List;
+
+/**
+ * What the shared filtering and search logic needs to know about a recipe.
+ * The app's recipe model implements it.
+ */
+public interface RecipeData {
+    /** Value of {@link #getDietaryFlags()} before the recipe is classified. */
+    int DIETARY_FLAGS_UNKNOWN = -1;
+
+    String getId();
+
+    /** The owner's Firebase user ID; null for TheMealDB recipes not saved by anyone. */
+    String getUserId();
+
+    String getTitle();
+
+    String getCategory();
+
+    /** The cuisine, e.g. "Italian"; null for recipes not from TheMealDB. */
+    String getArea();
+
+    String getInstructions();
+
+    List<? extends IngredientData> getIngredients();
+
+    boolean isImportedFromApi();
+
+    /**
+     * Cached result of {@link com.example.cookbook.core.util.DietaryClassifier},
+     * or {@link #DIETARY_FLAGS_UNKNOWN}. Implementations reset it when the
+     * ingredients change.
+     */
+    int getDietaryFlags();
+
+    void setDietaryFlags(int dietaryFlags);
+}
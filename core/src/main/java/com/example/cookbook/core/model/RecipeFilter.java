@@ -0,0 +1,264 @@
+package com.example.cookbook.core.model;
+
+import com.example.cookbook.core.util.DietaryClassifier;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+
+public class RecipeFilter {
+    public enum FilterType {
+        CATEGORY,
+        AREA,
+        INGREDIENT,
+        SEARCH,
+        DIETARY
+    }
+
+    // Values of DIETARY conditions
+    public static final String DIET_VEGAN = "Vegan";
+    public static final String DIET_VEGETARIAN = "Vegetarian";
+    public static final String DIET_GLUTEN_FREE = "Gluten-Free";
+
+    private FilterType type;
+    private String value;
+    private List<String> values; // For multiple selections
+    private final List<RecipeFilter> andConditions = new ArrayList<>();
+
+    public RecipeFilter(FilterType type, String value) {
+        this.type = type;
+        this.value = value;
+        this.values = new ArrayList<>();
+        if (value != null) {
+            this.values.add(value);
+        }
+    }
+
+    public RecipeFilter(FilterType type, List<String> values) {
+        this.type = type;
+        this.values = values != null ? values : new ArrayList<>();
+        this.value = values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    // Getters
+    public FilterType getType() { return type; }
+    public String getValue() { return value; }
+    public List<String> getValues() { return values; }
+
+    /**
+     * Adds a condition that recipes must also match, e.g.
+     * {@code byArea("Italian").and(byIngredient("Chicken"))}. Values of a
+     * type this filter already has are merged into that condition.
+     *
+     * @param condition The condition to add, including any conditions it carries
+     * @return This filter
+     */
+    public RecipeFilter and(RecipeFilter condition) {
+        for (RecipeFilter added : condition.getConditions()) {
+            RecipeFilter existing = findCondition(added.type);
+            if (existing == null) {
+                andConditions.add(new RecipeFilter(added.type, new ArrayList<>(added.values)));
+                continue;
+            }
+            List<String> merged = new ArrayList<>(existing.values);
+            for (String value : added.values) {
+                if (!merged.contains(value)) {
+                    merged.add(value);
+                }
+            }
+            existing.values = merged;
+            existing.value = merged.isEmpty() ? null : merged.get(0);
+        }
+        return this;
+    }
+
+    private RecipeFilter findCondition(FilterType conditionType) {
+        if (type == conditionType) {
+            return this;
+        }
+        for (RecipeFilter condition : andConditions) {
+            if (condition.type == conditionType) {
+                return condition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns this filter's own condition followed by every condition added
+     * with {@link #and(RecipeFilter)}. Recipes must match all of them.
+     * Within one condition, the values of a CATEGORY or AREA condition are
+     * alternatives, since a meal has only one of each, while every value of
+     * an INGREDIENT condition is required.
+     */
+    public List<RecipeFilter> getConditions() {
+        List<RecipeFilter> conditions = new ArrayList<>(1 + andConditions.size());
+        conditions.add(new RecipeFilter(type, values));
+        conditions.addAll(andConditions);
+        return Collections.unmodifiableList(conditions);
+    }
+
+    /**
+     * True if serving this filter takes more than one filter.php request, or
+     * if recipes must be checked against more than one condition.
+     */
+    public boolean isCompound() {
+        return type != FilterType.SEARCH && (!andConditions.isEmpty() || values.size() > 1);
+    }
+
+    /**
+     * True if this filter has a condition of the given type.
+     */
+    public boolean hasCondition(FilterType conditionType) {
+        return findCondition(conditionType) != null;
+    }
+
+    /**
+     * Returns a filter with every condition except those of the given type,
+     * or null if no other condition is left.
+     *
+     * @param conditionType Type of the conditions to drop, e.g. DIETARY for
+     *                      conditions TheMealDB cannot serve
+     */
+    public RecipeFilter without(FilterType conditionType) {
+        RecipeFilter result = null;
+        for (RecipeFilter condition : getConditions()) {
+            if (condition.type == conditionType) {
+                continue;
+            }
+            if (result == null) {
+                result = new RecipeFilter(condition.type, new ArrayList<>(condition.values));
+            } else {
+                result.and(condition);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the flags of the diets recipes must suit, or 0 if this filter
+     * has no DIETARY condition.
+     */
+    public int getRequiredDiets() {
+        RecipeFilter dietary = findCondition(FilterType.DIETARY);
+        return dietary != null ? DietaryClassifier.flagsFor(dietary.values) : 0;
+    }
+
+    /**
+     * Checks a recipe against every condition using the fields the local
+     * model has. Only TheMealDB recipes have an area, so AREA conditions
+     * never match the user's own recipes. INGREDIENT values match whole
+     * ingredient names, as filter.php does.
+     * Every value of a DIETARY condition is required.
+     *
+     * @param recipe The recipe to check
+     * @return true if the recipe matches all conditions
+     */
+    public boolean matches(RecipeData recipe) {
+        for (RecipeFilter condition : getConditions()) {
+            if (!condition.matchesCondition(recipe)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesCondition(RecipeData recipe) {
+        switch (type) {
+            case CATEGORY:
+                for (String category : values) {
+                    if (category.equalsIgnoreCase(recipe.getCategory())) {
+                        return true;
+                    }
+                }
+                return false;
+            case INGREDIENT:
+                for (String ingredient : values) {
+                    if (!hasIngredient(recipe, ingredient)) {
+                        return false;
+                    }
+                }
+                return true;
+            case AREA:
+                for (String area : values) {
+                    if (area.equalsIgnoreCase(recipe.getArea())) {
+                        return true;
+                    }
+                }
+                return false;
+            case DIETARY: {
+                int required = DietaryClassifier.flagsFor(values);
+                return DietaryClassifier.getInstance().suits(recipe, required);
+            }
+            case SEARCH:
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * True if the recipe lists the ingredient under exactly that name,
+     * ignoring case, surrounding spaces and underscores for spaces. This is
+     * how filter.php?i= matches, so a filter answered locally returns the
+     * same recipes as TheMealDB would: "Chicken" does not match "Chicken Breast".
+     */
+    private static boolean hasIngredient(RecipeData recipe, String ingredient) {
+        if (recipe.getIngredients() == null) {
+            return false;
+        }
+        String wanted = ingredientKey(ingredient);
+        for (IngredientData candidate : recipe.getIngredients()) {
+            if (candidate != null && candidate.getName() != null && wanted.equals(ingredientKey(candidate.getName()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String ingredientKey(String name) {
+        return name.trim().replace('_', ' ').toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (RecipeFilter condition : getConditions()) {
+            if (builder.length() > 0) {
+                builder.append(" AND ");
+            }
+            builder.append(condition.type).append('=').append(condition.values);
+        }
+        return builder.toString();
+    }
+
+    // Helper methods for common filters
+    public static RecipeFilter byCategory(String category) {
+        return new RecipeFilter(FilterType.CATEGORY, category);
+    }
+
+    public static RecipeFilter byArea(String area) {
+        return new RecipeFilter(FilterType.AREA, area);
+    }
+
+    public static RecipeFilter byIngredient(String ingredient) {
+        return new RecipeFilter(FilterType.INGREDIENT, ingredient);
+    }
+
+    public static RecipeFilter bySearch(String query) {
+        return new RecipeFilter(FilterType.SEARCH, query);
+    }
+
+    // Dietary filter helpers; recipes are classified locally from their ingredients
+    public static RecipeFilter veganOnly() {
+        return new RecipeFilter(FilterType.DIETARY, DIET_VEGAN);
+    }
+
+    public static RecipeFilter vegetarianOnly() {
+        return new RecipeFilter(FilterType.DIETARY, DIET_VEGETARIAN);
+    }
+
+    public static RecipeFilter glutenFreeOnly() {
+        return new RecipeFilter(FilterType.DIETARY, DIET_GLUTEN_FREE);
+    }
+}
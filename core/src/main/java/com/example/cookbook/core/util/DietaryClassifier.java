@@ -0,0 +1,397 @@
+package com.example.cookbook.core.util;
+
+import com.example.cookbook.core.model.IngredientData;
+import com.example.cookbook.core.model.RecipeData;
+import com.example.cookbook.core.model.RecipeFilter;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Classifies recipes as vegetarian, vegan and/or gluten-free from their
+ * ingredient names.
+ *
+ * A curated dictionary of terms that rule a diet out ("bacon", "butter",
+ * "flour") is compiled into an Aho-Corasick automaton over normalized names,
+ * so each name is scanned once however many terms there are. Terms only
+ * match whole words, with an optional plural "s"/"es". Safe terms such as
+ * "peanut butter" or "rice flour" override the shorter terms they contain.
+ *
+ * The result is a bitmask of {@link #VEGETARIAN}, {@link #VEGAN} and
+ * {@link #GLUTEN_FREE}, computed once per recipe and kept on the recipe
+ * until its ingredients change, so checking a filter is a bit test.
+ *
+ * The automaton is immutable and {@link #classify(RecipeData)} keeps no shared
+ * scratch state, so the classifier can be used from any thread.
+ */
+public class DietaryClassifier {
+    public static final int VEGETARIAN = 1;
+    public static final int VEGAN = 1 << 1;
+    public static final int GLUTEN_FREE = 1 << 2;
+    public static final int ALL_DIETS = VEGETARIAN | VEGAN | GLUTEN_FREE;
+
+    // Diets each kind of term rules out
+    private static final int MEAT = VEGETARIAN | VEGAN;
+    private static final int ANIMAL_PRODUCT = VEGAN;
+    private static final int GLUTEN = GLUTEN_FREE;
+    private static final int SAFE = 0;
+
+    private static final String[] MEAT_TERMS = {
+        "meat", "beef", "pork", "chicken", "lamb", "mutton", "veal", "goat", "bacon", "ham", "gammon",
+        "pancetta", "prosciutto", "chorizo", "salami", "pepperoni", "sausage", "mince", "steak", "brisket",
+        "duck", "turkey", "goose", "venison", "rabbit", "pheasant", "liver", "kidney", "oxtail", "tripe",
+        "lard", "suet", "dripping", "gelatine", "gelatin", "bone broth", "black pudding", "fish", "salmon",
+        "tuna", "cod", "haddock", "mackerel", "sardine", "anchovy", "anchovies", "trout", "herring",
+        "kipper", "monkfish", "sea bass", "halibut", "shellfish", "prawn", "shrimp", "crab", "lobster", "mussel",
+        "clam", "oyster", "scallop", "squid", "octopus", "fish sauce", "oyster sauce", "worcestershire sauce"
+    };
+
+    private static final String[] ANIMAL_PRODUCT_TERMS = {
+        "milk", "butter", "cream", "cheese", "cheddar", "parmesan", "parmigiano", "pecorino", "mozzarella",
+        "feta", "ricotta", "mascarpone", "gruyere", "brie", "camembert", "halloumi", "paneer", "yogurt",
+        "yoghurt", "egg", "ghee", "honey", "buttermilk", "creme fraiche", "custard", "whey", "mayonnaise",
+        "meringue", "goat cheese", "goats cheese", "goat milk", "goats milk"
+    };
+
+    private static final String[] GLUTEN_TERMS = {
+        "flour", "wheat", "bread", "breadcrumbs", "pasta", "spaghetti", "macaroni", "penne", "linguine",
+        "lasagne", "lasagna", "tagliatelle", "fettuccine", "farfalle", "rigatoni", "fusilli", "noodle",
+        "udon", "ramen", "gnocchi", "couscous", "bulgur", "barley", "rye", "semolina", "spelt", "pastry",
+        "filo", "tortilla", "pitta", "pita", "naan", "bun", "baguette", "brioche", "ciabatta", "biscuit",
+        "cracker", "crouton", "soy sauce", "beer", "malt", "seitan", "dumpling"
+    };
+
+    private static final String[] SAFE_TERMS = {
+        "peanut butter", "almond butter", "cashew butter", "nut butter", "cocoa butter", "butter beans",
+        "coconut milk", "coconut cream", "almond milk", "soy milk", "soya milk", "oat milk", "rice milk",
+        "cream of tartar", "rice flour", "corn flour", "gram flour", "chickpea flour", "almond flour",
+        "coconut flour", "potato flour", "tapioca flour", "buckwheat flour", "gluten free flour",
+        "gluten free pasta", "gluten free bread", "gluten free soy sauce", "rice pasta", "rice noodle",
+        "glass noodle", "corn tortilla", "coconut yogurt", "soy yogurt", "vegan butter", "vegan cheese",
+        "vegan mayonnaise", "vegetable suet", "oyster mushroom"
+    };
+
+    // Categories most likely to hold recipes for a diet, used when a dietary
+    // filter has no API condition to draw candidates from
+    private static final List<String> PLANT_BASED_CATEGORIES = Arrays.asList("Vegetarian", "Vegan");
+    private static final List<String> GLUTEN_FREE_CATEGORIES = Arrays.asList("Seafood", "Side", "Vegetarian", "Vegan");
+
+    /** Letters map to 1..26; everything else is a word separator. */
+    private static final int ALPHABET_SIZE = 27;
+    private static final int SEPARATOR = 0;
+
+    private static DietaryClassifier instance;
+
+    // Aho-Corasick automaton with failure transitions folded into the goto table
+    private final int[] transitions;
+    // Pattern ending at each state (longest one), or -1
+    private final int[] patternAt;
+    // Nearest state on the failure chain that ends a pattern, or -1
+    private final int[] outputLink;
+    private final int[] patternLength;
+    private final int[] patternMask;
+
+    private DietaryClassifier() {
+        List<String> terms = new ArrayList<>();
+        List<Integer> masks = new ArrayList<>();
+        addTerms(terms, masks, MEAT_TERMS, MEAT);
+        addTerms(terms, masks, ANIMAL_PRODUCT_TERMS, ANIMAL_PRODUCT);
+        addTerms(terms, masks, GLUTEN_TERMS, GLUTEN);
+        addTerms(terms, masks, SAFE_TERMS, SAFE);
+
+        int maxStates = 1;
+        for (String term : terms) {
+            maxStates += term.length();
+        }
+        int[] gotoTable = new int[maxStates * ALPHABET_SIZE];
+        Arrays.fill(gotoTable, -1);
+        int[] endsPattern = new int[maxStates];
+        Arrays.fill(endsPattern, -1);
+        patternLength = new int[terms.size()];
+        patternMask = new int[terms.size()];
+
+        // Build the trie
+        int stateCount = 1;
+        for (int p = 0; p < terms.size(); p++) {
+            byte[] codes = encode(terms.get(p));
+            int state = 0;
+            for (byte code : codes) {
+                int slot = state * ALPHABET_SIZE + code;
+                if (gotoTable[slot] < 0) {
+                    gotoTable[slot] = stateCount++;
+                }
+                state = gotoTable[slot];
+            }
+            endsPattern[state] = p;
+            patternLength[p] = codes.length;
+            patternMask[p] = masks.get(p);
+        }
+
+        // Breadth-first pass: compute failure links and turn the trie into a DFA
+        transitions = Arrays.copyOf(gotoTable, stateCount * ALPHABET_SIZE);
+        patternAt = Arrays.copyOf(endsPattern, stateCount);
+        outputLink = new int[stateCount];
+        int[] failure = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        outputLink[0] = -1;
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            int next = transitions[c];
+            if (next < 0) {
+                transitions[c] = 0;
+            } else {
+                failure[next] = 0;
+                outputLink[next] = -1;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int c = 0; c < ALPHABET_SIZE; c++) {
+                int slot = state * ALPHABET_SIZE + c;
+                int next = transitions[slot];
+                int fallback = transitions[failure[state] * ALPHABET_SIZE + c];
+                if (next < 0) {
+                    transitions[slot] = fallback;
+                } else {
+                    failure[next] = fallback;
+                    outputLink[next] = patternAt[fallback] >= 0 ? fallback : outputLink[fallback];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    public static synchronized DietaryClassifier getInstance() {
+        if (instance == null) {
+            instance = new DietaryClassifier();
+        }
+        return instance;
+    }
+
+    /**
+     * Maps a dietary filter value such as {@link RecipeFilter#DIET_VEGAN} to
+     * its flag, or 0 if the value is not a known diet.
+     */
+    public static int flagFor(String diet) {
+        if (RecipeFilter.DIET_VEGAN.equalsIgnoreCase(diet)) {
+            return VEGAN;
+        } else if (RecipeFilter.DIET_VEGETARIAN.equalsIgnoreCase(diet)) {
+            return VEGETARIAN;
+        } else if (RecipeFilter.DIET_GLUTEN_FREE.equalsIgnoreCase(diet)) {
+            return GLUTEN_FREE;
+        }
+        return 0;
+    }
+
+    /**
+     * Combines the flags of several dietary filter values.
+     */
+    public static int flagsFor(List<String> diets) {
+        int flags = 0;
+        for (String diet : diets) {
+            flags |= flagFor(diet);
+        }
+        return flags;
+    }
+
+    /**
+     * Returns TheMealDB categories to draw candidates from when a filter has
+     * nothing but dietary conditions.
+     *
+     * @param required Flags of the diets the recipes must suit
+     */
+    public static List<String> candidateCategories(int required) {
+        Set<String> categories = new LinkedHashSet<>();
+        if ((required & (VEGETARIAN | VEGAN)) != 0) {
+            categories.addAll(PLANT_BASED_CATEGORIES);
+        } else if ((required & GLUTEN_FREE) != 0) {
+            categories.addAll(GLUTEN_FREE_CATEGORIES);
+        }
+        return new ArrayList<>(categories);
+    }
+
+    /**
+     * True if the recipe suits every diet in {@code required}.
+     */
+    public boolean suits(RecipeData recipe, int required) {
+        return (classify(recipe) & required) == required;
+    }
+
+    /**
+     * Returns the diets a recipe suits. The result is cached on the recipe
+     * until its ingredient list is replaced. A recipe without ingredients
+     * suits no diet, since nothing can be said about it.
+     *
+     * @param recipe The recipe to classify
+     * @return Bitmask of {@link #VEGETARIAN}, {@link #VEGAN} and {@link #GLUTEN_FREE}
+     */
+    public int classify(RecipeData recipe) {
+        int cached = recipe.getDietaryFlags();
+        if (cached != RecipeData.DIETARY_FLAGS_UNKNOWN) {
+            return cached;
+        }
+        List<? extends IngredientData> ingredients = recipe.getIngredients();
+        int flags;
+        if (ingredients == null || ingredients.isEmpty()) {
+            flags = 0;
+        } else {
+            List<String> names = new ArrayList<>(ingredients.size());
+            for (IngredientData ingredient : ingredients) {
+                names.add(ingredient != null ? ingredient.getName() : null);
+            }
+            flags = classifyNames(names);
+        }
+        recipe.setDietaryFlags(flags);
+        return flags;
+    }
+
+    /**
+     * Classifies a list of ingredient names without caching.
+     */
+    public int classifyNames(List<String> names) {
+        int ruledOut = 0;
+        for (String name : names) {
+            if (name != null) {
+                ruledOut |= ruledOutBy(name);
+                if (ruledOut == ALL_DIETS) {
+                    break;
+                }
+            }
+        }
+        return ALL_DIETS & ~ruledOut;
+    }
+
+    /**
+     * Scans one ingredient name and returns the diets it rules out.
+     */
+    int ruledOutBy(String name) {
+        byte[] text = encode(name);
+        // Whole-word matches as (start, end, pattern) triples; names rarely hold more than a few
+        int[] matches = null;
+        int matchCount = 0;
+        int state = 0;
+        for (int i = 0; i < text.length; i++) {
+            state = transitions[state * ALPHABET_SIZE + text[i]];
+            for (int s = patternAt[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                int pattern = patternAt[s];
+                int start = i - patternLength[pattern] + 1;
+                if (!isWholeWord(text, start, i + 1)) {
+                    continue;
+                }
+                if (matches == null) {
+                    matches = new int[12];
+                } else if (matchCount * 3 == matches.length) {
+                    matches = Arrays.copyOf(matches, matches.length * 2);
+                }
+                matches[matchCount * 3] = start;
+                matches[matchCount * 3 + 1] = i + 1;
+                matches[matchCount * 3 + 2] = pattern;
+                matchCount++;
+            }
+        }
+
+        int ruledOut = 0;
+        for (int m = 0; m < matchCount; m++) {
+            int start = matches[m * 3];
+            int end = matches[m * 3 + 1];
+            boolean covered = false;
+            // A longer match around this one, e.g. "peanut butter" around "butter", takes precedence
+            for (int o = 0; o < matchCount && !covered; o++) {
+                covered = o != m && matches[o * 3] <= start && matches[o * 3 + 1] >= end
+                        && matches[o * 3 + 1] - matches[o * 3] > end - start;
+            }
+            if (!covered) {
+                ruledOut |= patternMask[matches[m * 3 + 2]];
+            }
+        }
+        return ruledOut;
+    }
+
+    /**
+     * True if text[start, end) is a whole word or words, allowing a plural
+     * "s" or "es" after it.
+     */
+    private static boolean isWholeWord(byte[] text, int start, int end) {
+        if (start > 0 && text[start - 1] != SEPARATOR) {
+            return false;
+        }
+        if (end == text.length || text[end] == SEPARATOR) {
+            return true;
+        }
+        int s = 's' - 'a' + 1;
+        int e = 'e' - 'a' + 1;
+        if (text[end] == s) {
+            return end + 1 == text.length || text[end + 1] == SEPARATOR;
+        }
+        return text[end] == e && end + 1 < text.length && text[end + 1] == s
+                && (end + 2 == text.length || text[end + 2] == SEPARATOR);
+    }
+
+    /**
+     * Encodes a name as alphabet codes: letters lower-cased to 1..26, accents
+     * stripped, any run of other characters collapsed to one separator, and
+     * no leading or trailing separators.
+     */
+    static byte[] encode(String name) {
+        String text = name;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                // Rare: accented names such as "creme fraiche"; decompose and drop the marks
+                text = Normalizer.normalize(text, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        byte[] codes = new byte[text.length()];
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                codes[length++] = (byte) (c - 'A' + 1);
+            } else if (c >= 'a' && c <= 'z') {
+                codes[length++] = (byte) (c - 'a' + 1);
+            } else if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            } else if (length > 0 && codes[length - 1] != SEPARATOR) {
+                codes[length++] = SEPARATOR;
+            }
+        }
+        if (length > 0 && codes[length - 1] == SEPARATOR) {
+            length--;
+        }
+        return length == codes.length ? codes : Arrays.copyOf(codes, length);
+    }
+
+    private static void addTerms(List<String> terms, List<Integer> masks, String[] source, int mask) {
+        for (String term : source) {
+            terms.add(term);
+            masks.add(mask);
+        }
+    }
+
+    /**
+     * Lists the dietary filter values a recipe suits, for display.
+     */
+    public List<String> describe(RecipeData recipe) {
+        int flags = classify(recipe);
+        if (flags == 0) {
+            return Collections.emptyList();
+        }
+        List<String> diets = new ArrayList<>();
+        if ((flags & VEGAN) != 0) {
+            diets.add(RecipeFilter.DIET_VEGAN);
+        } else if ((flags & VEGETARIAN) != 0) {
+            diets.add(RecipeFilter.DIET_VEGETARIAN);
+        }
+        if ((flags & GLUTEN_FREE) != 0) {
+            diets.add(RecipeFilter.DIET_GLUTEN_FREE);
+        }
+        return diets;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.cookbook.core.util;
+
+import com.example.cookbook.core.api.MealConverter;
+import com.example.cookbook.core.model.IngredientData;
+import com.example.cookbook.core.model.RecipeData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Local filtering applied to recipe results, whether they came from
+ * TheMealDB, Firestore or the local cache.
+ */
+public final class RecipeSearch {
+
+    private RecipeSearch() {
+    }
+
+    /**
+     * True for a TheMealDB recipe that only has the name and thumbnail
+     * filter.php returns, so its details still have to be looked up. Such a
+     * recipe has no ingredients, or only the placeholder {@link MealConverter}
+     * gives it; a short recipe with real ingredients is not a stub.
+     */
+    public static boolean isStub(RecipeData recipe) {
+        if (!recipe.isImportedFromApi()) {
+            return false;
+        }
+        List<? extends IngredientData> ingredients = recipe.getIngredients();
+        if (ingredients == null || ingredients.isEmpty()) {
+            return true;
+        }
+        return ingredients.size() == 1
+                && MealConverter.PLACEHOLDER_INGREDIENT.equals(ingredients.get(0).getName());
+    }
+
+    /**
+     * True if the recipe has what a list row needs: a title and at least
+     * one ingredient.
+     */
+    public static boolean isListable(RecipeData recipe) {
+        return recipe != null
+                && recipe.getTitle() != null && !recipe.getTitle().trim().isEmpty()
+                && recipe.getIngredients() != null && !recipe.getIngredients().isEmpty();
+    }
+
+    /**
+     * Keeps the listable recipes, e.g. of a search or filter result.
+     *
+     * @param recipes The recipes to filter; may contain nulls
+     * @return The listable recipes in their original order
+     */
+    public static <R extends RecipeData> List<R> listable(List<R> recipes) {
+        List<R> listable = new ArrayList<>(recipes.size());
+        for (R recipe : recipes) {
+            if (isListable(recipe)) {
+                listable.add(recipe);
+            }
+        }
+        return listable;
+    }
+
+    /**
+     * Keeps the listable recipes the user wrote themselves, leaving out
+     * recipes saved from TheMealDB.
+     *
+     * @param recipes The recipes to filter; may contain nulls
+     * @param userId The signed-in user
+     * @return The user's own recipes in their original order
+     */
+    public static <R extends RecipeData> List<R> ownedBy(List<R> recipes, String userId) {
+        List<R> owned = new ArrayList<>();
+        for (R recipe : recipes) {
+            if (isListable(recipe) && !recipe.isImportedFromApi()
+                    && recipe.getUserId() != null && recipe.getUserId().equals(userId)) {
+                owned.add(recipe);
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Keeps the recipes that suit every required diet. Stubs are dropped,
+     * since they have no ingredients to tell their diets by.
+     *
+     * @param recipes The recipes to filter
+     * @param requiredDiets Flags of {@link DietaryClassifier}; 0 keeps every recipe
+     * @return The matching recipes in their original order
+     */
+    public static <R extends RecipeData> List<R> suitingDiets(List<R> recipes, int requiredDiets) {
+        if (requiredDiets == 0) {
+            return recipes;
+        }
+        DietaryClassifier classifier = DietaryClassifier.getInstance();
+        List<R> suitable = new ArrayList<>();
+        for (R recipe : recipes) {
+            if (!isStub(recipe) && classifier.suits(recipe, requiredDiets)) {
+                suitable.add(recipe);
+            }
+        }
+        return suitable;
+    }
+
+    /**
+     * Keeps the recipes whose title contains the query, ignoring case.
+     *
+     * @param recipes The recipes to filter
+     * @param query Text as typed by the user
+     * @return The matching recipes in their original order
+     */
+    public static <R extends RecipeData> List<R> withTitleContaining(List<R> recipes, String query) {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        List<R> matching = new ArrayList<>();
+        for (R recipe : recipes) {
+            if (recipe.getTitle() != null && recipe.getTitle().toLowerCase(Locale.ROOT).contains(lowerQuery)) {
+                matching.add(recipe);
+            }
+        }
+        return matching;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.cookbook.core.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ApiRecipeTypeAdapterTest {
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(ApiRecipe.class, new ApiRecipeTypeAdapter().nullSafe())
+            .create();
+
+    private ApiRecipe parse(String json) {
+        return gson.fromJson(json, ApiRecipe.class);
+    }
+
+    private static void assertLine(String name, String measure, ApiRecipe.IngredientLine line) {
+        assertEquals(name, line.getName());
+        assertEquals(measure, line.getMeasure());
+    }
+
+    @Test
+    public void readsMealFields() {
+        ApiRecipe meal = parse("{\"idMeal\":\"52772\",\"strMeal\":\"Teriyaki Chicken\","
+                + "\"strMealThumb\":\"https://example.com/t.jpg\",\"strInstructions\":\"Preheat the oven.\","
+                + "\"strCategory\":\"Chicken\",\"strArea\":\"Japanese\"}");
+
+        assertEquals("52772", meal.getId());
+        assertEquals("Teriyaki Chicken", meal.getTitle());
+        assertEquals("https://example.com/t.jpg", meal.getImageUrl());
+        assertEquals("Preheat the oven.", meal.getInstructions());
+        assertEquals("Chicken", meal.getCategory());
+        assertEquals("Japanese", meal.getArea());
+        assertTrue(meal.getIngredients().isEmpty());
+    }
+
+    @Test
+    public void zipsFilledSlotsTrimmed() {
+        ApiRecipe meal = parse("{\"strIngredient1\":\" Soy Sauce \",\"strIngredient2\":\"Water\","
+                + "\"strMeasure1\":\"3/4 cup \",\"strMeasure2\":\"1/2 cup\"}");
+
+        assertEquals(2, meal.getIngredients().size());
+        assertLine("Soy Sauce", "3/4 cup", meal.getIngredients().get(0));
+        assertLine("Water", "1/2 cup", meal.getIngredients().get(1));
+    }
+
+    @Test
+    public void skipsNullAndBlankSlots() {
+        ApiRecipe meal = parse("{\"strIngredient1\":\"Eggs\",\"strIngredient2\":null,\"strIngredient3\":\"\","
+                + "\"strIngredient4\":\"  \",\"strIngredient5\":\"Milk\","
+                + "\"strMeasure1\":\"2\",\"strMeasure2\":\"1 tbsp\",\"strMeasure3\":null,"
+                + "\"strMeasure4\":\" \",\"strMeasure5\":\"200ml\"}");
+
+        assertEquals(2, meal.getIngredients().size());
+        assertLine("Eggs", "2", meal.getIngredients().get(0));
+        assertLine("Milk", "200ml", meal.getIngredients().get(1));
+    }
+
+    @Test
+    public void missingOrBlankMeasureIsEmpty() {
+        ApiRecipe meal = parse("{\"strIngredient1\":\"Salt\",\"strIngredient2\":\"Pepper\",\"strMeasure2\":\" \"}");
+
+        assertLine("Salt", "", meal.getIngredients().get(0));
+        assertLine("Pepper", "", meal.getIngredients().get(1));
+    }
+
+    @Test
+    public void pairsSlotsByNumberWhateverTheFieldOrder() {
+        ApiRecipe meal = parse("{\"strMeasure20\":\"pinch\",\"strMeasure1\":\"1 cup\","
+                + "\"strIngredient20\":\"Salt\",\"strIngredient1\":\"Rice\"}");
+
+        assertEquals(2, meal.getIngredients().size());
+        assertLine("Rice", "1 cup", meal.getIngredients().get(0));
+        assertLine("Salt", "pinch", meal.getIngredients().get(1));
+    }
+
+    @Test
+    public void ignoresOutOfRangeAndMalformedSlots() {
+        ApiRecipe meal = parse("{\"strIngredient0\":\"Zero\",\"strIngredient21\":\"TwentyOne\","
+                + "\"strIngredient100\":\"Hundred\",\"strIngredientX\":\"Letter\",\"strIngredient\":\"None\","
+                + "\"strMeasure0\":\"1\",\"strMeasure21\":\"1\",\"strIngredient1\":\"Flour\"}");
+
+        assertEquals(1, meal.getIngredients().size());
+        assertLine("Flour", "", meal.getIngredients().get(0));
+    }
+
+    @Test
+    public void skipsUnknownFieldsOfAnyShape() {
+        ApiRecipe meal = parse("{\"strTags\":\"Meat,Casserole\",\"strYoutube\":\"\",\"strDrinkAlternate\":null,"
+                + "\"nested\":{\"a\":[1,2,{\"b\":null}]},\"count\":3,\"flag\":true,"
+                + "\"idMeal\":\"1\",\"strIngredient1\":\"Beef\"}");
+
+        assertEquals("1", meal.getId());
+        assertEquals(1, meal.getIngredients().size());
+        assertLine("Beef", "", meal.getIngredients().get(0));
+    }
+
+    @Test
+    public void nullFieldsStayNull() {
+        ApiRecipe meal = parse("{\"idMeal\":\"1\",\"strMeal\":null,\"strCategory\":null,\"strArea\":null}");
+
+        assertNull(meal.getTitle());
+        assertNull(meal.getCategory());
+        assertNull(meal.getArea());
+    }
+
+    @Test
+    public void slotsDoNotLeakIntoTheNextMeal() {
+        ApiRecipeResponse response = gson.fromJson("{\"meals\":["
+                + "{\"idMeal\":\"1\",\"strIngredient1\":\"Beef\",\"strIngredient2\":\"Onion\",\"strMeasure2\":\"1\"},"
+                + "null,"
+                + "{\"idMeal\":\"2\",\"strIngredient1\":\"Tofu\"}]}", ApiRecipeResponse.class);
+
+        List<ApiRecipe> meals = response.getResults();
+        assertEquals(3, meals.size());
+        assertEquals(2, meals.get(0).getIngredients().size());
+        assertNull(meals.get(1));
+        assertEquals(1, meals.get(2).getIngredients().size());
+        assertLine("Tofu", "", meals.get(2).getIngredients().get(0));
+    }
+
+    @Test
+    public void nullMealsListStaysNull() {
+        assertNull(gson.fromJson("{\"meals\":null}", ApiRecipeResponse.class).getResults());
+    }
+
+    @Test
+    public void writtenMealReadsBackTheSame() {
+        ApiRecipe meal = new ApiRecipe("7", "Dal", "dal.jpg", "Simmer.", "Vegetarian", "Indian", Arrays.asList(
+                new ApiRecipe.IngredientLine("Red Lentils", "200g"),
+                new ApiRecipe.IngredientLine("Turmeric", "")));
+
+        ApiRecipe read = parse(gson.toJson(meal, ApiRecipe.class));
+
+        assertEquals("7", read.getId());
+        assertEquals("Dal", read.getTitle());
+        assertEquals("Indian", read.getArea());
+        assertEquals(2, read.getIngredients().size());
+        assertLine("Red Lentils", "200g", read.getIngredients().get(0));
+        assertLine("Turmeric", "", read.getIngredients().get(1));
+    }
+
+    @Test
+    public void slotIndexParsesOnlyOneToTwenty() {
+        assertEquals(0, ApiRecipeTypeAdapter.slotIndex("strIngredient1", "strIngredient"));
+        assertEquals(19, ApiRecipeTypeAdapter.slotIndex("strMeasure20", "strMeasure"));
+        assertEquals(-1, ApiRecipeTypeAdapter.slotIndex("strIngredient0", "strIngredient"));
+        assertEquals(-1, ApiRecipeTypeAdapter.slotIndex("strIngredient21", "strIngredient"));
+        assertEquals(-1, ApiRecipeTypeAdapter.slotIndex("strIngredient100", "strIngredient"));
+        assertEquals(-1, ApiRecipeTypeAdapter.slotIndex("strIngredient1a", "strIngredient"));
+        assertEquals(-1, ApiRecipeTypeAdapter.slotIndex("strIngredient", "strIngredient"));
+        assertEquals(-1, ApiRecipeTypeAdapter.slotIndex("strMeasure1", "strIngredient"));
+    }
+}
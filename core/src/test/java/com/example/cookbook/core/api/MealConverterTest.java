@@ -0,0 +1,94 @@
+package com.example.cookbook.core.api;
+
+import com.example.cookbook.core.model.TestRecipe;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MealConverterTest {
+    private final MealConverter<TestRecipe, TestRecipe.TestIngredient> converter = new MealConverter<>(
+            new MealConverter.Factory<TestRecipe, TestRecipe.TestIngredient>() {
+                @Override
+                public TestRecipe.TestIngredient newIngredient(String name, String amount, String unit) {
+                    return new TestRecipe.TestIngredient(name, amount, unit);
+                }
+
+                @Override
+                public TestRecipe newRecipe(ApiRecipe meal, String category, List<TestRecipe.TestIngredient> ingredients) {
+                    TestRecipe recipe = new TestRecipe(meal.getTitle()).id(meal.getId()).category(category)
+                            .area(meal.getArea()).instructions(meal.getInstructions()).importedFromApi(true);
+                    recipe.getIngredients().addAll(ingredients);
+                    return recipe;
+                }
+            });
+
+    private static ApiRecipe meal(String id, String title, String category, ApiRecipe.IngredientLine... lines) {
+        return new ApiRecipe(id, title, null, "Cook it.", category, "British", Arrays.asList(lines));
+    }
+
+    @Test
+    public void convertsFieldsAndIngredientsInOrder() {
+        TestRecipe recipe = converter.convert(meal("52772", "Teriyaki Chicken", "Chicken",
+                new ApiRecipe.IngredientLine("Soy Sauce", "3/4 cup"),
+                new ApiRecipe.IngredientLine("Water", "1/2 cup")));
+
+        assertEquals("52772", recipe.getId());
+        assertEquals("Teriyaki Chicken", recipe.getTitle());
+        assertEquals("Chicken", recipe.getCategory());
+        assertEquals("British", recipe.getArea());
+        assertEquals(2, recipe.getIngredients().size());
+        assertEquals("Soy Sauce", recipe.getIngredients().get(0).getName());
+        assertEquals("3/4 cup", recipe.getIngredients().get(0).getAmount());
+        assertEquals("", recipe.getIngredients().get(0).getUnit());
+        assertEquals("Water", recipe.getIngredients().get(1).getName());
+    }
+
+    @Test
+    public void missingCategoryBecomesTheDefault() {
+        TestRecipe recipe = converter.convert(meal("1", "Mystery", null, new ApiRecipe.IngredientLine("Salt", "")));
+
+        assertEquals(MealConverter.DEFAULT_CATEGORY, recipe.getCategory());
+    }
+
+    @Test
+    public void missingMeasureBecomesTheDefault() {
+        TestRecipe recipe = converter.convert(meal("1", "Toast", "Breakfast", new ApiRecipe.IngredientLine("Bread", "")));
+
+        assertEquals(MealConverter.DEFAULT_MEASURE, recipe.getIngredients().get(0).getAmount());
+    }
+
+    @Test
+    public void namedMealWithoutIngredientsGetsAPlaceholder() {
+        ApiRecipe stub = new ApiRecipe("52795", "Chicken Handi", "thumb.jpg", null, null, null, null);
+
+        List<TestRecipe.TestIngredient> ingredients = converter.convertIngredients(stub);
+
+        assertEquals(1, ingredients.size());
+        assertEquals("Main ingredient", ingredients.get(0).getName());
+    }
+
+    @Test
+    public void untitledMealWithoutIngredientsGetsNone() {
+        ApiRecipe empty = new ApiRecipe("1", "", null, null, null, null, Collections.emptyList());
+
+        assertTrue(converter.convertIngredients(empty).isEmpty());
+    }
+
+    @Test
+    public void convertListSkipsNullMeals() {
+        List<TestRecipe> recipes = converter.convert(Arrays.asList(
+                meal("1", "First", "Side", new ApiRecipe.IngredientLine("Rice", "1 cup")),
+                null,
+                meal("2", "Second", "Side", new ApiRecipe.IngredientLine("Beans", "1 tin"))));
+
+        assertEquals(2, recipes.size());
+        assertEquals("1", recipes.get(0).getId());
+        assertEquals("2", recipes.get(1).getId());
+    }
+}
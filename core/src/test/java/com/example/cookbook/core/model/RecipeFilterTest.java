@@ -0,0 +1,157 @@
+package com.example.cookbook.core.model;
+
+import com.example.cookbook.core.util.DietaryClassifier;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RecipeFilterTest {
+    private final TestRecipe garlicChicken = new TestRecipe("Garlic Chicken", "Chicken Thighs", "Garlic", "Olive Oil")
+            .category("Chicken").area("Italian").importedFromApi(true);
+    private final TestRecipe tomatoSoup = new TestRecipe("Tomato Soup", "Tomatoes", "Onion", "Garlic", "Vegetable Stock")
+            .category("Vegetarian");
+
+    @Test
+    public void categoryMatchesIgnoringCase() {
+        assertTrue(RecipeFilter.byCategory("chicken").matches(garlicChicken));
+        assertFalse(RecipeFilter.byCategory("Beef").matches(garlicChicken));
+    }
+
+    @Test
+    public void categoryValuesAreAlternatives() {
+        RecipeFilter filter = new RecipeFilter(RecipeFilter.FilterType.CATEGORY, Arrays.asList("Beef", "Vegetarian"));
+        assertTrue(filter.matches(tomatoSoup));
+        assertFalse(filter.matches(garlicChicken));
+    }
+
+    @Test
+    public void areaNeverMatchesRecipesWithoutOne() {
+        assertTrue(RecipeFilter.byArea("Italian").matches(garlicChicken));
+        assertFalse(RecipeFilter.byArea("Italian").matches(tomatoSoup));
+    }
+
+    @Test
+    public void everyIngredientValueIsRequired() {
+        RecipeFilter filter = new RecipeFilter(RecipeFilter.FilterType.INGREDIENT, Arrays.asList("Garlic", "Onion"));
+        assertTrue(filter.matches(tomatoSoup));
+        assertFalse(filter.matches(garlicChicken));
+    }
+
+    @Test
+    public void ingredientMatchesIgnoringCase() {
+        assertTrue(RecipeFilter.byIngredient("garlic").matches(garlicChicken));
+        assertFalse(RecipeFilter.byIngredient("Basil").matches(garlicChicken));
+    }
+
+    @Test
+    public void ingredientMatchesWholeNamesLikeFilterPhp() {
+        assertFalse(RecipeFilter.byIngredient("Chicken").matches(garlicChicken));
+        assertFalse(RecipeFilter.byIngredient("Oil").matches(garlicChicken));
+        assertTrue(RecipeFilter.byIngredient("chicken thighs").matches(garlicChicken));
+        assertTrue(RecipeFilter.byIngredient("chicken_thighs").matches(garlicChicken));
+        assertTrue(RecipeFilter.byIngredient(" Olive Oil ").matches(garlicChicken));
+    }
+
+    @Test
+    public void dietaryConditionClassifiesTheRecipe() {
+        assertTrue(RecipeFilter.veganOnly().matches(tomatoSoup));
+        assertFalse(RecipeFilter.vegetarianOnly().matches(garlicChicken));
+        assertTrue(RecipeFilter.glutenFreeOnly().matches(garlicChicken));
+    }
+
+    @Test
+    public void searchConditionMatchesEveryRecipe() {
+        assertTrue(RecipeFilter.bySearch("anything").matches(tomatoSoup));
+    }
+
+    @Test
+    public void matchesRequiresEveryCondition() {
+        RecipeFilter filter = RecipeFilter.byIngredient("Garlic").and(RecipeFilter.vegetarianOnly());
+        assertTrue(filter.matches(tomatoSoup));
+        assertFalse(filter.matches(garlicChicken));
+    }
+
+    @Test
+    public void andMergesValuesIntoTheConditionOfTheSameType() {
+        RecipeFilter filter = RecipeFilter.byIngredient("Garlic")
+                .and(RecipeFilter.byIngredient("Onion"))
+                .and(RecipeFilter.byIngredient("Garlic"));
+
+        List<RecipeFilter> conditions = filter.getConditions();
+        assertEquals(1, conditions.size());
+        assertEquals(Arrays.asList("Garlic", "Onion"), conditions.get(0).getValues());
+        assertEquals("Garlic", conditions.get(0).getValue());
+    }
+
+    @Test
+    public void andAddsEveryConditionTheArgumentCarries() {
+        RecipeFilter filter = RecipeFilter.byArea("Italian")
+                .and(RecipeFilter.byIngredient("Chicken").and(RecipeFilter.veganOnly()));
+
+        List<RecipeFilter> conditions = filter.getConditions();
+        assertEquals(3, conditions.size());
+        assertEquals(RecipeFilter.FilterType.AREA, conditions.get(0).getType());
+        assertEquals(RecipeFilter.FilterType.INGREDIENT, conditions.get(1).getType());
+        assertEquals(RecipeFilter.FilterType.DIETARY, conditions.get(2).getType());
+    }
+
+    @Test
+    public void andCopiesTheArgumentsValues() {
+        RecipeFilter ingredient = RecipeFilter.byIngredient("Chicken");
+        RecipeFilter filter = RecipeFilter.byArea("Italian").and(ingredient);
+        filter.and(RecipeFilter.byIngredient("Garlic"));
+
+        assertEquals(Arrays.asList("Chicken"), ingredient.getValues());
+    }
+
+    @Test
+    public void isCompoundForSeveralValuesOrConditions() {
+        assertFalse(RecipeFilter.byCategory("Beef").isCompound());
+        assertTrue(new RecipeFilter(RecipeFilter.FilterType.CATEGORY, Arrays.asList("Beef", "Pork")).isCompound());
+        assertTrue(RecipeFilter.byCategory("Beef").and(RecipeFilter.byArea("British")).isCompound());
+    }
+
+    @Test
+    public void searchIsNeverCompound() {
+        assertFalse(RecipeFilter.bySearch("pie").isCompound());
+        assertFalse(RecipeFilter.bySearch("pie").and(RecipeFilter.veganOnly()).isCompound());
+    }
+
+    @Test
+    public void withoutDropsConditionsOfTheType() {
+        RecipeFilter filter = RecipeFilter.veganOnly()
+                .and(RecipeFilter.byArea("Indian"))
+                .and(RecipeFilter.byIngredient("Lentils"));
+
+        RecipeFilter apiFilter = filter.without(RecipeFilter.FilterType.DIETARY);
+
+        assertEquals(RecipeFilter.FilterType.AREA, apiFilter.getType());
+        assertEquals(2, apiFilter.getConditions().size());
+        assertFalse(apiFilter.hasCondition(RecipeFilter.FilterType.DIETARY));
+        assertTrue(filter.hasCondition(RecipeFilter.FilterType.DIETARY));
+        assertEquals(3, filter.getConditions().size());
+    }
+
+    @Test
+    public void withoutReturnsNullWhenNothingIsLeft() {
+        assertNull(RecipeFilter.veganOnly().and(RecipeFilter.glutenFreeOnly())
+                .without(RecipeFilter.FilterType.DIETARY));
+    }
+
+    @Test
+    public void requiredDietsCombineEveryDietaryValue() {
+        RecipeFilter filter = RecipeFilter.byCategory("Dessert")
+                .and(RecipeFilter.veganOnly())
+                .and(RecipeFilter.glutenFreeOnly());
+
+        assertEquals(DietaryClassifier.VEGAN | DietaryClassifier.GLUTEN_FREE, filter.getRequiredDiets());
+        assertEquals(0, RecipeFilter.byCategory("Dessert").getRequiredDiets());
+    }
+}
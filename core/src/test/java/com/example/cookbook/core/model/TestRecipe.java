@@ -0,0 +1,108 @@
+package com.example.cookbook.core.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal {@link RecipeData} for tests. Starts as a user-written recipe with
+ * the given title and ingredient names; the other fields are set fluently.
+ */
+public class TestRecipe implements RecipeData {
+    private String id;
+    private String userId;
+    private final String title;
+    private String category;
+    private String area;
+    private String instructions = "Mix everything and cook until done.";
+    private final List<TestIngredient> ingredients = new ArrayList<>();
+    private boolean importedFromApi;
+    private int dietaryFlags = DIETARY_FLAGS_UNKNOWN;
+
+    public TestRecipe(String title, String... ingredientNames) {
+        this.title = title;
+        for (String name : ingredientNames) {
+            ingredients.add(new TestIngredient(name, "1", ""));
+        }
+    }
+
+    public static class TestIngredient implements IngredientData {
+        private final String name;
+        private final String amount;
+        private final String unit;
+
+        public TestIngredient(String name, String amount, String unit) {
+            this.name = name;
+            this.amount = amount;
+            this.unit = unit;
+        }
+
+        @Override
+        public String getName() { return name; }
+
+        @Override
+        public String getAmount() { return amount; }
+
+        @Override
+        public String getUnit() { return unit; }
+    }
+
+    public TestRecipe id(String id) {
+        this.id = id;
+        return this;
+    }
+
+    public TestRecipe userId(String userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public TestRecipe category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    public TestRecipe area(String area) {
+        this.area = area;
+        return this;
+    }
+
+    public TestRecipe instructions(String instructions) {
+        this.instructions = instructions;
+        return this;
+    }
+
+    public TestRecipe importedFromApi(boolean importedFromApi) {
+        this.importedFromApi = importedFromApi;
+        return this;
+    }
+
+    @Override
+    public String getId() { return id; }
+
+    @Override
+    public String getUserId() { return userId; }
+
+    @Override
+    public String getTitle() { return title; }
+
+    @Override
+    public String getCategory() { return category; }
+
+    @Override
+    public String getArea() { return area; }
+
+    @Override
+    public String getInstructions() { return instructions; }
+
+    @Override
+    public List<TestIngredient> getIngredients() { return ingredients; }
+
+    @Override
+    public boolean isImportedFromApi() { return importedFromApi; }
+
+    @Override
+    public int getDietaryFlags() { return dietaryFlags; }
+
+    @Override
+    public void setDietaryFlags(int dietaryFlags) { this.dietaryFlags = dietaryFlags; }
+}
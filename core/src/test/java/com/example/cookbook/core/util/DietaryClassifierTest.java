@@ -0,0 +1,145 @@
+package com.example.cookbook.core.util;
+
+import com.example.cookbook.core.model.RecipeData;
+import com.example.cookbook.core.model.TestRecipe;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.example.cookbook.core.util.DietaryClassifier.ALL_DIETS;
+import static com.example.cookbook.core.util.DietaryClassifier.GLUTEN_FREE;
+import static com.example.cookbook.core.util.DietaryClassifier.VEGAN;
+import static com.example.cookbook.core.util.DietaryClassifier.VEGETARIAN;
+import static org.junit.Assert.assertEquals;
+
+public class DietaryClassifierTest {
+    private static final int MEAT = VEGETARIAN | VEGAN;
+    private static final int ANIMAL_PRODUCT = VEGAN;
+    private static final int GLUTEN = GLUTEN_FREE;
+    private static final int NONE = 0;
+
+    private final DietaryClassifier classifier = DietaryClassifier.getInstance();
+
+    private void assertRuledOut(Object[][] table) {
+        for (Object[] row : table) {
+            assertEquals((String) row[0], (int) row[1], classifier.ruledOutBy((String) row[0]));
+        }
+    }
+
+    @Test
+    public void termsRuleOutTheirDiets() {
+        assertRuledOut(new Object[][] {
+            {"Chicken Thighs", MEAT},
+            {"Fish Sauce", MEAT},
+            {"Worcestershire Sauce", MEAT},
+            {"Oyster Sauce", MEAT},
+            {"Butter", ANIMAL_PRODUCT},
+            {"Double Cream", ANIMAL_PRODUCT},
+            {"Honey", ANIMAL_PRODUCT},
+            {"Plain Flour", GLUTEN},
+            {"Soy Sauce", GLUTEN},
+            {"Puff Pastry", GLUTEN},
+            {"Olive Oil", NONE},
+            {"Chopped Tomatoes", NONE},
+        });
+    }
+
+    @Test
+    public void safeTermsOverrideTheTermsTheyContain() {
+        assertRuledOut(new Object[][] {
+            {"Peanut Butter", NONE},
+            {"Butter Beans", NONE},
+            {"Coconut Milk", NONE},
+            {"Coconut Cream", NONE},
+            {"Cream of Tartar", NONE},
+            {"Rice Flour", NONE},
+            {"Corn Flour", NONE},
+            {"Buckwheat Flour", NONE},
+            {"Gluten-free flour", NONE},
+            {"Rice Noodles", NONE},
+            {"Oyster Mushrooms", NONE},
+            {"Vegetable Suet", NONE},
+        });
+    }
+
+    @Test
+    public void safeTermsOnlyCoverTheirOwnWords() {
+        // "Peanut butter" is safe, the butter next to it is not
+        assertRuledOut(new Object[][] {
+            {"Peanut Butter and Butter", ANIMAL_PRODUCT},
+            {"Rice Flour, Plain Flour", GLUTEN},
+            {"Oyster Mushrooms and Oysters", MEAT},
+        });
+    }
+
+    @Test
+    public void pluralsMatch() {
+        assertRuledOut(new Object[][] {
+            {"Eggs", ANIMAL_PRODUCT},
+            {"Prawns", MEAT},
+            {"Sausages", MEAT},
+            {"Anchovies", MEAT},
+            {"Egg Noodles", ANIMAL_PRODUCT | GLUTEN},
+            {"Noodles", GLUTEN},
+            {"Oysters", MEAT},
+        });
+    }
+
+    @Test
+    public void accentsAreIgnored() {
+        assertRuledOut(new Object[][] {
+            {"Crème fraîche", ANIMAL_PRODUCT},
+            // The same, with combining accents
+            {"Cre\u0300me frai\u0302che", ANIMAL_PRODUCT},
+            {"Gruyère", ANIMAL_PRODUCT},
+            {"Jalapeño", NONE},
+        });
+    }
+
+    @Test
+    public void termsOnlyMatchWholeWords() {
+        assertRuledOut(new Object[][] {
+            {"Cornflour", NONE},
+            {"Buckwheat", NONE},
+            {"Eggplant", NONE},
+            {"Beefsteak Tomatoes", NONE},
+            {"Breadcrumbs", GLUTEN},
+            {"Buttermilk", ANIMAL_PRODUCT},
+        });
+    }
+
+    @Test
+    public void classifyNamesCombinesEveryName() {
+        assertEquals(ALL_DIETS, classifier.classifyNames(Arrays.asList("Rice", "Cornflour", null)));
+        assertEquals(VEGETARIAN | GLUTEN_FREE, classifier.classifyNames(Arrays.asList("Rice", "Eggs")));
+        assertEquals(0, classifier.classifyNames(Arrays.asList("Bacon", "Bread")));
+    }
+
+    @Test
+    public void classifyCachesTheFlagsOnTheRecipe() {
+        TestRecipe recipe = new TestRecipe("Omelette", "Eggs", "Oyster Mushrooms");
+
+        assertEquals(VEGETARIAN | GLUTEN_FREE, classifier.classify(recipe));
+        assertEquals(VEGETARIAN | GLUTEN_FREE, recipe.getDietaryFlags());
+
+        recipe.setDietaryFlags(VEGAN);
+        assertEquals(VEGAN, classifier.classify(recipe));
+    }
+
+    @Test
+    public void recipeWithoutIngredientsSuitsNoDiet() {
+        TestRecipe recipe = new TestRecipe("Mystery");
+
+        assertEquals(0, classifier.classify(recipe));
+        assertEquals(Collections.emptyList(), classifier.describe(recipe));
+    }
+
+    @Test
+    public void describeListsTheStrictestPlantBasedDiet() {
+        RecipeData recipe = new TestRecipe("Dal", "Red Lentils", "Coconut Milk", "Turmeric");
+
+        assertEquals(Arrays.asList("Vegan", "Gluten-Free"), classifier.describe(recipe));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.cookbook.core.util;
+
+import com.example.cookbook.core.model.TestRecipe;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RecipeSearchTest {
+    private static final String USER_ID = "user-1";
+
+    private final TestRecipe ownPie = new TestRecipe("Apple Pie", "Apples", "Butter", "Plain Flour").userId(USER_ID);
+    private final TestRecipe otherUsersSalad = new TestRecipe("Green Salad", "Lettuce", "Olive Oil").userId("user-2");
+    private final TestRecipe savedCurry = new TestRecipe("Chickpea Curry", "Chickpeas", "Coconut Milk", "Rice")
+            .userId(USER_ID).importedFromApi(true);
+    private final TestRecipe stub = new TestRecipe("Beef Wellington", "Main ingredient")
+            .importedFromApi(true).instructions(null);
+
+    @Test
+    public void isStubForTheMealDbRecipesWithoutDetails() {
+        assertTrue(RecipeSearch.isStub(stub));
+        assertTrue(RecipeSearch.isStub(new TestRecipe("Beef Wellington").importedFromApi(true)));
+        assertFalse(RecipeSearch.isStub(savedCurry));
+    }
+
+    @Test
+    public void shortTheMealDbRecipesAreNotStubs() {
+        assertFalse(RecipeSearch.isStub(new TestRecipe("Soup", "Water", "Salt").importedFromApi(true).instructions("Boil")));
+        assertFalse(RecipeSearch.isStub(new TestRecipe("Boiled Egg", "Egg").importedFromApi(true).instructions(null)));
+    }
+
+    @Test
+    public void ownRecipesAreNeverStubs() {
+        assertFalse(RecipeSearch.isStub(new TestRecipe("Toast", "Bread").instructions(null)));
+    }
+
+    @Test
+    public void listableNeedsTitleAndIngredients() {
+        assertTrue(RecipeSearch.isListable(ownPie));
+        assertFalse(RecipeSearch.isListable(new TestRecipe("  ", "Eggs")));
+        assertFalse(RecipeSearch.isListable(new TestRecipe(null, "Eggs")));
+        assertFalse(RecipeSearch.isListable(new TestRecipe("Nothing")));
+        assertFalse(RecipeSearch.isListable(null));
+    }
+
+    @Test
+    public void listableKeepsOrderAndDropsNulls() {
+        TestRecipe untitled = new TestRecipe("", "Eggs");
+        List<TestRecipe> listable = RecipeSearch.listable(Arrays.asList(savedCurry, null, untitled, ownPie));
+
+        assertEquals(Arrays.asList(savedCurry, ownPie), listable);
+    }
+
+    @Test
+    public void ownedByKeepsOnlyTheUsersOwnRecipes() {
+        List<TestRecipe> owned = RecipeSearch.ownedBy(
+                Arrays.asList(ownPie, otherUsersSalad, savedCurry, null, stub), USER_ID);
+
+        assertEquals(Collections.singletonList(ownPie), owned);
+    }
+
+    @Test
+    public void suitingDietsWithoutRequirementsReturnsTheSameList() {
+        List<TestRecipe> recipes = Arrays.asList(ownPie, stub);
+
+        assertSame(recipes, RecipeSearch.suitingDiets(recipes, 0));
+    }
+
+    @Test
+    public void suitingDietsDropsStubsAndUnsuitableRecipes() {
+        List<TestRecipe> suitable = RecipeSearch.suitingDiets(
+                Arrays.asList(ownPie, savedCurry, otherUsersSalad, stub), DietaryClassifier.VEGAN);
+
+        assertEquals(Arrays.asList(savedCurry, otherUsersSalad), suitable);
+    }
+
+    @Test
+    public void titleSearchIgnoresCase() {
+        List<TestRecipe> matching = RecipeSearch.withTitleContaining(
+                Arrays.asList(ownPie, savedCurry, otherUsersSalad), "CURRY");
+
+        assertEquals(Collections.singletonList(savedCurry), matching);
+    }
+}